@@ -0,0 +1,409 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.app;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.registry.AppSubscriber;
+import com.alipay.sofa.dashboard.constants.enums.InstanceSortKey;
+import com.alipay.sofa.dashboard.model.ApplicationInfo;
+import com.alipay.sofa.dashboard.model.PageQuery;
+import com.alipay.sofa.dashboard.model.PageResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 应用实例索引
+ * <p>
+ * 按应用名维护实例数统计，以及按各 {@link InstanceSortKey} 排好序的实例列表，读请求直接返回预先计算好的结果，
+ * 分页查询只需二分定位游标后读取一页数据。
+ * AppSubscriber 没有对外提供变更通知，索引在 {@link #start()} 后由后台线程每隔 {@code refreshInterval}
+ * 从 subscriber 全量拉取一次，并只重建实例集合发生变化的应用；读请求只读取已发布的快照，不会触发同步。
+ **/
+public class AppInstanceIndex {
+
+    private static final Logger                              LOGGER                   = LoggerFactory
+                                                                                          .getLogger(AppInstanceIndex.class);
+
+    /**
+     * 默认同步间隔，单位毫秒
+     */
+    public static final long                                 DEFAULT_REFRESH_INTERVAL = 1000L;
+
+    private static final String                              CURSOR_SEPARATOR         = "\n";
+
+    private static final Comparator<String>                  NULLABLE_STRING          = Comparator
+                                                                                          .nullsFirst(Comparator
+                                                                                              .naturalOrder());
+
+    private static final Map<InstanceSortKey, Comparator<Application>> ORDERS          = new EnumMap<>(
+                                                                                          InstanceSortKey.class);
+
+    static {
+        Comparator<Application> address = Comparator.comparing(Application::getHostName,
+            NULLABLE_STRING).thenComparingInt(Application::getPort);
+        ORDERS.put(InstanceSortKey.HOST, address);
+        ORDERS.put(InstanceSortKey.START_TIME,
+            Comparator.comparingLong(Application::getStartTime).thenComparing(address));
+        ORDERS.put(InstanceSortKey.STATE,
+            Comparator.comparing(Application::getAppState, NULLABLE_STRING).thenComparing(address));
+    }
+
+    private final AppSubscriber                              subscriber;
+
+    private final long                                       refreshInterval;
+
+    private volatile Snapshot                                snapshot                 = Snapshot.EMPTY;
+
+    private ScheduledThreadPoolExecutor                      executor;
+
+    public AppInstanceIndex(AppSubscriber subscriber) {
+        this(subscriber, DEFAULT_REFRESH_INTERVAL);
+    }
+
+    public AppInstanceIndex(AppSubscriber subscriber, long refreshInterval) {
+        this.subscriber = subscriber;
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * 同步一次后开始后台定时同步
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        refreshQuietly();
+        executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-app-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::refreshQuietly, refreshInterval, refreshInterval,
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止后台同步
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * 全部实例数大于 0 的应用统计，按应用名排序
+     *
+     * @return 只读列表
+     */
+    public List<ApplicationInfo> getStatistics() {
+        return snapshot.statistics;
+    }
+
+    /**
+     * 全部实例，按应用名、地址排序
+     *
+     * @return 只读列表
+     */
+    public List<Application> getAllInstances() {
+        return snapshot.instances;
+    }
+
+    /**
+     * 应用的全部实例，按地址排序
+     *
+     * @param appName 应用名
+     * @return 只读列表，应用不存在时返回空列表
+     */
+    public List<Application> getInstances(String appName) {
+        return getInstances(appName, InstanceSortKey.HOST);
+    }
+
+    /**
+     * 应用的全部实例，按指定字段排序
+     *
+     * @param appName 应用名
+     * @param sortKey 排序字段
+     * @return 只读列表，应用不存在时返回空列表
+     */
+    public List<Application> getInstances(String appName, InstanceSortKey sortKey) {
+        AppEntry entry = snapshot.apps.get(appName);
+        return entry == null ? Collections.emptyList() : entry.sorted.get(sortKey);
+    }
+
+    /**
+     * 分页获取应用统计，按应用名排序，游标为上一页最后一个应用名
+     *
+     * @param keyword 关键词，为空时不过滤
+     * @param query   分页参数
+     * @return
+     */
+    public PageResult<ApplicationInfo> getStatisticsPage(String keyword, PageQuery query) {
+        List<ApplicationInfo> statistics = snapshot.statistics;
+        if (!StringUtils.isEmpty(keyword)) {
+            List<ApplicationInfo> matched = new ArrayList<>();
+            for (ApplicationInfo statistic : statistics) {
+                if (statistic.getApplicationName().contains(keyword)) {
+                    matched.add(statistic);
+                }
+            }
+            statistics = matched;
+        }
+        ApplicationInfo probe = null;
+        String[] values = decodeCursor(query.getCursor());
+        if (values != null) {
+            probe = new ApplicationInfo();
+            probe.setApplicationName(values[0]);
+        }
+        return page(statistics, Comparator.comparing(ApplicationInfo::getApplicationName), probe,
+            query, it -> encodeCursor(it.getApplicationName()));
+    }
+
+    /**
+     * 分页获取应用实例，游标为上一页最后一个实例的排序字段取值与地址
+     *
+     * @param appName 应用名
+     * @param sortKey 排序字段
+     * @param query   分页参数
+     * @return
+     */
+    public PageResult<Application> getInstancesPage(String appName, InstanceSortKey sortKey,
+                                                    PageQuery query) {
+        Application probe = toProbe(sortKey, decodeCursor(query.getCursor()));
+        return page(getInstances(appName, sortKey), ORDERS.get(sortKey), probe, query,
+            it -> toCursor(sortKey, it));
+    }
+
+    /**
+     * 从 subscriber 全量同步一次，实例集合没有变化的应用复用原有索引
+     */
+    public synchronized void refresh() {
+        Map<String, List<Application>> grouped = new HashMap<>();
+        for (Application application : subscriber.getAll()) {
+            if (application != null && !StringUtils.isEmpty(application.getAppName())) {
+                grouped.computeIfAbsent(application.getAppName(), key -> new ArrayList<>()).add(
+                    application);
+            }
+        }
+
+        Snapshot previous = snapshot;
+        boolean changed = previous.apps.size() != grouped.size();
+        Map<String, AppEntry> apps = new TreeMap<>();
+        for (Map.Entry<String, List<Application>> group : grouped.entrySet()) {
+            AppEntry entry = previous.apps.get(group.getKey());
+            if (entry == null || !entry.sameInstances(group.getValue())) {
+                entry = new AppEntry(group.getKey(), group.getValue());
+                changed = true;
+            }
+            apps.put(group.getKey(), entry);
+        }
+        if (changed) {
+            snapshot = new Snapshot(apps);
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Throwable t) {
+            // catch the exception ,avoid scheduler task interrupt
+            LOGGER.error("Failed to refresh app instance index.", t);
+        }
+    }
+
+    /**
+     * 在已按 order 升序排好的列表上取一页，倒序时从尾部向前读取；游标无法解析时从第一页开始
+     */
+    private static <T> PageResult<T> page(List<T> sorted, Comparator<T> order, T cursor,
+                                          PageQuery query, Function<T, String> cursorOf) {
+        int size = sorted.size();
+        int start;
+        if (cursor != null) {
+            int found = Collections.binarySearch(sorted, cursor, order);
+            int insertion = found >= 0 ? found + 1 : -(found + 1);
+            // 倒序时游标之前的元素才是下一页
+            start = query.isDescending() ? size - (found >= 0 ? found : insertion) : insertion;
+        } else if (query.getCursor() != null) {
+            start = 0;
+        } else {
+            start = Math.min(query.getOffset(), size);
+        }
+
+        PageResult<T> result = new PageResult<>();
+        result.setTotal(size);
+        result.setOffset(start);
+        int end = Math.min(start + query.getLimit(), size);
+        List<T> items = new ArrayList<>(Math.max(0, end - start));
+        for (int i = start; i < end; i++) {
+            items.add(sorted.get(query.isDescending() ? size - 1 - i : i));
+        }
+        result.setItems(items);
+        if (end < size && !items.isEmpty()) {
+            result.setNextCursor(cursorOf.apply(items.get(items.size() - 1)));
+        }
+        return result;
+    }
+
+    private static String toCursor(InstanceSortKey sortKey, Application application) {
+        String value;
+        switch (sortKey) {
+            case START_TIME:
+                value = String.valueOf(application.getStartTime());
+                break;
+            case STATE:
+                value = String.valueOf(application.getAppState());
+                break;
+            default:
+                value = "";
+        }
+        return encodeCursor(value, String.valueOf(application.getHostName()),
+            String.valueOf(application.getPort()));
+    }
+
+    /**
+     * @return 游标为空或无法解析时返回 null
+     */
+    private static Application toProbe(InstanceSortKey sortKey, String[] values) {
+        if (values == null || values.length != 3) {
+            return null;
+        }
+        Application probe = new Application();
+        try {
+            if (sortKey == InstanceSortKey.START_TIME) {
+                probe.setStartTime(Long.parseLong(values[0]));
+            } else if (sortKey == InstanceSortKey.STATE) {
+                probe.setAppState(values[0]);
+            }
+            probe.setHostName(values[1]);
+            probe.setPort(Integer.parseInt(values[2]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return probe;
+    }
+
+    private static String encodeCursor(String... values) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+            String.join(CURSOR_SEPARATOR, values).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return 游标为空或不是合法的 Base64 时返回 null
+     */
+    private static String[] decodeCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                .split(CURSOR_SEPARATOR, -1);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 同一时刻的索引快照，构建完成后不再修改
+     */
+    private static class Snapshot {
+
+        static final Snapshot       EMPTY = new Snapshot(Collections.emptyMap());
+
+        final Map<String, AppEntry> apps;
+
+        final List<ApplicationInfo> statistics;
+
+        final List<Application>     instances;
+
+        Snapshot(Map<String, AppEntry> apps) {
+            this.apps = apps;
+            List<ApplicationInfo> statistics = new ArrayList<>(apps.size());
+            List<Application> instances = new ArrayList<>();
+            for (AppEntry entry : apps.values()) {
+                statistics.add(entry.info);
+                instances.addAll(entry.sorted.get(InstanceSortKey.HOST));
+            }
+            this.statistics = Collections.unmodifiableList(statistics);
+            this.instances = Collections.unmodifiableList(instances);
+        }
+    }
+
+    /**
+     * 单个应用的实例索引
+     */
+    private static class AppEntry {
+
+        final ApplicationInfo                                info;
+
+        final Map<InstanceSortKey, List<Application>>        sorted = new EnumMap<>(
+                                                                    InstanceSortKey.class);
+
+        AppEntry(String appName, List<Application> instances) {
+            for (Map.Entry<InstanceSortKey, Comparator<Application>> order : ORDERS.entrySet()) {
+                List<Application> list = new ArrayList<>(instances);
+                list.sort(order.getValue());
+                sorted.put(order.getKey(), Collections.unmodifiableList(list));
+            }
+            this.info = new ApplicationInfo();
+            this.info.setApplicationName(appName);
+            this.info.setApplicationCount(instances.size());
+        }
+
+        /**
+         * 实例集合及各实例状态是否与给定列表一致
+         */
+        boolean sameInstances(List<Application> others) {
+            List<Application> current = sorted.get(InstanceSortKey.HOST);
+            if (others.size() != current.size()) {
+                return false;
+            }
+            List<Application> list = new ArrayList<>(others);
+            list.sort(ORDERS.get(InstanceSortKey.HOST));
+            for (int i = 0; i < list.size(); i++) {
+                if (!sameInstance(current.get(i), list.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean sameInstance(Application a, Application b) {
+            return a.getPort() == b.getPort() && a.getStartTime() == b.getStartTime()
+                   && a.getLastRecover() == b.getLastRecover()
+                   && Objects.equals(a.getHostName(), b.getHostName())
+                   && Objects.equals(a.getInternalHost(), b.getInternalHost())
+                   && Objects.equals(a.getAppState(), b.getAppState());
+        }
+    }
+}
@@ -18,14 +18,20 @@ package com.alipay.sofa.dashboard.app;
 
 import com.alipay.sofa.dashboard.client.model.common.Application;
 import com.alipay.sofa.dashboard.client.registry.AppSubscriber;
+import com.alipay.sofa.dashboard.constants.enums.InstanceSortKey;
 import com.alipay.sofa.dashboard.model.ApplicationInfo;
+import com.alipay.sofa.dashboard.model.PageQuery;
+import com.alipay.sofa.dashboard.model.PageResult;
 import com.alipay.sofa.dashboard.spi.AppService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * 应用实例服务实现
@@ -33,12 +39,27 @@ import java.util.stream.Collectors;
  * @author guolei.sgl (guolei.sgl@antfin.com) 2019/7/11 2:45 PM
  **/
 @Service
-public class AppServiceImpl implements AppService {
+public class AppServiceImpl implements AppService, InitializingBean, DisposableBean {
 
-    private final AppSubscriber subscriber;
+    private final AppInstanceIndex index;
 
+    @Autowired
     public AppServiceImpl(AppSubscriber subscriber) {
-        this.subscriber = subscriber;
+        this(new AppInstanceIndex(subscriber));
+    }
+
+    AppServiceImpl(AppInstanceIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        index.start();
+    }
+
+    @Override
+    public void destroy() {
+        index.stop();
     }
 
     @Override
@@ -48,28 +69,39 @@ public class AppServiceImpl implements AppService {
 
     @Override
     public List<ApplicationInfo> getStatisticsByKeyword(@Nullable String keyword) {
-        return subscriber.summaryCounts().entrySet().stream().map(entry -> {
-            ApplicationInfo statistic = new ApplicationInfo();
-            statistic.setApplicationName(entry.getKey());
-            statistic.setApplicationCount(entry.getValue());
-            return statistic;
-        }).filter(it ->
-            // 关键词为空或者服务名包含关键词
-                (StringUtils.isEmpty(keyword) ||
-            // 名字不为空，并且实例数不为 0
-            !StringUtils.isEmpty(it.getApplicationName())
-            && it.getApplicationName().contains(keyword)) && it.getApplicationCount() > 0
-        ).collect(Collectors.toList());
+        List<ApplicationInfo> statistics = index.getStatistics();
+        if (StringUtils.isEmpty(keyword)) {
+            return statistics;
+        }
+        // 索引中只包含名字不为空且实例数不为 0 的应用
+        List<ApplicationInfo> result = new ArrayList<>();
+        for (ApplicationInfo statistic : statistics) {
+            if (statistic.getApplicationName().contains(keyword)) {
+                result.add(statistic);
+            }
+        }
+        return result;
     }
 
     @Override
     public List<Application> getAllInstances() {
-        return subscriber.getAll();
+        return index.getAllInstances();
     }
 
     @Override
     public List<Application> getInstancesByName(@Nullable String serviceName) {
-        return StringUtils.isEmpty(serviceName) ? subscriber.getAll() : subscriber
-            .getByName(serviceName);
+        return StringUtils.isEmpty(serviceName) ? getAllInstances() : index
+            .getInstances(serviceName);
+    }
+
+    @Override
+    public PageResult<ApplicationInfo> getStatisticsPage(@Nullable String keyword, PageQuery query) {
+        return index.getStatisticsPage(keyword, query);
+    }
+
+    @Override
+    public PageResult<Application> getInstancesPage(String appName, InstanceSortKey sortKey,
+                                                    PageQuery query) {
+        return index.getInstancesPage(appName, sortKey, query);
     }
 }
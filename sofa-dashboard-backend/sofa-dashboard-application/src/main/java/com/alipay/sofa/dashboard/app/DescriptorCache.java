@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.app;
+
+import com.alipay.sofa.dashboard.client.model.common.HostAndPort;
+import com.alipay.sofa.dashboard.client.model.io.StoreRecord;
+import com.alipay.sofa.dashboard.client.utils.JsonUtils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 已解析描述对象缓存
+ * <p>
+ * 以 (实例, 记录名) 为键保存最新一条记录的时间戳与解析结果，只有记录时间戳一致时才命中，
+ * exporter 产生更新的记录后旧的解析结果被直接替换。按最近访问顺序淘汰，同时限制条目数与原始 JSON 总长度，
+ * 避免 environment、mappings 这类大对象占用过多内存。
+ * <p>
+ * 缓存的描述对象在多次请求之间共享，调用方不应修改其内容。
+ **/
+public class DescriptorCache {
+
+    public static final int           DEFAULT_MAX_ENTRIES = 2048;
+
+    /**
+     * 缓存对象对应的原始 JSON 字符总数上限
+     */
+    public static final long          DEFAULT_MAX_WEIGHT  = 32L * 1024 * 1024;
+
+    private final int                 maxEntries;
+
+    private final long                maxWeight;
+
+    private final Map<CacheKey, Item> items               = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong          hitCount            = new AtomicLong();
+
+    private final AtomicLong          missCount           = new AtomicLong();
+
+    private long                      weight;
+
+    public DescriptorCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_WEIGHT);
+    }
+
+    public DescriptorCache(int maxEntries, long maxWeight) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * 读取记录对应的描述对象，记录未变化时直接返回缓存结果，否则解析后写入缓存
+     *
+     * @param hostAndPort    实例地址
+     * @param record         最新记录
+     * @param descriptorType 描述对象类型
+     * @return
+     */
+    public <T> T get(HostAndPort hostAndPort, StoreRecord record, Class<T> descriptorType) {
+        CacheKey key = new CacheKey(hostAndPort, record.getSchemeName());
+        synchronized (this) {
+            Item item = items.get(key);
+            if (item != null && item.timestamp == record.getTimestamp()
+                && descriptorType.isInstance(item.descriptor)) {
+                hitCount.incrementAndGet();
+                return descriptorType.cast(item.descriptor);
+            }
+        }
+
+        // 解析在锁外进行，并发解析同一记录时结果相同，后写入的覆盖先写入的
+        missCount.incrementAndGet();
+        String json = record.getValue();
+        T descriptor = JsonUtils.parseObject(json, descriptorType);
+        if (descriptor != null) {
+            put(key, new Item(record.getTimestamp(), descriptor, json == null ? 0 : json.length()));
+        }
+        return descriptor;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public synchronized int size() {
+        return items.size();
+    }
+
+    private synchronized void put(CacheKey key, Item item) {
+        Item previous = items.get(key);
+        if (previous != null && previous.timestamp > item.timestamp) {
+            return;
+        }
+        if (item.weight > maxWeight) {
+            // 单个对象超过上限时不缓存，同时移除已过期的旧结果
+            if (previous != null) {
+                items.remove(key);
+                weight -= previous.weight;
+            }
+            return;
+        }
+        items.put(key, item);
+        weight += item.weight - (previous == null ? 0 : previous.weight);
+
+        Iterator<Item> eldest = items.values().iterator();
+        while (eldest.hasNext() && (items.size() > maxEntries || weight > maxWeight)) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+        }
+    }
+
+    private static final class Item {
+
+        private final long   timestamp;
+
+        private final Object descriptor;
+
+        private final int    weight;
+
+        Item(long timestamp, Object descriptor, int weight) {
+            this.timestamp = timestamp;
+            this.descriptor = descriptor;
+            this.weight = weight;
+        }
+    }
+
+    private static final class CacheKey {
+
+        private final HostAndPort hostAndPort;
+
+        private final String      schemeName;
+
+        CacheKey(HostAndPort hostAndPort, String schemeName) {
+            this.hostAndPort = hostAndPort;
+            this.schemeName = schemeName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return Objects.equals(hostAndPort, other.hostAndPort)
+                   && Objects.equals(schemeName, other.schemeName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hostAndPort, schemeName);
+        }
+    }
+}
@@ -16,6 +16,11 @@
  */
 package com.alipay.sofa.dashboard.app;
 
+import com.alipay.sofa.dashboard.app.series.AppOverviewAggregator;
+import com.alipay.sofa.dashboard.app.series.InstanceMetricStore;
+import com.alipay.sofa.dashboard.app.series.MetricKind;
+import com.alipay.sofa.dashboard.app.series.MetricSeries;
+import com.alipay.sofa.dashboard.app.series.RollupSeries;
 import com.alipay.sofa.dashboard.client.io.RecordExporter;
 import com.alipay.sofa.dashboard.client.model.common.HostAndPort;
 import com.alipay.sofa.dashboard.client.model.env.EnvironmentDescriptor;
@@ -27,18 +32,38 @@ import com.alipay.sofa.dashboard.client.model.logger.LoggersDescriptor;
 import com.alipay.sofa.dashboard.client.model.mappings.MappingsDescriptor;
 import com.alipay.sofa.dashboard.client.model.memory.MemoryDescriptor;
 import com.alipay.sofa.dashboard.client.model.thread.ThreadSummaryDescriptor;
-import com.alipay.sofa.dashboard.client.utils.JsonUtils;
+import com.alipay.sofa.dashboard.constants.enums.MetricResolution;
+import com.alipay.sofa.dashboard.model.AppOverview;
+import com.alipay.sofa.dashboard.model.ColumnarSeries;
+import com.alipay.sofa.dashboard.model.MetricAggregate;
 import com.alipay.sofa.dashboard.model.StampedValueEntity;
 import com.alipay.sofa.dashboard.spi.MonitorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import reactor.util.annotation.NonNull;
 import reactor.util.annotation.Nullable;
 
 import java.io.Serializable;
-import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 应用统计面板实现
@@ -46,22 +71,78 @@ import java.util.stream.Collectors;
  * @author chen.pengzhi (chpengzh@foxmail.com)
  **/
 @Component
-public class MonitorServiceImpl implements MonitorService {
+public class MonitorServiceImpl implements MonitorService, DisposableBean {
+
+    private static final Logger                LOGGER                = LoggerFactory
+                                                                         .getLogger(MonitorServiceImpl.class);
+
+    /**
+     * 记录名与描述对象类型的映射，批量查询按此解析
+     */
+    private static final Map<String, Class<?>> DESCRIPTOR_TYPES      = new HashMap<>();
+
+    static {
+        DESCRIPTOR_TYPES.put(RecordName.ENVIRONMENT, EnvironmentDescriptor.class);
+        DESCRIPTOR_TYPES.put(RecordName.HEALTH, HealthDescriptor.class);
+        DESCRIPTOR_TYPES.put(RecordName.INFO, InfoDescriptor.class);
+        DESCRIPTOR_TYPES.put(RecordName.LOGGERS, LoggersDescriptor.class);
+        DESCRIPTOR_TYPES.put(RecordName.MAPPINGS, MappingsDescriptor.class);
+        DESCRIPTOR_TYPES.put(RecordName.MEMORY, MemoryDescriptor.class);
+        DESCRIPTOR_TYPES.put(RecordName.THREAD_SUMMARY, ThreadSummaryDescriptor.class);
+    }
+
+    /**
+     * 批量查询的并行度
+     */
+    private static final int                   BATCH_PARALLELISM     = 8;
+
+    /**
+     * 批量查询排队任务上限，同时也是在途任务总数的上限
+     */
+    private static final int                   BATCH_QUEUE_SIZE      = 1024;
+
+    /**
+     * 批量查询整体超时时间(seconds)
+     */
+    private static final int                   BATCH_TIMEOUT         = 10;
 
     /**
      * 查询最近数据时间片(minutes)
      */
-    private static final int     SINGLE_QUERY_DURATION = 1;
+    private static final int                   SINGLE_QUERY_DURATION = 1;
 
     /**
      * 查询过去多条记录时间片(minutes)
      */
-    private static final int     MULTI_QUERY_DURATION  = 5;
+    private static final int                   MULTI_QUERY_DURATION  = 5;
+
+    private final RecordExporter               exporter;
+
+    private final InstanceMetricStore          metricStore;
+
+    private final AppOverviewAggregator        overviewAggregator;
+
+    private final DescriptorCache              descriptorCache       = new DescriptorCache();
 
-    private final RecordExporter exporter;
+    private final ThreadPoolExecutor           batchExecutor         = newBatchExecutor();
+
+    /**
+     * 批量查询的在途任务空位，多个批量请求共享，任务结束或取消时归还。
+     * 空位数与队列容量一致，即使执行中的任务尚未让出线程，队列也不会溢出
+     */
+    private final Semaphore                    batchSlots            = new Semaphore(
+                                                                         BATCH_QUEUE_SIZE);
 
     public MonitorServiceImpl(RecordExporter exporter) {
+        this(exporter, new InstanceMetricStore(exporter), new AppOverviewAggregator());
+    }
+
+    @Autowired
+    public MonitorServiceImpl(RecordExporter exporter, InstanceMetricStore metricStore,
+                              AppOverviewAggregator overviewAggregator) {
         this.exporter = exporter;
+        this.metricStore = metricStore;
+        this.overviewAggregator = overviewAggregator;
     }
 
     @Override
@@ -90,44 +171,256 @@ public class MonitorServiceImpl implements MonitorService {
         return queryOne(hostAndPort, RecordName.MAPPINGS, MappingsDescriptor.class);
     }
 
+    @Override
+    public Map<HostAndPort, Map<String, Object>> fetchLatest(Collection<HostAndPort> instances,
+                                                             Collection<String> recordNames) {
+        for (String recordName : recordNames) {
+            if (!DESCRIPTOR_TYPES.containsKey(recordName)) {
+                throw new IllegalArgumentException("Unsupported record name: " + recordName);
+            }
+        }
+
+        // 每个实例一个任务，任务内依次查询各记录，解析结果复用 descriptorCache
+        List<HostAndPort> targets = new ArrayList<>(new LinkedHashSet<>(instances));
+        List<BatchTask> tasks = new ArrayList<>(targets.size());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(BATCH_TIMEOUT);
+        try {
+            for (HostAndPort hostAndPort : targets) {
+                // 在途任务数不超过线程池容量，线程池繁忙时等待空位，而不是被拒绝
+                if (!batchSlots.tryAcquire(Math.max(0L, deadline - System.nanoTime()),
+                    TimeUnit.NANOSECONDS)) {
+                    LOGGER.warn("Fetch records of {} instances timeout, batch executor is busy",
+                        targets.size() - tasks.size());
+                    break;
+                }
+                BatchTask task = new BatchTask(() -> fetchRecords(hostAndPort, recordNames));
+                try {
+                    batchExecutor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    batchSlots.release();
+                    LOGGER.warn("Fetch records of {} rejected, batch executor is shutdown",
+                        hostAndPort);
+                    break;
+                }
+                tasks.add(task);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            tasks.forEach(this::cancel);
+            return new LinkedHashMap<>();
+        }
+
+        Map<HostAndPort, Map<String, Object>> result = new LinkedHashMap<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            BatchTask task = tasks.get(i);
+            try {
+                Map<String, Object> records = task.get(
+                    Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (!records.isEmpty()) {
+                    result.put(targets.get(i), records);
+                }
+            } catch (TimeoutException e) {
+                cancel(task);
+                LOGGER.warn("Fetch records of {} timeout", targets.get(i));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                tasks.subList(i, tasks.size()).forEach(this::cancel);
+                break;
+            } catch (ExecutionException e) {
+                LOGGER.warn("Failed to fetch records of {}", targets.get(i), e.getCause());
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Object> fetchRecords(HostAndPort hostAndPort, Collection<String> recordNames) {
+        Map<String, Object> records = new HashMap<>(recordNames.size());
+        for (String recordName : recordNames) {
+            Object descriptor = queryOne(hostAndPort, recordName, DESCRIPTOR_TYPES.get(recordName));
+            if (descriptor != null) {
+                records.put(recordName, descriptor);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * 先从队列移除再取消，保证释放的空位在线程池中确实可用
+     */
+    private void cancel(BatchTask task) {
+        batchExecutor.remove(task);
+        task.cancel(true);
+    }
+
+    @Override
+    public AppOverview fetchAppOverview(String appName) {
+        return overviewAggregator.overview(appName);
+    }
+
+    @Override
+    public void destroy() {
+        batchExecutor.shutdownNow();
+    }
+
     @Override
     public List<StampedValueEntity<ThreadSummaryDescriptor>> fetchThreadInfo(HostAndPort hostAndPort) {
-        return queryList(hostAndPort, RecordName.THREAD_SUMMARY, ThreadSummaryDescriptor.class);
+        return queryList(hostAndPort, MetricKind.THREAD);
     }
 
     @Override
     public List<StampedValueEntity<MemoryDescriptor>> fetchMemoryInfo(HostAndPort hostAndPort) {
-        return queryList(hostAndPort, RecordName.MEMORY, MemoryDescriptor.class);
+        return queryList(hostAndPort, MetricKind.MEMORY);
+    }
+
+    @Override
+    public ColumnarSeries fetchMemoryColumns(HostAndPort hostAndPort) {
+        return queryColumns(hostAndPort, MetricKind.MEMORY);
+    }
+
+    @Override
+    public ColumnarSeries fetchThreadColumns(HostAndPort hostAndPort) {
+        return queryColumns(hostAndPort, MetricKind.THREAD);
+    }
+
+    @Override
+    public List<StampedValueEntity<MetricAggregate>> fetchMemoryInfo(HostAndPort hostAndPort,
+                                                                     long from, long to,
+                                                                     MetricResolution resolution) {
+        return queryAggregate(hostAndPort, MetricKind.MEMORY, from, to, resolution);
+    }
+
+    @Override
+    public List<StampedValueEntity<MetricAggregate>> fetchThreadInfo(HostAndPort hostAndPort,
+                                                                     long from, long to,
+                                                                     MetricResolution resolution) {
+        return queryAggregate(hostAndPort, MetricKind.THREAD, from, to, resolution);
     }
 
     @Nullable
     private <T> T queryOne(HostAndPort hostAndPort, String schemeName, Class<T> descriptorType) {
         List<StoreRecord> records = exporter.getLatestRecords(hostAndPort, schemeName,
             TimeUnit.MINUTES.toMillis(SINGLE_QUERY_DURATION));
-        return records.stream().map(StoreRecord::getValue)
-            .map(it -> JsonUtils.parseObject(it, descriptorType))
+        return records.stream()
             .findFirst()
+            .map(it -> descriptorCache.get(hostAndPort, it, descriptorType))
             .orElse(null);
     }
 
+    /**
+     * 从时序存储读取最近的记录，描述对象由存储的数值列还原，不再做 JSON 解析。
+     * 只记录毫秒时间戳，需要时由调用方通过 {@link StampedValueEntity#formatTimestamp()} 生成格式化的 timestamp
+     */
     @NonNull
-    private <T extends Serializable> List<StampedValueEntity<T>> queryList(
-        HostAndPort hostAndPort, String schemeName, Class<T> descriptorType) {
-        List<StoreRecord> records = exporter.getLatestRecords(hostAndPort,
-            schemeName, TimeUnit.MINUTES.toMillis(MULTI_QUERY_DURATION));
-
-        return records.stream().map(it -> {
+    @SuppressWarnings("unchecked")
+    private <T extends Serializable> List<StampedValueEntity<T>> queryList(HostAndPort hostAndPort,
+                                                                           MetricKind kind) {
+        MetricSeries series = metricStore.query(hostAndPort, kind,
+            TimeUnit.MINUTES.toMillis(MULTI_QUERY_DURATION));
+        List<StampedValueEntity<T>> result = new ArrayList<>(series.size());
+        for (int i = 0; i < series.size(); i++) {
             StampedValueEntity<T> value = new StampedValueEntity<>();
-            value.setName(RecordName.THREAD_SUMMARY);
-            value.setTimestamp(formatTime(it.getTimestamp()));
-            value.setValue(JsonUtils.parseObject(it.getValue(), descriptorType));
-            return value;
-        }).collect(Collectors.toList());
+            value.setName(kind.getRecordName());
+            value.setEpochMillis(series.getTimestamps()[i]);
+            value.setValue((T) series.getDescriptor(i));
+            result.add(value);
+        }
+        return result;
     }
 
+    /**
+     * 直接使用时序存储复制出的基本类型数组组装结果，不经过描述对象
+     */
     @NonNull
-    private String formatTime(long timestamp) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        return dateFormat.format(timestamp);
+    private ColumnarSeries queryColumns(HostAndPort hostAndPort, MetricKind kind) {
+        MetricSeries series = metricStore.query(hostAndPort, kind,
+            TimeUnit.MINUTES.toMillis(MULTI_QUERY_DURATION));
+        ColumnarSeries result = new ColumnarSeries();
+        result.setName(kind.getRecordName());
+        result.setTimestamps(series.getTimestamps());
+        String[] fields = kind.getFields();
+        for (int i = 0; i < fields.length; i++) {
+            result.getColumns().put(fields[i], series.getColumn(i));
+        }
+        return result;
+    }
+
+    /**
+     * 按粒度读取时间范围内的序列，RAW 粒度下每个采样点视为只含一个值的窗口
+     */
+    @NonNull
+    private List<StampedValueEntity<MetricAggregate>> queryAggregate(HostAndPort hostAndPort,
+                                                                     MetricKind kind, long from,
+                                                                     long to,
+                                                                     MetricResolution resolution) {
+        if (resolution == null) {
+            resolution = MetricResolution.suggest(to - from);
+        }
+        String[] fields = kind.getFields();
+        List<StampedValueEntity<MetricAggregate>> result = new ArrayList<>();
+        if (resolution == MetricResolution.RAW) {
+            MetricSeries series = metricStore.query(hostAndPort, kind, from, to);
+            for (int i = 0; i < series.size(); i++) {
+                MetricAggregate aggregate = new MetricAggregate();
+                aggregate.setCount(1);
+                for (int field = 0; field < fields.length; field++) {
+                    long value = series.getColumn(field)[i];
+                    aggregate.getFields().put(fields[field],
+                        new MetricAggregate.FieldStat(value, value, value, value));
+                }
+                result.add(stamped(kind, series.getTimestamps()[i], aggregate));
+            }
+            return result;
+        }
+
+        RollupSeries series = metricStore.queryRollup(hostAndPort, kind, resolution, from, to);
+        for (int i = 0; i < series.size(); i++) {
+            MetricAggregate aggregate = new MetricAggregate();
+            aggregate.setCount(series.getCount(i));
+            for (int field = 0; field < fields.length; field++) {
+                aggregate.getFields().put(
+                    fields[field],
+                    new MetricAggregate.FieldStat(series.getMin(field, i), series.getMax(field, i),
+                        series.getAvg(field, i), series.getLast(field, i)));
+            }
+            result.add(stamped(kind, series.getStarts()[i], aggregate));
+        }
+        return result;
+    }
+
+    private StampedValueEntity<MetricAggregate> stamped(MetricKind kind, long timestamp,
+                                                        MetricAggregate aggregate) {
+        StampedValueEntity<MetricAggregate> value = new StampedValueEntity<>();
+        value.setName(kind.getRecordName());
+        value.setEpochMillis(timestamp);
+        value.setValue(aggregate);
+        return value;
+    }
+
+    private static ThreadPoolExecutor newBatchExecutor() {
+        AtomicInteger index = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(BATCH_PARALLELISM, BATCH_PARALLELISM,
+            60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(BATCH_QUEUE_SIZE), runnable -> {
+                Thread thread = new Thread(runnable, "dashboard-monitor-batch-"
+                                                     + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 批量查询任务，结束或取消时归还占用的空位
+     */
+    private final class BatchTask extends FutureTask<Map<String, Object>> {
+
+        BatchTask(Callable<Map<String, Object>> callable) {
+            super(callable);
+        }
+
+        @Override
+        protected void done() {
+            batchSlots.release();
+        }
     }
 }
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.app.series;
+
+import com.alipay.sofa.dashboard.client.model.common.HostAndPort;
+import com.alipay.sofa.dashboard.model.AppOverview;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 应用维度汇总
+ * <p>
+ * 采集任务每拿到一个实例的最新数据就更新该实例所在应用的状态：健康状态分布按状态变化增减计数，
+ * 内存与线程只记录实例最新值并标记应用已变化。查询时直接返回缓存的汇总结果，
+ * 只有应用发生变化后的第一次查询才重新计算分位数。
+ **/
+@Component
+public class AppOverviewAggregator {
+
+    public static final String          UNKNOWN_STATUS = "UNKNOWN";
+
+    private final Map<String, AppState> apps           = new ConcurrentHashMap<>();
+
+    /**
+     * 更新一个实例的最新数据
+     *
+     * @param appName     应用名
+     * @param hostAndPort 实例地址
+     * @param status      健康状态，为空时计为 UNKNOWN
+     * @param memory      内存各字段最新值，顺序见 {@link MetricKind#MEMORY}，可为空
+     * @param thread      线程各字段最新值，顺序见 {@link MetricKind#THREAD}，可为空
+     */
+    public void update(String appName, HostAndPort hostAndPort, String status, long[] memory,
+                       long[] thread) {
+        AppState state = apps.computeIfAbsent(appName, AppState::new);
+        state.update(hostAndPort, status == null ? UNKNOWN_STATUS : status, memory, thread);
+    }
+
+    /**
+     * 移除已下线的实例与应用
+     *
+     * @param liveInstances 应用名 -> 当前在线实例
+     */
+    public void retain(Map<String, Set<HostAndPort>> liveInstances) {
+        apps.keySet().retainAll(liveInstances.keySet());
+        apps.forEach((appName, state) -> state.retain(liveInstances.getOrDefault(appName,
+            Collections.emptySet())));
+    }
+
+    /**
+     * 读取应用汇总，返回对象在应用下次变化前被多次查询共享，调用方不应修改
+     *
+     * @param appName 应用名
+     * @return 汇总结果，应用没有数据时返回 {@code null}
+     */
+    public AppOverview overview(String appName) {
+        AppState state = apps.get(appName);
+        return state == null ? null : state.overview();
+    }
+
+    private static final class AppState {
+
+        private final String                          appName;
+
+        private final Map<HostAndPort, InstanceState> instances   = new HashMap<>();
+
+        private final Map<String, Integer>            healthCount = new HashMap<>();
+
+        private AppOverview                           cached;
+
+        private long                                  updateTime;
+
+        AppState(String appName) {
+            this.appName = appName;
+        }
+
+        synchronized void update(HostAndPort hostAndPort, String status, long[] memory,
+                                 long[] thread) {
+            InstanceState previous = instances.put(hostAndPort, new InstanceState(status, memory,
+                thread));
+            if (previous != null) {
+                if (previous.sameAs(status, memory, thread)) {
+                    return;
+                }
+                healthCount.merge(previous.status, -1, Integer::sum);
+            }
+            healthCount.merge(status, 1, Integer::sum);
+            changed();
+        }
+
+        synchronized void retain(Set<HostAndPort> live) {
+            if (instances.entrySet().removeIf(entry -> {
+                if (live.contains(entry.getKey())) {
+                    return false;
+                }
+                healthCount.merge(entry.getValue().status, -1, Integer::sum);
+                return true;
+            })) {
+                changed();
+            }
+        }
+
+        synchronized AppOverview overview() {
+            if (cached == null) {
+                AppOverview overview = new AppOverview();
+                overview.setAppName(appName);
+                overview.setInstanceCount(instances.size());
+                overview.setUpdateTime(updateTime);
+                healthCount.forEach((status, count) -> {
+                    if (count > 0) {
+                        overview.getHealthDistribution().put(status, count);
+                    }
+                });
+                percentiles(MetricKind.MEMORY, overview.getMemory());
+                percentiles(MetricKind.THREAD, overview.getThread());
+                cached = overview;
+            }
+            return cached;
+        }
+
+        private void changed() {
+            cached = null;
+            updateTime = System.currentTimeMillis();
+        }
+
+        private void percentiles(MetricKind kind, Map<String, AppOverview.Percentiles> result) {
+            String[] fields = kind.getFields();
+            long[][] columns = new long[fields.length][instances.size()];
+            int count = 0;
+            for (InstanceState instance : instances.values()) {
+                long[] values = kind == MetricKind.MEMORY ? instance.memory : instance.thread;
+                if (values == null) {
+                    continue;
+                }
+                for (int field = 0; field < fields.length; field++) {
+                    columns[field][count] = values[field];
+                }
+                count++;
+            }
+            if (count == 0) {
+                return;
+            }
+            for (int field = 0; field < fields.length; field++) {
+                long[] sorted = Arrays.copyOf(columns[field], count);
+                Arrays.sort(sorted);
+                result.put(fields[field],
+                    new AppOverview.Percentiles(rank(sorted, 50), rank(sorted, 95),
+                        sorted[count - 1]));
+            }
+        }
+
+        /**
+         * nearest-rank 分位数
+         */
+        private static long rank(long[] sorted, int percentile) {
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(index, 0)];
+        }
+    }
+
+    private static final class InstanceState {
+
+        private final String status;
+
+        private final long[] memory;
+
+        private final long[] thread;
+
+        InstanceState(String status, long[] memory, long[] thread) {
+            this.status = status;
+            this.memory = memory;
+            this.thread = thread;
+        }
+
+        boolean sameAs(String status, long[] memory, long[] thread) {
+            return this.status.equals(status) && Arrays.equals(this.memory, memory)
+                   && Arrays.equals(this.thread, thread);
+        }
+    }
+}
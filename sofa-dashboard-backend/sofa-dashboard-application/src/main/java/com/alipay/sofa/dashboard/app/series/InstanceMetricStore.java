@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.app.series;
+
+import com.alipay.sofa.dashboard.client.io.RecordExporter;
+import com.alipay.sofa.dashboard.client.model.common.HostAndPort;
+import com.alipay.sofa.dashboard.client.model.io.StoreRecord;
+import com.alipay.sofa.dashboard.constants.enums.MetricResolution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 实例指标时序存储
+ * <p>
+ * 每个实例的每类指标对应一个 {@link MetricRingBuffer}。查询时只向 RecordExporter 拉取上次写入之后的新记录，
+ * 新记录解析一次后写入缓冲区，图表查询直接读取基本类型数组。缓冲区容量固定，已下线实例的指标由采集任务通过 {@link #retain} 清理。
+ * <p>
+ * 原始采样点写入时同步合并到 1 分钟与 10 分钟两级 {@link MetricRollup}，原始数据保留数分钟，
+ * 1 分钟聚合保留数小时，10 分钟聚合保留数天，长时间范围的查询直接读取预聚合结果。
+ **/
+@Component
+public class InstanceMetricStore {
+
+    private static final Logger          LOGGER                      = LoggerFactory
+                                                                         .getLogger(InstanceMetricStore.class);
+
+    /**
+     * 每个缓冲区保留的采样点数
+     */
+    public static final int              DEFAULT_CAPACITY            = 720;
+
+    /**
+     * 1 分钟聚合保留的窗口数，即 3 小时
+     */
+    public static final int              DEFAULT_MINUTE_CAPACITY     = 180;
+
+    /**
+     * 10 分钟聚合保留的窗口数，即 3 天
+     */
+    public static final int              DEFAULT_TEN_MINUTE_CAPACITY = 432;
+
+    /**
+     * 首次写入时向前拉取的时间范围
+     */
+    public static final long             DEFAULT_INITIAL_RANGE       = TimeUnit.MINUTES.toMillis(5);
+
+    private final RecordExporter         exporter;
+
+    private final int                    capacity;
+
+    private final long                   initialRange;
+
+    private final Map<SeriesKey, Series> series                      = new HashMap<>();
+
+    @Autowired
+    public InstanceMetricStore(RecordExporter exporter) {
+        this(exporter, DEFAULT_CAPACITY, DEFAULT_INITIAL_RANGE);
+    }
+
+    public InstanceMetricStore(RecordExporter exporter, int capacity, long initialRange) {
+        this.exporter = exporter;
+        this.capacity = capacity;
+        this.initialRange = initialRange;
+    }
+
+    /**
+     * 拉取新记录后，返回最近一段时间内的指标序列
+     *
+     * @param hostAndPort 实例地址
+     * @param kind        指标类型
+     * @param duration    时间范围，单位毫秒
+     * @return
+     */
+    public MetricSeries query(HostAndPort hostAndPort, MetricKind kind, long duration) {
+        return query(hostAndPort, kind, System.currentTimeMillis() - duration, Long.MAX_VALUE);
+    }
+
+    /**
+     * 拉取新记录后，返回时间范围 [from, to] 内的原始指标序列
+     *
+     * @param hostAndPort 实例地址
+     * @param kind        指标类型
+     * @param from        起始时间（含）
+     * @param to          结束时间（含）
+     * @return
+     */
+    public MetricSeries query(HostAndPort hostAndPort, MetricKind kind, long from, long to) {
+        Series target = seriesOf(hostAndPort, kind);
+        ingest(hostAndPort, kind, target);
+        return target.raw.range(from, to);
+    }
+
+    /**
+     * 拉取新记录后，返回时间范围 [from, to] 内的预聚合序列
+     *
+     * @param hostAndPort 实例地址
+     * @param kind        指标类型
+     * @param resolution  聚合粒度，不支持 RAW
+     * @param from        起始时间（含）
+     * @param to          结束时间（含）
+     * @return
+     */
+    public RollupSeries queryRollup(HostAndPort hostAndPort, MetricKind kind,
+                                    MetricResolution resolution, long from, long to) {
+        Series target = seriesOf(hostAndPort, kind);
+        ingest(hostAndPort, kind, target);
+        return target.rollupOf(resolution).range(from, to);
+    }
+
+    /**
+     * 拉取实例所有类型指标的新记录，由后台采集任务调用，保证无人查看时聚合数据也能持续积累
+     *
+     * @param hostAndPort 实例地址
+     */
+    public void collect(HostAndPort hostAndPort) {
+        for (MetricKind kind : MetricKind.values()) {
+            ingest(hostAndPort, kind, seriesOf(hostAndPort, kind));
+        }
+    }
+
+    /**
+     * 读取已写入的最新采样值，不拉取新记录
+     *
+     * @param hostAndPort 实例地址
+     * @param kind        指标类型
+     * @return 各字段取值，没有数据时返回 {@code null}
+     */
+    public long[] latest(HostAndPort hostAndPort, MetricKind kind) {
+        Series target;
+        synchronized (series) {
+            target = series.get(new SeriesKey(hostAndPort, kind));
+        }
+        return target == null ? null : target.raw.lastValues();
+    }
+
+    /**
+     * 只保留在线实例的指标，已下线实例的缓冲区与聚合数据一并释放
+     *
+     * @param liveInstances 当前在线的实例
+     */
+    public void retain(Set<HostAndPort> liveInstances) {
+        synchronized (series) {
+            series.keySet().removeIf(key -> !liveInstances.contains(key.hostAndPort));
+        }
+    }
+
+    /**
+     * 拉取上次写入之后的记录并写入缓冲区，同一缓冲区的写入串行执行，避免重复解析
+     */
+    private void ingest(HostAndPort hostAndPort, MetricKind kind, Series target) {
+        synchronized (target) {
+            long last = target.raw.lastTimestamp();
+            long range = last < 0 ? initialRange : Math.max(System.currentTimeMillis() - last, 0)
+                                                   + TimeUnit.SECONDS.toMillis(1);
+            List<StoreRecord> records = new ArrayList<>(exporter.getLatestRecords(hostAndPort,
+                kind.getRecordName(), range));
+            records.sort(Comparator.comparingLong(StoreRecord::getTimestamp));
+            for (StoreRecord record : records) {
+                if (record.getTimestamp() <= last) {
+                    continue;
+                }
+                Serializable descriptor = decode(kind, record);
+                if (descriptor == null) {
+                    continue;
+                }
+                long[] values = kind.values(descriptor);
+                if (target.raw.append(record.getTimestamp(), values)) {
+                    target.minute.add(record.getTimestamp(), values);
+                    target.tenMinutes.add(record.getTimestamp(), values);
+                    last = record.getTimestamp();
+                }
+            }
+        }
+    }
+
+    private Serializable decode(MetricKind kind, StoreRecord record) {
+        try {
+            return kind.decode(record.getValue());
+        } catch (Exception e) {
+            LOGGER.warn("Failed to decode {} record at {}", kind.getRecordName(),
+                record.getTimestamp(), e);
+            return null;
+        }
+    }
+
+    private Series seriesOf(HostAndPort hostAndPort, MetricKind kind) {
+        SeriesKey key = new SeriesKey(hostAndPort, kind);
+        synchronized (series) {
+            return series.computeIfAbsent(key, it -> new Series(kind, capacity));
+        }
+    }
+
+    /**
+     * 单个实例单类指标的原始数据与各级聚合
+     */
+    private static final class Series {
+
+        private final MetricRingBuffer raw;
+
+        private final MetricRollup     minute;
+
+        private final MetricRollup     tenMinutes;
+
+        Series(MetricKind kind, int capacity) {
+            this.raw = new MetricRingBuffer(kind, capacity);
+            this.minute = new MetricRollup(kind, MetricResolution.ONE_MINUTE.getBucketMillis(),
+                DEFAULT_MINUTE_CAPACITY);
+            this.tenMinutes = new MetricRollup(kind,
+                MetricResolution.TEN_MINUTES.getBucketMillis(), DEFAULT_TEN_MINUTE_CAPACITY);
+        }
+
+        MetricRollup rollupOf(MetricResolution resolution) {
+            switch (resolution) {
+                case ONE_MINUTE:
+                    return minute;
+                case TEN_MINUTES:
+                    return tenMinutes;
+                default:
+                    throw new IllegalArgumentException("Unsupported rollup resolution: "
+                                                       + resolution);
+            }
+        }
+    }
+
+    private static final class SeriesKey {
+
+        private final HostAndPort hostAndPort;
+
+        private final MetricKind  kind;
+
+        SeriesKey(HostAndPort hostAndPort, MetricKind kind) {
+            this.hostAndPort = hostAndPort;
+            this.kind = kind;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SeriesKey)) {
+                return false;
+            }
+            SeriesKey other = (SeriesKey) o;
+            return kind == other.kind && Objects.equals(hostAndPort, other.hostAndPort);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hostAndPort, kind);
+        }
+    }
+}
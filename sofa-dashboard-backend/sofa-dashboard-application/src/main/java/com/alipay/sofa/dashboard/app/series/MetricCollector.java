@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.app.series;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.model.common.HostAndPort;
+import com.alipay.sofa.dashboard.client.model.health.HealthDescriptor;
+import com.alipay.sofa.dashboard.spi.AppService;
+import com.alipay.sofa.dashboard.spi.MonitorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时采集所有在线实例的指标，使预聚合数据不依赖页面查询也能持续积累，同时维护应用维度汇总
+ **/
+@Component
+public class MetricCollector implements InitializingBean, DisposableBean {
+
+    private static final Logger         LOGGER = LoggerFactory.getLogger(MetricCollector.class);
+
+    private final AppService            appService;
+
+    private final InstanceMetricStore   metricStore;
+
+    private final MonitorService        monitorService;
+
+    private final AppOverviewAggregator aggregator;
+
+    /**
+     * 采集间隔，单位毫秒，小于等于 0 时不采集
+     */
+    @Value("${com.alipay.sofa.dashboard.metrics.collectIntervalMs:30000}")
+    private long                        collectIntervalMs;
+
+    private ScheduledThreadPoolExecutor executor;
+
+    @Autowired
+    public MetricCollector(AppService appService, InstanceMetricStore metricStore,
+                           MonitorService monitorService, AppOverviewAggregator aggregator) {
+        this.appService = appService;
+        this.metricStore = metricStore;
+        this.monitorService = monitorService;
+        this.aggregator = aggregator;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (collectIntervalMs <= 0) {
+            return;
+        }
+        executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-metric-collector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::collectAll, collectIntervalMs, collectIntervalMs,
+            TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 采集一轮所有实例并更新应用汇总，单个实例失败不影响其他实例。
+     * 在采集线程内逐个实例读取，不占用页面批量查询使用的线程池
+     */
+    void collectAll() {
+        try {
+            Map<String, Set<HostAndPort>> liveInstances = new HashMap<>();
+            Set<HostAndPort> live = new HashSet<>();
+            for (Application instance : appService.getAllInstances()) {
+                HostAndPort hostAndPort = new HostAndPort(instance.getHostName(),
+                    instance.getInternalHost(), instance.getPort());
+                live.add(hostAndPort);
+                liveInstances.computeIfAbsent(instance.getAppName(), it -> new HashSet<>())
+                    .add(hostAndPort);
+                String status = null;
+                try {
+                    metricStore.collect(hostAndPort);
+                    HealthDescriptor health = monitorService.fetchHealth(hostAndPort);
+                    status = health == null ? null : health.getStatus();
+                } catch (Throwable t) {
+                    LOGGER.warn("Failed to collect metrics of {}", hostAndPort, t);
+                }
+                aggregator.update(instance.getAppName(), hostAndPort, status,
+                    metricStore.latest(hostAndPort, MetricKind.MEMORY),
+                    metricStore.latest(hostAndPort, MetricKind.THREAD));
+            }
+            aggregator.retain(liveInstances);
+            metricStore.retain(live);
+        } catch (Throwable t) {
+            // catch the exception ,avoid scheduler task interrupt
+            LOGGER.error("Failed to execute metric collect task.", t);
+        }
+    }
+}
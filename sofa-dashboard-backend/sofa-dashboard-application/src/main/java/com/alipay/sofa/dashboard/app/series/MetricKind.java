@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.app.series;
+
+import com.alipay.sofa.dashboard.client.model.io.RecordName;
+import com.alipay.sofa.dashboard.client.model.memory.MemoryDescriptor;
+import com.alipay.sofa.dashboard.client.model.thread.ThreadSummaryDescriptor;
+import com.alipay.sofa.dashboard.client.utils.JsonUtils;
+
+import java.io.Serializable;
+
+/**
+ * 时序指标类型，定义记录名、数值字段以及一次性解码逻辑
+ **/
+public enum MetricKind {
+
+    /**
+     * 内存概况，单位 byte
+     */
+    MEMORY(RecordName.MEMORY, MemoryDescriptor.class, "heapSize", "heapUsed", "nonHeapSize",
+           "nonHeapUsed", "metaspace") {
+        @Override
+        long[] values(Serializable descriptor) {
+            MemoryDescriptor memory = (MemoryDescriptor) descriptor;
+            long[] values = new long[5];
+            if (memory.getHeap() != null) {
+                values[0] = memory.getHeap().getSize();
+                values[1] = memory.getHeap().getUsed();
+            }
+            if (memory.getNonHeap() != null) {
+                values[2] = memory.getNonHeap().getSize();
+                values[3] = memory.getNonHeap().getUsed();
+                values[4] = memory.getNonHeap().getMetaspace();
+            }
+            return values;
+        }
+
+        @Override
+        Serializable descriptor(long[] values) {
+            MemoryDescriptor memory = new MemoryDescriptor();
+            MemoryDescriptor.HeapDescriptor heap = new MemoryDescriptor.HeapDescriptor();
+            heap.setSize(values[0]);
+            heap.setUsed(values[1]);
+            MemoryDescriptor.NonHeapDescriptor nonHeap = new MemoryDescriptor.NonHeapDescriptor();
+            nonHeap.setSize(values[2]);
+            nonHeap.setUsed(values[3]);
+            nonHeap.setMetaspace(values[4]);
+            memory.setHeap(heap);
+            memory.setNonHeap(nonHeap);
+            return memory;
+        }
+    },
+
+    /**
+     * 线程概况
+     */
+    THREAD(RecordName.THREAD_SUMMARY, ThreadSummaryDescriptor.class, "live", "daemon", "peak") {
+        @Override
+        long[] values(Serializable descriptor) {
+            ThreadSummaryDescriptor thread = (ThreadSummaryDescriptor) descriptor;
+            return new long[] { thread.getLive(), thread.getDaemon(), thread.getPeak() };
+        }
+
+        @Override
+        Serializable descriptor(long[] values) {
+            ThreadSummaryDescriptor thread = new ThreadSummaryDescriptor();
+            thread.setLive((int) values[0]);
+            thread.setDaemon((int) values[1]);
+            thread.setPeak((int) values[2]);
+            return thread;
+        }
+    };
+
+    private final String                        recordName;
+
+    private final Class<? extends Serializable> descriptorType;
+
+    private final String[]                      fields;
+
+    MetricKind(String recordName, Class<? extends Serializable> descriptorType, String... fields) {
+        this.recordName = recordName;
+        this.descriptorType = descriptorType;
+        this.fields = fields;
+    }
+
+    public String getRecordName() {
+        return recordName;
+    }
+
+    public String[] getFields() {
+        return fields.clone();
+    }
+
+    public int fieldCount() {
+        return fields.length;
+    }
+
+    /**
+     * 解析记录原始 JSON，每条记录只在写入时解析一次
+     *
+     * @param json 记录原始值
+     * @return 描述对象，解析结果为空时返回 {@code null}
+     */
+    Serializable decode(String json) {
+        return JsonUtils.parseObject(json, descriptorType);
+    }
+
+    /**
+     * 从描述对象中提取数值字段，顺序与 {@link #getFields()} 一致
+     */
+    abstract long[] values(Serializable descriptor);
+
+    /**
+     * 由数值字段还原描述对象，用于兼容返回完整描述的接口；描述对象的所有字段都已按列保存
+     */
+    abstract Serializable descriptor(long[] values);
+}
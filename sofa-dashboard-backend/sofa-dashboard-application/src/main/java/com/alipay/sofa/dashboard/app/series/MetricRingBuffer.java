@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.app.series;
+
+/**
+ * 固定容量的指标环形缓冲区，数值以基本类型数组按列存储，写满后覆盖最旧的采样点
+ **/
+public class MetricRingBuffer {
+
+    private final MetricKind kind;
+
+    private final int        capacity;
+
+    private final long[]     timestamps;
+
+    private final long[][]   columns;
+
+    /**
+     * 下一个写入位置
+     */
+    private int              head;
+
+    private int              size;
+
+    public MetricRingBuffer(MetricKind kind, int capacity) {
+        this.kind = kind;
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.columns = new long[kind.fieldCount()][capacity];
+    }
+
+    /**
+     * 追加一个采样点，时间戳不大于最新采样点时忽略
+     *
+     * @param timestamp 采样时间
+     * @param values    各字段取值
+     * @return 是否写入
+     */
+    public synchronized boolean append(long timestamp, long[] values) {
+        if (size > 0 && timestamp <= lastTimestamp()) {
+            return false;
+        }
+        timestamps[head] = timestamp;
+        for (int i = 0; i < columns.length; i++) {
+            columns[i][head] = values[i];
+        }
+        head = (head + 1) % capacity;
+        if (size < capacity) {
+            size++;
+        }
+        return true;
+    }
+
+    /**
+     * 最新采样点时间，没有数据时返回 -1
+     */
+    public synchronized long lastTimestamp() {
+        return size == 0 ? -1L : timestamps[(head - 1 + capacity) % capacity];
+    }
+
+    /**
+     * 最新采样点各字段取值，没有数据时返回 {@code null}
+     */
+    public synchronized long[] lastValues() {
+        if (size == 0) {
+            return null;
+        }
+        int latest = (head - 1 + capacity) % capacity;
+        long[] values = new long[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = columns[i][latest];
+        }
+        return values;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 复制时间范围 [from, to] 内的采样点
+     *
+     * @param from 起始时间（含）
+     * @param to   结束时间（含）
+     * @return
+     */
+    public synchronized MetricSeries range(long from, long to) {
+        int oldest = (head - size + capacity) % capacity;
+        int start = lowerBound(oldest, from);
+        int count = 0;
+        while (start + count < size && timestampAt(oldest, start + count) <= to) {
+            count++;
+        }
+
+        long[] resultTimestamps = new long[count];
+        long[][] resultColumns = new long[columns.length][count];
+        for (int i = 0; i < count; i++) {
+            int physical = (oldest + start + i) % capacity;
+            resultTimestamps[i] = timestamps[physical];
+            for (int field = 0; field < columns.length; field++) {
+                resultColumns[field][i] = columns[field][physical];
+            }
+        }
+        return new MetricSeries(kind, resultTimestamps, resultColumns);
+    }
+
+    /**
+     * 二分查找第一个时间不小于 from 的逻辑下标
+     */
+    private int lowerBound(int oldest, long from) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestampAt(oldest, mid) < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long timestampAt(int oldest, int logical) {
+        return timestamps[(oldest + logical) % capacity];
+    }
+}
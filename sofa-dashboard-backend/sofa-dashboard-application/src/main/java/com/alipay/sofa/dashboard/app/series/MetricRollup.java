@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.app.series;
+
+import java.util.Arrays;
+
+/**
+ * 按固定时间窗口预聚合的指标环形缓冲区，每个窗口按字段记录 min、max、sum、last 与采样点数
+ * <p>
+ * 采样点按时间顺序写入，落在最新窗口内时合并，晚于最新窗口时开启新窗口，早于最新窗口的采样点丢弃。
+ * 存储数组按需扩容直到 capacity，写满后覆盖最旧的窗口
+ **/
+public class MetricRollup {
+
+    private static final int INITIAL_SLOTS = 16;
+
+    private final MetricKind kind;
+
+    private final long       bucketMillis;
+
+    private final int        capacity;
+
+    private long[]           starts;
+
+    private int[]            counts;
+
+    private long[][]         mins;
+
+    private long[][]         maxs;
+
+    private long[][]         sums;
+
+    private long[][]         lasts;
+
+    /**
+     * 下一个写入位置
+     */
+    private int              head;
+
+    private int              size;
+
+    public MetricRollup(MetricKind kind, long bucketMillis, int capacity) {
+        this.kind = kind;
+        this.bucketMillis = bucketMillis;
+        this.capacity = capacity;
+        int slots = Math.min(INITIAL_SLOTS, capacity);
+        this.starts = new long[slots];
+        this.counts = new int[slots];
+        this.mins = new long[kind.fieldCount()][slots];
+        this.maxs = new long[kind.fieldCount()][slots];
+        this.sums = new long[kind.fieldCount()][slots];
+        this.lasts = new long[kind.fieldCount()][slots];
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    /**
+     * 将一个采样点合并到所属窗口
+     *
+     * @param timestamp 采样时间
+     * @param values    各字段取值
+     * @return 是否写入，早于最新窗口时返回 false
+     */
+    public synchronized boolean add(long timestamp, long[] values) {
+        long start = timestamp - Math.floorMod(timestamp, bucketMillis);
+        if (size > 0) {
+            int latest = (head - 1 + starts.length) % starts.length;
+            if (start == starts[latest]) {
+                counts[latest]++;
+                for (int i = 0; i < values.length; i++) {
+                    mins[i][latest] = Math.min(mins[i][latest], values[i]);
+                    maxs[i][latest] = Math.max(maxs[i][latest], values[i]);
+                    sums[i][latest] += values[i];
+                    lasts[i][latest] = values[i];
+                }
+                return true;
+            }
+            if (start < starts[latest]) {
+                return false;
+            }
+        }
+        if (size == starts.length && size < capacity) {
+            grow();
+        }
+        starts[head] = start;
+        counts[head] = 1;
+        for (int i = 0; i < values.length; i++) {
+            mins[i][head] = values[i];
+            maxs[i][head] = values[i];
+            sums[i][head] = values[i];
+            lasts[i][head] = values[i];
+        }
+        head = (head + 1) % starts.length;
+        if (size < starts.length) {
+            size++;
+        }
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 复制起始时间在 [from, to] 内的窗口，from 落在某个窗口中间时包含该窗口
+     *
+     * @param from 起始时间（含）
+     * @param to   结束时间（含）
+     * @return
+     */
+    public synchronized RollupSeries range(long from, long to) {
+        int slots = starts.length;
+        int oldest = (head - size + slots) % slots;
+        long fromBucket = from - Math.floorMod(from, bucketMillis);
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[(oldest + mid) % slots] < fromBucket) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int count = 0;
+        while (low + count < size && starts[(oldest + low + count) % slots] <= to) {
+            count++;
+        }
+
+        int fields = kind.fieldCount();
+        long[] resultStarts = new long[count];
+        int[] resultCounts = new int[count];
+        long[][] resultMins = new long[fields][count];
+        long[][] resultMaxs = new long[fields][count];
+        long[][] resultSums = new long[fields][count];
+        long[][] resultLasts = new long[fields][count];
+        for (int i = 0; i < count; i++) {
+            int physical = (oldest + low + i) % slots;
+            resultStarts[i] = starts[physical];
+            resultCounts[i] = counts[physical];
+            for (int field = 0; field < fields; field++) {
+                resultMins[field][i] = mins[field][physical];
+                resultMaxs[field][i] = maxs[field][physical];
+                resultSums[field][i] = sums[field][physical];
+                resultLasts[field][i] = lasts[field][physical];
+            }
+        }
+        return new RollupSeries(kind, resultStarts, resultCounts, resultMins, resultMaxs,
+            resultSums, resultLasts);
+    }
+
+    /**
+     * 达到容量上限前不会覆盖旧窗口，数据按顺序位于 [0, size)，扩容后从 size 处继续写入
+     */
+    private void grow() {
+        int slots = Math.min(starts.length * 2, capacity);
+        starts = Arrays.copyOf(starts, slots);
+        counts = Arrays.copyOf(counts, slots);
+        for (int i = 0; i < kind.fieldCount(); i++) {
+            mins[i] = Arrays.copyOf(mins[i], slots);
+            maxs[i] = Arrays.copyOf(maxs[i], slots);
+            sums[i] = Arrays.copyOf(sums[i], slots);
+            lasts[i] = Arrays.copyOf(lasts[i], slots);
+        }
+        head = size;
+    }
+}
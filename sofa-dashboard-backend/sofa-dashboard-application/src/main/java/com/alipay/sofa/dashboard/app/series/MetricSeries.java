@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.app.series;
+
+import java.io.Serializable;
+
+/**
+ * 一段时间内的指标序列快照，按时间升序排列
+ * <p>
+ * {@code columns[i][j]} 为第 j 个采样点第 i 个字段的取值，字段顺序见 {@link MetricKind#getFields()}
+ **/
+public class MetricSeries {
+
+    private final MetricKind kind;
+
+    private final long[]     timestamps;
+
+    private final long[][]   columns;
+
+    MetricSeries(MetricKind kind, long[] timestamps, long[][] columns) {
+        this.kind = kind;
+        this.timestamps = timestamps;
+        this.columns = columns;
+    }
+
+    public MetricKind getKind() {
+        return kind;
+    }
+
+    public int size() {
+        return timestamps.length;
+    }
+
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    public long[] getColumn(int field) {
+        return columns[field];
+    }
+
+    /**
+     * 由该采样点的各列取值还原描述对象，用于兼容返回完整描述的接口；每次调用返回新对象
+     *
+     * @param index 采样点下标
+     * @return
+     */
+    public Serializable getDescriptor(int index) {
+        long[] values = new long[columns.length];
+        for (int field = 0; field < columns.length; field++) {
+            values[field] = columns[field][index];
+        }
+        return kind.descriptor(values);
+    }
+}
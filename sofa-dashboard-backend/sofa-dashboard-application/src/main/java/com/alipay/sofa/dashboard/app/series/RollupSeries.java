@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.app.series;
+
+/**
+ * 预聚合指标序列快照，按窗口起始时间升序排列
+ * <p>
+ * 统计数组的第一维为字段下标，字段顺序见 {@link MetricKind#getFields()}
+ **/
+public class RollupSeries {
+
+    private final MetricKind kind;
+
+    private final long[]     starts;
+
+    private final int[]      counts;
+
+    private final long[][]   mins;
+
+    private final long[][]   maxs;
+
+    private final long[][]   sums;
+
+    private final long[][]   lasts;
+
+    RollupSeries(MetricKind kind, long[] starts, int[] counts, long[][] mins, long[][] maxs,
+                 long[][] sums, long[][] lasts) {
+        this.kind = kind;
+        this.starts = starts;
+        this.counts = counts;
+        this.mins = mins;
+        this.maxs = maxs;
+        this.sums = sums;
+        this.lasts = lasts;
+    }
+
+    public MetricKind getKind() {
+        return kind;
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    /**
+     * 各窗口起始时间
+     */
+    public long[] getStarts() {
+        return starts;
+    }
+
+    public int getCount(int index) {
+        return counts[index];
+    }
+
+    public long getMin(int field, int index) {
+        return mins[field][index];
+    }
+
+    public long getMax(int field, int index) {
+        return maxs[field][index];
+    }
+
+    public double getAvg(int field, int index) {
+        return (double) sums[field][index] / counts[index];
+    }
+
+    public long getLast(int field, int index) {
+        return lasts[field][index];
+    }
+}
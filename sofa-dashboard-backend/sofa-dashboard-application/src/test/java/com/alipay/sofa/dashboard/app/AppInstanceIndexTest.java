@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.app;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.registry.AppSubscriber;
+import com.alipay.sofa.dashboard.constants.enums.InstanceSortKey;
+import com.alipay.sofa.dashboard.model.ApplicationInfo;
+import com.alipay.sofa.dashboard.model.PageQuery;
+import com.alipay.sofa.dashboard.model.PageResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class AppInstanceIndexTest {
+
+    private final List<Application> registry   = new CopyOnWriteArrayList<>();
+
+    private final AppSubscriber     subscriber = new ListSubscriber();
+
+    @Test
+    public void sortedInstancesTest() {
+        registry.add(instance("service_a", "10.1.1.2", 8080, "NORMAL"));
+        registry.add(instance("service_a", "10.1.1.1", 8081, "NORMAL"));
+        registry.add(instance("service_a", "10.1.1.1", 8080, "NORMAL"));
+        registry.add(instance("service_b", "10.1.1.3", 8080, "NORMAL"));
+
+        AppInstanceIndex index = new AppInstanceIndex(subscriber);
+        index.refresh();
+        List<Application> instances = index.getInstances("service_a");
+        Assert.assertEquals(3, instances.size());
+        Assert.assertEquals("10.1.1.1", instances.get(0).getHostName());
+        Assert.assertEquals(8080, instances.get(0).getPort());
+        Assert.assertEquals(8081, instances.get(1).getPort());
+        Assert.assertEquals("10.1.1.2", instances.get(2).getHostName());
+
+        List<ApplicationInfo> statistics = index.getStatistics();
+        Assert.assertEquals(2, statistics.size());
+        Assert.assertEquals("service_a", statistics.get(0).getApplicationName());
+        Assert.assertEquals(3, statistics.get(0).getApplicationCount());
+        Assert.assertEquals(4, index.getAllInstances().size());
+        Assert.assertTrue(index.getInstances("service_none").isEmpty());
+    }
+
+    @Test
+    public void refreshTest() {
+        registry.add(instance("service_a", "10.1.1.1", 8080, "NORMAL"));
+        registry.add(instance("service_b", "10.1.1.2", 8080, "NORMAL"));
+
+        AppInstanceIndex index = new AppInstanceIndex(subscriber);
+        index.refresh();
+        List<Application> serviceA = index.getInstances("service_a");
+        List<Application> serviceB = index.getInstances("service_b");
+
+        // 同步前读取的是已发布的快照
+        registry.set(0, instance("service_a", "10.1.1.1", 8080, "STOPPED"));
+        Assert.assertEquals("NORMAL", index.getInstances("service_a").get(0).getAppState());
+
+        // 同步后只有发生变化的应用被重建
+        index.refresh();
+        Assert.assertEquals("STOPPED", index.getInstances("service_a").get(0).getAppState());
+        Assert.assertNotSame(serviceA, index.getInstances("service_a"));
+        Assert.assertSame(serviceB, index.getInstances("service_b"));
+
+        registry.remove(1);
+        index.refresh();
+        Assert.assertTrue(index.getInstances("service_b").isEmpty());
+        Assert.assertEquals(1, index.getStatistics().size());
+    }
+
+    @Test
+    public void backgroundRefreshTest() throws Exception {
+        registry.add(instance("service_a", "10.1.1.1", 8080, "NORMAL"));
+
+        AppInstanceIndex index = new AppInstanceIndex(subscriber, 10L);
+        Assert.assertTrue(index.getAllInstances().isEmpty());
+        index.start();
+        try {
+            // 启动时同步一次，之后由后台线程同步
+            Assert.assertEquals(1, index.getAllInstances().size());
+            registry.add(instance("service_b", "10.1.1.2", 8080, "NORMAL"));
+            long deadline = System.currentTimeMillis() + 5000L;
+            while (index.getAllInstances().size() != 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+            Assert.assertEquals(2, index.getStatistics().size());
+        } finally {
+            index.stop();
+        }
+    }
+
+    @Test
+    public void instancePageTest() {
+        for (int i = 0; i < 5; i++) {
+            Application app = instance("service_a", "10.1.1." + i, 8080, "NORMAL");
+            app.setStartTime(100L - i);
+            registry.add(app);
+        }
+        AppInstanceIndex index = new AppInstanceIndex(subscriber);
+        index.refresh();
+
+        PageQuery query = new PageQuery();
+        query.setLimit(2);
+        PageResult<Application> first = index.getInstancesPage("service_a",
+            InstanceSortKey.START_TIME, query);
+        Assert.assertEquals(5, first.getTotal());
+        Assert.assertEquals("10.1.1.4", first.getItems().get(0).getHostName());
+        Assert.assertEquals("10.1.1.3", first.getItems().get(1).getHostName());
+
+        query.setCursor(first.getNextCursor());
+        PageResult<Application> second = index.getInstancesPage("service_a",
+            InstanceSortKey.START_TIME, query);
+        Assert.assertEquals(2, second.getOffset());
+        Assert.assertEquals("10.1.1.2", second.getItems().get(0).getHostName());
+
+        query.setCursor(second.getNextCursor());
+        PageResult<Application> last = index.getInstancesPage("service_a",
+            InstanceSortKey.START_TIME, query);
+        Assert.assertEquals(1, last.getItems().size());
+        Assert.assertNull(last.getNextCursor());
+
+        // 倒序 + 游标
+        PageQuery desc = new PageQuery();
+        desc.setLimit(3);
+        desc.setDescending(true);
+        PageResult<Application> descFirst = index.getInstancesPage("service_a",
+            InstanceSortKey.HOST, desc);
+        Assert.assertEquals("10.1.1.4", descFirst.getItems().get(0).getHostName());
+        desc.setCursor(descFirst.getNextCursor());
+        PageResult<Application> descSecond = index.getInstancesPage("service_a",
+            InstanceSortKey.HOST, desc);
+        Assert.assertEquals(2, descSecond.getItems().size());
+        Assert.assertEquals("10.1.1.1", descSecond.getItems().get(0).getHostName());
+        Assert.assertEquals("10.1.1.0", descSecond.getItems().get(1).getHostName());
+    }
+
+    @Test
+    public void invalidCursorTest() {
+        for (int i = 0; i < 3; i++) {
+            registry.add(instance("service_a", "10.1.1." + i, 8080, "NORMAL"));
+        }
+        AppInstanceIndex index = new AppInstanceIndex(subscriber);
+        index.refresh();
+
+        // 无法解析的游标从第一页开始
+        for (String cursor : new String[] { "%%%", "bm90LWEtY3Vyc29y", "YQpiCmM" }) {
+            PageQuery query = new PageQuery();
+            query.setLimit(2);
+            query.setOffset(1);
+            query.setCursor(cursor);
+            PageResult<Application> page = index.getInstancesPage("service_a",
+                InstanceSortKey.START_TIME, query);
+            Assert.assertEquals(0, page.getOffset());
+            Assert.assertEquals("10.1.1.0", page.getItems().get(0).getHostName());
+        }
+
+        PageQuery query = new PageQuery();
+        query.setCursor("%%%");
+        PageResult<ApplicationInfo> page = index.getStatisticsPage(null, query);
+        Assert.assertEquals(0, page.getOffset());
+        Assert.assertEquals(1, page.getItems().size());
+    }
+
+    @Test
+    public void statisticsPageTest() {
+        for (String appName : new String[] { "service_a", "service_b", "service_c", "other" }) {
+            registry.add(instance(appName, "10.1.1.1", 8080, "NORMAL"));
+        }
+        AppInstanceIndex index = new AppInstanceIndex(subscriber);
+        index.refresh();
+
+        PageQuery query = new PageQuery();
+        query.setLimit(2);
+        query.setOffset(1);
+        PageResult<ApplicationInfo> page = index.getStatisticsPage("service", query);
+        Assert.assertEquals(3, page.getTotal());
+        Assert.assertEquals("service_b", page.getItems().get(0).getApplicationName());
+        Assert.assertEquals("service_c", page.getItems().get(1).getApplicationName());
+        Assert.assertNull(page.getNextCursor());
+    }
+
+    private Application instance(String appName, String host, int port, String state) {
+        return Application.newBuilder().appName(appName).hostName(host).port(port).appState(state)
+            .startTime(1L).lastRecover(1L).build();
+    }
+
+    private class ListSubscriber implements AppSubscriber {
+
+        @Override
+        public boolean start() {
+            return true;
+        }
+
+        @Override
+        public void shutdown() {
+            // Do nothing
+        }
+
+        @Override
+        public List<Application> getAll() {
+            return new ArrayList<>(registry);
+        }
+
+        @Override
+        public List<Application> getByName(String appName) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<String> getAllNames() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, Integer> summaryCounts() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
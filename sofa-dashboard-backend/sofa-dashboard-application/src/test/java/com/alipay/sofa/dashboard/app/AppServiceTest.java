@@ -25,6 +25,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -37,11 +38,13 @@ import java.util.stream.Collectors;
 public class AppServiceTest {
 
     @Rule
-    public final MockRegistry registry = new MockRegistry();
+    public final MockRegistry      registry = new MockRegistry();
 
-    private final AppService  service  = new AppServiceImpl(registry.subscriber());
+    private final AppInstanceIndex index    = new AppInstanceIndex(registry.subscriber());
 
-    private final Random      random   = new Random();
+    private final AppService       service  = new AppServiceImpl(index);
+
+    private final Random           random   = new Random();
 
     @Test
     public void emptyDataTest() {
@@ -82,7 +85,8 @@ public class AppServiceTest {
                 return statistic;
             })
             .collect(Collectors.toList());
-        List<ApplicationInfo> query = service.getAllStatistics();
+        index.refresh();
+        List<ApplicationInfo> query = new ArrayList<>(service.getAllStatistics());
 
         Collections.sort(expected);
         Collections.sort(query);
@@ -103,6 +107,7 @@ public class AppServiceTest {
                     .appName(pattern[1]).port(random.nextInt(65536)).build()).register();
         }
 
+        index.refresh();
         for (String keyword : new String[] { "a", "service", "d", "f" }) {
             List<ApplicationInfo> expected = registry.all().stream()
                 .filter(it -> it.getAppName().contains(keyword))
@@ -115,7 +120,7 @@ public class AppServiceTest {
                     return statistic;
                 })
                 .collect(Collectors.toList());
-            List<ApplicationInfo> query = service.getStatisticsByKeyword(keyword);
+            List<ApplicationInfo> query = new ArrayList<>(service.getStatisticsByKeyword(keyword));
 
             Collections.sort(expected);
             Collections.sort(query);
@@ -136,7 +141,8 @@ public class AppServiceTest {
         }
 
         List<Application> apps = registry.all();
-        List<Application> query = service.getAllInstances();
+        index.refresh();
+        List<Application> query = new ArrayList<>(service.getAllInstances());
 
         Collections.sort(apps);
         Collections.sort(query);
@@ -157,12 +163,13 @@ public class AppServiceTest {
                     .appName(pattern[1]).port(random.nextInt(65536)).build()).register();
         }
 
+        index.refresh();
         for (String appName : new String[] { "service_a", "service_d", "service_f", null }) {
             List<Application> apps = registry.all().stream()
                 .filter(
                     it -> StringUtils.isEmpty(appName) || Objects.equals(it.getAppName(), appName))
                 .collect(Collectors.toList());
-            List<Application> query = service.getInstancesByName(appName);
+            List<Application> query = new ArrayList<>(service.getInstancesByName(appName));
             Collections.sort(apps);
             Collections.sort(query);
             Assert.assertArrayEquals(apps.toArray(), query.toArray());
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.app;
+
+import com.alipay.sofa.dashboard.client.model.common.HostAndPort;
+import com.alipay.sofa.dashboard.client.model.health.HealthDescriptor;
+import com.alipay.sofa.dashboard.client.model.io.RecordName;
+import com.alipay.sofa.dashboard.client.model.io.StoreRecord;
+import com.alipay.sofa.dashboard.client.utils.JsonUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DescriptorCacheTest {
+
+    private final HostAndPort hostAndPort = new HostAndPort("10.1.1.1", null, 8080);
+
+    @Test
+    public void reuseUntilNewerRecordTest() {
+        DescriptorCache cache = new DescriptorCache();
+        StoreRecord first = healthRecord(1000L, "UP");
+
+        HealthDescriptor parsed = cache.get(hostAndPort, first, HealthDescriptor.class);
+        Assert.assertEquals("UP", parsed.getStatus());
+        Assert.assertSame(parsed, cache.get(hostAndPort, first, HealthDescriptor.class));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+
+        HealthDescriptor newer = cache.get(hostAndPort, healthRecord(2000L, "DOWN"),
+            HealthDescriptor.class);
+        Assert.assertEquals("DOWN", newer.getStatus());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void evictionTest() {
+        DescriptorCache cache = new DescriptorCache(2, Long.MAX_VALUE);
+        for (int port = 1; port <= 3; port++) {
+            cache.get(new HostAndPort("10.1.1.1", null, port), healthRecord(1000L, "UP"),
+                HealthDescriptor.class);
+        }
+        Assert.assertEquals(2, cache.size());
+
+        // 按原始 JSON 长度限制时，超过上限的对象不缓存
+        StoreRecord record = healthRecord(1000L, "UP");
+        DescriptorCache small = new DescriptorCache(16, record.getValue().length() - 1);
+        small.get(hostAndPort, record, HealthDescriptor.class);
+        Assert.assertEquals(0, small.size());
+    }
+
+    private StoreRecord healthRecord(long timestamp, String status) {
+        HealthDescriptor descriptor = new HealthDescriptor();
+        descriptor.setStatus(status);
+        return StoreRecord.newBuilder().schemeName(RecordName.HEALTH).timestamp(timestamp)
+            .value(JsonUtils.toJsonString(descriptor)).build();
+    }
+}
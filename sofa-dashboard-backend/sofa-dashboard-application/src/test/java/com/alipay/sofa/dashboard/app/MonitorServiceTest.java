@@ -24,8 +24,14 @@ import com.alipay.sofa.dashboard.client.model.io.RecordName;
 import com.alipay.sofa.dashboard.client.model.io.StoreRecord;
 import com.alipay.sofa.dashboard.client.model.logger.LoggersDescriptor;
 import com.alipay.sofa.dashboard.client.model.mappings.MappingsDescriptor;
+import com.alipay.sofa.dashboard.client.model.memory.MemoryDescriptor;
+import com.alipay.sofa.dashboard.client.model.thread.ThreadSummaryDescriptor;
+import com.alipay.sofa.dashboard.constants.enums.MetricResolution;
 import com.alipay.sofa.dashboard.client.utils.JsonUtils;
 import com.alipay.sofa.dashboard.mock.MockStore;
+import com.alipay.sofa.dashboard.model.ColumnarSeries;
+import com.alipay.sofa.dashboard.model.MetricAggregate;
+import com.alipay.sofa.dashboard.model.StampedValueEntity;
 import com.alipay.sofa.dashboard.spi.MonitorService;
 import com.google.common.collect.Lists;
 import org.junit.Assert;
@@ -34,8 +40,16 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @author chen.pengzhi (chpengzh@foxmail.com)
@@ -131,9 +145,194 @@ public class MonitorServiceTest {
         LOGGER.info("Fetch env => {}", JsonUtils.toJsonString(query));
     }
 
+    @Test
+    public void fetchMemoryColumnsTest() {
+        HostAndPort hostAndPort = randomInstance();
+        long now = System.currentTimeMillis();
+        for (int i = 3; i > 0; i--) {
+            MemoryDescriptor descriptor = new MemoryDescriptor();
+            descriptor.getHeap().setUsed(i * 100L);
+            store.addRecords(
+                hostAndPort,
+                Lists.newArrayList(StoreRecord.newBuilder().schemeName(RecordName.MEMORY)
+                    .timestamp(now - i * 1000L).value(JsonUtils.toJsonString(descriptor)).build()));
+        }
+
+        List<StampedValueEntity<MemoryDescriptor>> records = service.fetchMemoryInfo(hostAndPort);
+        ColumnarSeries columns = service.fetchMemoryColumns(hostAndPort);
+        Assert.assertEquals(RecordName.MEMORY, columns.getName());
+        Assert.assertEquals(records.size(), columns.getTimestamps().length);
+        Assert.assertArrayEquals(new long[] { 300L, 200L, 100L },
+            columns.getColumns().get("heapUsed"));
+        for (int i = 0; i < records.size(); i++) {
+            Assert.assertEquals(records.get(i).getEpochMillis().longValue(),
+                columns.getTimestamps()[i]);
+            // 完整描述由数值列还原
+            Assert.assertEquals(columns.getColumns().get("heapUsed")[i], records.get(i).getValue()
+                .getHeap().getUsed());
+        }
+    }
+
+    @Test
+    public void defaultColumnsTest() {
+        HostAndPort hostAndPort = randomInstance();
+        long now = System.currentTimeMillis();
+        for (int i = 3; i > 0; i--) {
+            MemoryDescriptor memory = new MemoryDescriptor();
+            memory.getHeap().setUsed(i * 100L);
+            ThreadSummaryDescriptor thread = new ThreadSummaryDescriptor();
+            thread.setLive(i);
+            store.addRecords(hostAndPort, Lists.newArrayList(
+                StoreRecord.newBuilder().schemeName(RecordName.MEMORY).timestamp(now - i * 1000L)
+                    .value(JsonUtils.toJsonString(memory)).build(),
+                StoreRecord.newBuilder().schemeName(RecordName.THREAD_SUMMARY)
+                    .timestamp(now - i * 1000L).value(JsonUtils.toJsonString(thread)).build()));
+        }
+
+        // 只实现单实例查询的 SPI 实现，列存储结果由默认方法转换
+        MonitorService spi = new SingleInstanceMonitorService(service);
+        ColumnarSeries expected = service.fetchMemoryColumns(hostAndPort);
+        ColumnarSeries memory = spi.fetchMemoryColumns(hostAndPort);
+        Assert.assertEquals(expected.getName(), memory.getName());
+        Assert.assertArrayEquals(expected.getTimestamps(), memory.getTimestamps());
+        Assert.assertEquals(expected.getColumns().keySet(), memory.getColumns().keySet());
+        expected.getColumns().forEach(
+            (field, values) -> Assert.assertArrayEquals(values, memory.getColumns().get(field)));
+        Assert.assertArrayEquals(new long[] { 3L, 2L, 1L },
+            spi.fetchThreadColumns(hostAndPort).getColumns().get("live"));
+
+        // 范围查询默认返回时间范围内的原始采样点
+        List<StampedValueEntity<MetricAggregate>> range = spi.fetchMemoryInfo(hostAndPort,
+            now - 2500, now, MetricResolution.ONE_MINUTE);
+        Assert.assertEquals(2, range.size());
+        Assert.assertEquals(now - 2000, range.get(0).getEpochMillis().longValue());
+        Assert.assertEquals(1, range.get(0).getValue().getCount());
+        Assert.assertEquals(200L, range.get(0).getValue().getFields().get("heapUsed").getMax());
+        Assert.assertEquals(1, spi.fetchThreadInfo(hostAndPort, now - 1500, now, null).size());
+        Assert.assertNull(spi.fetchAppOverview("demo"));
+    }
+
+    @Test
+    public void fetchLatestBatchTest() {
+        List<HostAndPort> instances = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            HostAndPort hostAndPort = randomInstance();
+            instances.add(hostAndPort);
+            // 最后一个实例没有数据
+            if (i == 19) {
+                continue;
+            }
+            HealthDescriptor health = new HealthDescriptor();
+            health.setStatus(i % 2 == 0 ? "UP" : "DOWN");
+            store.addRecords(
+                hostAndPort,
+                Lists.newArrayList(
+                    StoreRecord.newBuilder().schemeName(RecordName.HEALTH)
+                        .timestamp(System.currentTimeMillis())
+                        .value(JsonUtils.toJsonString(health)).build(),
+                    StoreRecord.newBuilder().schemeName(RecordName.INFO)
+                        .timestamp(System.currentTimeMillis())
+                        .value(JsonUtils.toJsonString(new InfoDescriptor())).build()));
+        }
+
+        Map<HostAndPort, Map<String, Object>> latest = service.fetchLatest(instances,
+            Arrays.asList(RecordName.HEALTH, RecordName.INFO));
+        Assert.assertEquals(19, latest.size());
+        Assert.assertFalse(latest.containsKey(instances.get(19)));
+        Assert
+            .assertTrue(latest.get(instances.get(3)).get(RecordName.INFO) instanceof InfoDescriptor);
+
+        Map<HostAndPort, HealthDescriptor> health = service.fetchHealth(instances);
+        Assert.assertEquals(19, health.size());
+        Assert.assertEquals("UP", health.get(instances.get(0)).getStatus());
+        Assert.assertEquals("DOWN", health.get(instances.get(1)).getStatus());
+    }
+
+    @Test
+    public void fetchHealthOverPoolCapacityTest() throws Exception {
+        // 实例数超过线程池容量，两个批量请求并发执行
+        List<HostAndPort> instances = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            HostAndPort hostAndPort = randomInstance();
+            instances.add(hostAndPort);
+            HealthDescriptor health = new HealthDescriptor();
+            health.setStatus("UP");
+            store.addRecords(
+                hostAndPort,
+                Lists.newArrayList(StoreRecord.newBuilder().schemeName(RecordName.HEALTH)
+                    .timestamp(System.currentTimeMillis()).value(JsonUtils.toJsonString(health))
+                    .build()));
+        }
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<Map<HostAndPort, HealthDescriptor>> first = callers
+                .submit(() -> service.fetchHealth(instances));
+            Future<Map<HostAndPort, HealthDescriptor>> second = callers
+                .submit(() -> service.fetchHealth(instances));
+            Assert.assertEquals(instances.size(), first.get().size());
+            Assert.assertEquals(instances.size(), second.get().size());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fetchLatestUnknownRecordTest() {
+        service.fetchLatest(Collections.singletonList(randomInstance()),
+            Collections.singletonList("unknown"));
+    }
+
     private HostAndPort randomInstance() {
         String host = UUID.randomUUID().toString().replace("-", "").substring(8);
         int port = random.nextInt(65536);
         return new HostAndPort(host, null, port);
     }
+
+    /**
+     * 只实现 SPI 必需方法的实现，用于验证默认方法
+     */
+    private static final class SingleInstanceMonitorService implements MonitorService {
+
+        private final MonitorService delegate;
+
+        SingleInstanceMonitorService(MonitorService delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public EnvironmentDescriptor fetchEnvironment(HostAndPort hostAndPort) {
+            return delegate.fetchEnvironment(hostAndPort);
+        }
+
+        @Override
+        public HealthDescriptor fetchHealth(HostAndPort hostAndPort) {
+            return delegate.fetchHealth(hostAndPort);
+        }
+
+        @Override
+        public InfoDescriptor fetchInfo(HostAndPort hostAndPort) {
+            return delegate.fetchInfo(hostAndPort);
+        }
+
+        @Override
+        public LoggersDescriptor fetchLoggers(HostAndPort hostAndPort) {
+            return delegate.fetchLoggers(hostAndPort);
+        }
+
+        @Override
+        public MappingsDescriptor fetchMappings(HostAndPort hostAndPort) {
+            return delegate.fetchMappings(hostAndPort);
+        }
+
+        @Override
+        public List<StampedValueEntity<ThreadSummaryDescriptor>> fetchThreadInfo(HostAndPort hostAndPort) {
+            return delegate.fetchThreadInfo(hostAndPort);
+        }
+
+        @Override
+        public List<StampedValueEntity<MemoryDescriptor>> fetchMemoryInfo(HostAndPort hostAndPort) {
+            return delegate.fetchMemoryInfo(hostAndPort);
+        }
+    }
 }
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.app.series;
+
+import com.alipay.sofa.dashboard.client.model.common.HostAndPort;
+import com.alipay.sofa.dashboard.model.AppOverview;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class AppOverviewAggregatorTest {
+
+    @Test
+    public void aggregateTest() {
+        AppOverviewAggregator aggregator = new AppOverviewAggregator();
+        Set<HostAndPort> live = new HashSet<>();
+        for (int i = 1; i <= 100; i++) {
+            HostAndPort hostAndPort = new HostAndPort("10.0.0." + i, null, 8080);
+            live.add(hostAndPort);
+            aggregator.update("demo", hostAndPort, i <= 90 ? "UP" : "DOWN", new long[] { 0,
+                    i * 10L, 0, 0, 0 }, new long[] { i, 0, 0 });
+        }
+
+        AppOverview overview = aggregator.overview("demo");
+        Assert.assertEquals(100, overview.getInstanceCount());
+        Assert.assertEquals(Integer.valueOf(90), overview.getHealthDistribution().get("UP"));
+        Assert.assertEquals(Integer.valueOf(10), overview.getHealthDistribution().get("DOWN"));
+        AppOverview.Percentiles heapUsed = overview.getMemory().get("heapUsed");
+        Assert.assertEquals(500L, heapUsed.getP50());
+        Assert.assertEquals(950L, heapUsed.getP95());
+        Assert.assertEquals(1000L, heapUsed.getMax());
+        Assert.assertEquals(100L, overview.getThread().get("live").getMax());
+
+        // 数据未变化时复用汇总结果
+        HostAndPort first = new HostAndPort("10.0.0.1", null, 8080);
+        aggregator.update("demo", first, "UP", new long[] { 0, 10L, 0, 0, 0 },
+            new long[] { 1, 0, 0 });
+        Assert.assertSame(overview, aggregator.overview("demo"));
+
+        // 状态变化只调整计数
+        aggregator.update("demo", first, null, null, null);
+        AppOverview changed = aggregator.overview("demo");
+        Assert.assertEquals(Integer.valueOf(89), changed.getHealthDistribution().get("UP"));
+        Assert.assertEquals(Integer.valueOf(1),
+            changed.getHealthDistribution().get(AppOverviewAggregator.UNKNOWN_STATUS));
+
+        live.remove(first);
+        Map<String, Set<HostAndPort>> liveInstances = new HashMap<>();
+        liveInstances.put("demo", live);
+        aggregator.retain(liveInstances);
+        AppOverview retained = aggregator.overview("demo");
+        Assert.assertEquals(99, retained.getInstanceCount());
+        Assert.assertNull(retained.getHealthDistribution()
+            .get(AppOverviewAggregator.UNKNOWN_STATUS));
+
+        aggregator.retain(Collections.emptyMap());
+        Assert.assertNull(aggregator.overview("demo"));
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.app.series;
+
+import com.alipay.sofa.dashboard.client.model.common.HostAndPort;
+import com.alipay.sofa.dashboard.client.model.io.RecordName;
+import com.alipay.sofa.dashboard.client.model.io.StoreRecord;
+import com.alipay.sofa.dashboard.client.model.thread.ThreadSummaryDescriptor;
+import com.alipay.sofa.dashboard.client.utils.JsonUtils;
+import com.alipay.sofa.dashboard.constants.enums.MetricResolution;
+import com.alipay.sofa.dashboard.mock.MockStore;
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+public class InstanceMetricStoreTest {
+
+    @Rule
+    public final MockStore    store       = new MockStore();
+
+    private final HostAndPort hostAndPort = new HostAndPort("10.1.1.1", null, 8080);
+
+    @Test
+    public void ringBufferTest() {
+        MetricRingBuffer buffer = new MetricRingBuffer(MetricKind.THREAD, 3);
+        Assert.assertEquals(-1L, buffer.lastTimestamp());
+        for (int i = 1; i <= 5; i++) {
+            Assert.assertTrue(buffer.append(i * 10L, new long[] { i, 0, 0 }));
+        }
+        // 时间戳回退的数据被忽略
+        Assert.assertFalse(buffer.append(45L, new long[] { 0, 0, 0 }));
+
+        MetricSeries all = buffer.range(0, Long.MAX_VALUE);
+        Assert.assertArrayEquals(new long[] { 30L, 40L, 50L }, all.getTimestamps());
+        Assert.assertArrayEquals(new long[] { 3L, 4L, 5L }, all.getColumn(0));
+
+        MetricSeries part = buffer.range(35L, 45L);
+        Assert.assertArrayEquals(new long[] { 40L }, part.getTimestamps());
+    }
+
+    @Test
+    public void incrementalIngestTest() {
+        InstanceMetricStore metricStore = new InstanceMetricStore(store, 16,
+            TimeUnit.MINUTES.toMillis(5));
+        long now = System.currentTimeMillis();
+        addThreadRecord(now - 2000, 10);
+        addThreadRecord(now - 3000, 9);
+
+        MetricSeries first = metricStore.query(hostAndPort, MetricKind.THREAD,
+            TimeUnit.MINUTES.toMillis(5));
+        Assert.assertArrayEquals(new long[] { 9L, 10L }, first.getColumn(0));
+
+        addThreadRecord(now - 1000, 11);
+        MetricSeries second = metricStore.query(hostAndPort, MetricKind.THREAD,
+            TimeUnit.MINUTES.toMillis(5));
+        Assert.assertArrayEquals(new long[] { now - 3000, now - 2000, now - 1000 },
+            second.getTimestamps());
+        Assert.assertArrayEquals(new long[] { 9L, 10L, 11L }, second.getColumn(0));
+        Assert.assertEquals(11, ((ThreadSummaryDescriptor) second.getDescriptor(2)).getLive());
+    }
+
+    @Test
+    public void rollupTest() {
+        MetricRollup rollup = new MetricRollup(MetricKind.THREAD, 60L, 20);
+        // 每个窗口 3 个采样点，共 30 个窗口，超过容量后覆盖最旧的窗口
+        for (int bucket = 0; bucket < 30; bucket++) {
+            for (int i = 0; i < 3; i++) {
+                long live = bucket * 10 + i;
+                Assert.assertTrue(rollup.add(bucket * 60L + i * 20, new long[] { live, 0, 0 }));
+            }
+        }
+        // 早于最新窗口的采样点被丢弃
+        Assert.assertFalse(rollup.add(28 * 60L, new long[] { 0, 0, 0 }));
+        Assert.assertEquals(20, rollup.size());
+
+        RollupSeries all = rollup.range(0, Long.MAX_VALUE);
+        Assert.assertEquals(20, all.size());
+        Assert.assertEquals(10 * 60L, all.getStarts()[0]);
+        Assert.assertEquals(29 * 60L, all.getStarts()[19]);
+
+        RollupSeries part = rollup.range(25 * 60L + 30, 26 * 60L);
+        Assert.assertArrayEquals(new long[] { 25 * 60L, 26 * 60L }, part.getStarts());
+        Assert.assertEquals(3, part.getCount(0));
+        Assert.assertEquals(250L, part.getMin(0, 0));
+        Assert.assertEquals(252L, part.getMax(0, 0));
+        Assert.assertEquals(251.0, part.getAvg(0, 0), 0.0001);
+        Assert.assertEquals(252L, part.getLast(0, 0));
+    }
+
+    @Test
+    public void rollupQueryTest() {
+        InstanceMetricStore metricStore = new InstanceMetricStore(store, 16,
+            TimeUnit.MINUTES.toMillis(5));
+        long minute = TimeUnit.MINUTES.toMillis(1);
+        long base = System.currentTimeMillis() / minute * minute - 2 * minute;
+        addThreadRecord(base + 1000, 4);
+        addThreadRecord(base + 2000, 8);
+        addThreadRecord(base + 3000, 6);
+        addThreadRecord(base + minute + 1000, 20);
+
+        RollupSeries series = metricStore.queryRollup(hostAndPort, MetricKind.THREAD,
+            MetricResolution.ONE_MINUTE, base, Long.MAX_VALUE);
+        Assert.assertArrayEquals(new long[] { base, base + minute }, series.getStarts());
+        Assert.assertEquals(3, series.getCount(0));
+        Assert.assertEquals(4L, series.getMin(0, 0));
+        Assert.assertEquals(8L, series.getMax(0, 0));
+        Assert.assertEquals(6.0, series.getAvg(0, 0), 0.0001);
+        Assert.assertEquals(6L, series.getLast(0, 0));
+        Assert.assertEquals(20L, series.getLast(0, 1));
+
+        RollupSeries coarse = metricStore.queryRollup(hostAndPort, MetricKind.THREAD,
+            MetricResolution.TEN_MINUTES, base, Long.MAX_VALUE);
+        Assert.assertEquals(4, coarse.getCount(0) + (coarse.size() > 1 ? coarse.getCount(1) : 0));
+
+        MetricSeries raw = metricStore.query(hostAndPort, MetricKind.THREAD, base + 2000, base
+                                                                                          + minute);
+        Assert.assertArrayEquals(new long[] { 8L, 6L }, raw.getColumn(0));
+    }
+
+    @Test
+    public void retainTest() {
+        InstanceMetricStore metricStore = new InstanceMetricStore(store, 16,
+            TimeUnit.MINUTES.toMillis(5));
+        HostAndPort offline = new HostAndPort("10.1.1.2", null, 8080);
+        addThreadRecord(hostAndPort, System.currentTimeMillis() - 1000, 10);
+        addThreadRecord(offline, System.currentTimeMillis() - 1000, 20);
+        metricStore.collect(hostAndPort);
+        metricStore.collect(offline);
+        Assert.assertNotNull(metricStore.latest(offline, MetricKind.THREAD));
+
+        // 只清理已下线的实例，在线实例的数据不受影响
+        metricStore.retain(Collections.singleton(hostAndPort));
+        Assert.assertEquals(10L, metricStore.latest(hostAndPort, MetricKind.THREAD)[0]);
+        Assert.assertNull(metricStore.latest(offline, MetricKind.THREAD));
+    }
+
+    private void addThreadRecord(long timestamp, int live) {
+        addThreadRecord(hostAndPort, timestamp, live);
+    }
+
+    private void addThreadRecord(HostAndPort hostAndPort, long timestamp, int live) {
+        ThreadSummaryDescriptor descriptor = new ThreadSummaryDescriptor();
+        descriptor.setLive(live);
+        store.addRecords(
+            hostAndPort,
+            Lists.newArrayList(StoreRecord.newBuilder().schemeName(RecordName.THREAD_SUMMARY)
+                .timestamp(timestamp).value(JsonUtils.toJsonString(descriptor)).build()));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.app.series;
+
+import com.alipay.sofa.dashboard.app.MonitorServiceImpl;
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.model.common.HostAndPort;
+import com.alipay.sofa.dashboard.client.model.health.HealthDescriptor;
+import com.alipay.sofa.dashboard.client.model.io.RecordName;
+import com.alipay.sofa.dashboard.client.model.io.StoreRecord;
+import com.alipay.sofa.dashboard.client.utils.JsonUtils;
+import com.alipay.sofa.dashboard.constants.enums.InstanceSortKey;
+import com.alipay.sofa.dashboard.mock.MockStore;
+import com.alipay.sofa.dashboard.model.AppOverview;
+import com.alipay.sofa.dashboard.model.ApplicationInfo;
+import com.alipay.sofa.dashboard.model.PageQuery;
+import com.alipay.sofa.dashboard.model.PageResult;
+import com.alipay.sofa.dashboard.spi.AppService;
+import com.alipay.sofa.dashboard.spi.MonitorService;
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class MetricCollectorTest {
+
+    @Rule
+    public final MockStore store = new MockStore();
+
+    @Test
+    public void collectAllTest() {
+        // 实例数超过批量查询线程池容量
+        List<Application> instances = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Application instance = new Application();
+            instance.setAppName("demo");
+            instance.setHostName("10.0." + (i / 250) + "." + (i % 250));
+            instance.setPort(8080);
+            instances.add(instance);
+            HealthDescriptor health = new HealthDescriptor();
+            health.setStatus("UP");
+            store.addRecords(
+                new HostAndPort(instance.getHostName(), null, instance.getPort()),
+                Lists.newArrayList(StoreRecord.newBuilder().schemeName(RecordName.HEALTH)
+                    .timestamp(System.currentTimeMillis()).value(JsonUtils.toJsonString(health))
+                    .build()));
+        }
+
+        MonitorService monitorService = new MonitorServiceImpl(store) {
+            @Override
+            public Map<HostAndPort, HealthDescriptor> fetchHealth(Collection<HostAndPort> targets) {
+                throw new AssertionError("collector should not use the batch executor");
+            }
+        };
+        AppOverviewAggregator aggregator = new AppOverviewAggregator();
+        MetricCollector collector = new MetricCollector(new StaticAppService(instances),
+            new InstanceMetricStore(store), monitorService, aggregator);
+        collector.collectAll();
+
+        AppOverview overview = aggregator.overview("demo");
+        Assert.assertEquals(2000, overview.getInstanceCount());
+        Assert.assertEquals(Integer.valueOf(2000), overview.getHealthDistribution().get("UP"));
+    }
+
+    private static final class StaticAppService implements AppService {
+
+        private final List<Application> instances;
+
+        StaticAppService(List<Application> instances) {
+            this.instances = instances;
+        }
+
+        @Override
+        public List<ApplicationInfo> getAllStatistics() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<ApplicationInfo> getStatisticsByKeyword(String keyword) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<Application> getAllInstances() {
+            return instances;
+        }
+
+        @Override
+        public List<Application> getInstancesByName(String serviceName) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public PageResult<ApplicationInfo> getStatisticsPage(String keyword, PageQuery query) {
+            return new PageResult<>();
+        }
+
+        @Override
+        public PageResult<Application> getInstancesPage(String appName, InstanceSortKey sortKey,
+                                                        PageQuery query) {
+            return new PageResult<>();
+        }
+    }
+}
@@ -48,6 +48,14 @@ public interface ArkDao {
      */
     int insertModuleVersion(ArkModuleVersionDO arkModuleVersionDO);
 
+    /**
+     * 插件模块版本批量入库
+     *
+     * @param versions
+     * @return
+     */
+    int batchInsertModuleVersion(@Param("versions") List<ArkModuleVersionDO> versions);
+
     /**
      * 模块关联负责人入库
      *
@@ -101,6 +109,14 @@ public interface ArkDao {
      */
     List<ArkPluginDO> queryModuleInfoByNameStrict(@Param("pluginName") String pluginName);
 
+    /**
+     * 根据插件 id 查询插件详情
+     *
+     * @param id
+     * @return
+     */
+    ArkPluginDO queryModuleInfoById(@Param("id") int id);
+
     /**
      * 根据插件ID 查询所有插件版本
      *
@@ -109,6 +125,14 @@ public interface ArkDao {
      */
     List<ArkModuleVersionDO> queryVersionsByMid(int id);
 
+    /**
+     * 根据插件ID 批量查询插件版本
+     *
+     * @param moduleIds
+     * @return
+     */
+    List<ArkModuleVersionDO> queryVersionsByMids(@Param("moduleIds") List<Integer> moduleIds);
+
     /**
      * 插件关联应用信息入库
      *
@@ -117,6 +141,14 @@ public interface ArkDao {
      */
     int insertAppArk(AppArkDO appArkDO);
 
+    /**
+     * 插件关联应用信息批量入库
+     *
+     * @param apps
+     * @return
+     */
+    int batchInsertAppArk(@Param("apps") List<AppArkDO> apps);
+
     /**
      * 查询所有关联插件的应用
      *
@@ -125,6 +157,14 @@ public interface ArkDao {
      */
     List<AppArkDO> queryAppsModuleId(int moduleId);
 
+    /**
+     * 批量查询关联插件的应用
+     *
+     * @param moduleIds
+     * @return
+     */
+    List<AppArkDO> queryAppsByModuleIds(@Param("moduleIds") List<Integer> moduleIds);
+
     /**
      * 根据模块ID和应用名删除关联应用
      *
@@ -135,6 +175,15 @@ public interface ArkDao {
     int deleteByPluginNameAndAppName(@Param("moduleId") int moduleId,
                                      @Param("appName") String appName);
 
+    /**
+     * 根据模块ID和应用名批量删除关联应用
+     *
+     * @param moduleId
+     * @param appNames
+     * @return
+     */
+    int batchDeleteAppArk(@Param("moduleId") int moduleId, @Param("appNames") List<String> appNames);
+
     /**
      * 根据插件名查询插件ID
      *
@@ -167,4 +216,12 @@ public interface ArkDao {
      * @return
      */
     int deletePluginVersion(@Param("id") int id, @Param("version") String version);
+
+    /**
+     * 批量删除插件版本
+     * @param id
+     * @param versions
+     * @return
+     */
+    int batchDeletePluginVersion(@Param("id") int id, @Param("versions") List<String> versions);
 }
@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.impl;
+
+import com.alipay.sofa.dashboard.dao.ArkDao;
+import com.alipay.sofa.dashboard.model.AppArkDO;
+import com.alipay.sofa.dashboard.model.ArkModuleVersionDO;
+import com.alipay.sofa.dashboard.model.ArkPluginDO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * ark 插件元数据读穿缓存
+ * <p>
+ * 插件、版本以及关联应用整体作为一份快照缓存，快照缺失或过期时用三次查询重新加载。
+ * 通过 {@link ArkMngServiceImpl} 的写操作调用 {@link #invalidate()} 使快照失效，
+ * 过期时间用于兜底其他节点直接修改数据库的场景。
+ * <p>
+ * 返回的 DO 对象在多次请求之间共享，调用方不应修改其内容。
+ */
+@Component
+public class ArkMetadataCache {
+
+    private final ArkDao      arkDao;
+
+    private final AtomicLong  generation      = new AtomicLong();
+
+    private final AtomicLong  hitCount        = new AtomicLong();
+
+    private final AtomicLong  missCount       = new AtomicLong();
+
+    private final AtomicLong  invalidateCount = new AtomicLong();
+
+    /**
+     * 快照过期时间，小于等于 0 表示只依赖写操作失效
+     */
+    @Value("${com.alipay.sofa.dashboard.ark.metadataCacheTtlMs:60000}")
+    private long              ttlMs           = 60000;
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public ArkMetadataCache(ArkDao arkDao) {
+        this.arkDao = arkDao;
+    }
+
+    /**
+     * 所有插件，按主键顺序
+     *
+     * @return
+     */
+    public List<ArkPluginDO> plugins() {
+        return snapshot().plugins;
+    }
+
+    /**
+     * 插件名包含关键字的插件，与 MySQL 默认排序规则一致忽略大小写
+     *
+     * @param pluginName 关键字，为空时返回全部
+     * @return
+     */
+    public List<ArkPluginDO> pluginsContaining(String pluginName) {
+        if (StringUtils.isEmpty(pluginName)) {
+            return plugins();
+        }
+        String keyword = pluginName.toLowerCase(Locale.ROOT);
+        return plugins().stream()
+            .filter(plugin -> plugin.getPluginName().toLowerCase(Locale.ROOT).contains(keyword))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * 插件名以关键字开头的插件，忽略大小写
+     *
+     * @param pluginName 关键字
+     * @return
+     */
+    public List<ArkPluginDO> pluginsStartingWith(String pluginName) {
+        String keyword = pluginName.toLowerCase(Locale.ROOT);
+        return plugins().stream()
+            .filter(plugin -> plugin.getPluginName().toLowerCase(Locale.ROOT).startsWith(keyword))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * 根据插件名查询插件，忽略大小写
+     *
+     * @param pluginName
+     * @return 不存在时返回 null
+     */
+    public ArkPluginDO plugin(String pluginName) {
+        if (pluginName == null) {
+            return null;
+        }
+        return snapshot().pluginByName.get(pluginName.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 插件的所有版本
+     *
+     * @param moduleId
+     * @return
+     */
+    public List<ArkModuleVersionDO> versions(int moduleId) {
+        return snapshot().versions.getOrDefault(moduleId, Collections.emptyList());
+    }
+
+    /**
+     * 插件的指定版本
+     *
+     * @param moduleId
+     * @param moduleVersion
+     * @return 不存在时返回 null
+     */
+    public ArkModuleVersionDO version(int moduleId, String moduleVersion) {
+        for (ArkModuleVersionDO version : versions(moduleId)) {
+            if (version.getModuleVersion().equals(moduleVersion)) {
+                return version;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 插件关联的应用
+     *
+     * @param moduleId
+     * @return
+     */
+    public List<AppArkDO> apps(int moduleId) {
+        return snapshot().apps.getOrDefault(moduleId, Collections.emptyList());
+    }
+
+    /**
+     * 使快照失效；在事务中调用时提交后再失效一次，避免并发读取加载到未提交前的数据
+     */
+    public void invalidate() {
+        doInvalidate();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager
+                .registerSynchronization(new TransactionSynchronizationAdapter() {
+                    @Override
+                    public void afterCommit() {
+                        doInvalidate();
+                    }
+                });
+        }
+    }
+
+    /**
+     * 缓存统计
+     *
+     * @return
+     */
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hitCount", hitCount.get());
+        stats.put("missCount", missCount.get());
+        stats.put("invalidateCount", invalidateCount.get());
+        Snapshot current = snapshot;
+        stats.put("pluginCount", current == null ? 0L : current.plugins.size());
+        stats.put("loadTime", current == null ? 0L : current.loadTime);
+        return stats;
+    }
+
+    private void doInvalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+        invalidateCount.incrementAndGet();
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (isValid(current)) {
+            hitCount.incrementAndGet();
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (isValid(current)) {
+                hitCount.incrementAndGet();
+                return current;
+            }
+            missCount.incrementAndGet();
+            long loadGeneration = generation.get();
+            Snapshot loaded = load();
+            // 加载期间发生写操作时只使用本次结果，不写回缓存
+            if (generation.get() == loadGeneration) {
+                snapshot = loaded;
+            }
+            return loaded;
+        }
+    }
+
+    private boolean isValid(Snapshot current) {
+        return current != null
+               && (ttlMs <= 0 || System.currentTimeMillis() - current.loadTime < ttlMs);
+    }
+
+    private Snapshot load() {
+        long loadTime = System.currentTimeMillis();
+        List<ArkPluginDO> plugins = arkDao.queryModuleInfoByName(null);
+        Map<Integer, List<ArkModuleVersionDO>> versions = new HashMap<>();
+        Map<Integer, List<AppArkDO>> apps = new HashMap<>();
+        if (!plugins.isEmpty()) {
+            List<Integer> moduleIds = plugins.stream().map(ArkPluginDO::getId)
+                .collect(Collectors.toList());
+            for (ArkModuleVersionDO version : arkDao.queryVersionsByMids(moduleIds)) {
+                versions.computeIfAbsent(version.getModuleId(), k -> new ArrayList<>()).add(version);
+            }
+            for (AppArkDO app : arkDao.queryAppsByModuleIds(moduleIds)) {
+                apps.computeIfAbsent(app.getModuleId(), k -> new ArrayList<>()).add(app);
+            }
+        }
+        Map<String, ArkPluginDO> pluginByName = new HashMap<>();
+        plugins.forEach(plugin -> pluginByName.put(plugin.getPluginName().toLowerCase(Locale.ROOT), plugin));
+        return new Snapshot(Collections.unmodifiableList(plugins), pluginByName, versions, apps,
+            loadTime);
+    }
+
+    private static final class Snapshot {
+
+        private final List<ArkPluginDO>                      plugins;
+
+        private final Map<String, ArkPluginDO>               pluginByName;
+
+        private final Map<Integer, List<ArkModuleVersionDO>> versions;
+
+        private final Map<Integer, List<AppArkDO>>           apps;
+
+        private final long                                   loadTime;
+
+        Snapshot(List<ArkPluginDO> plugins, Map<String, ArkPluginDO> pluginByName,
+                 Map<Integer, List<ArkModuleVersionDO>> versions,
+                 Map<Integer, List<AppArkDO>> apps, long loadTime) {
+            this.plugins = plugins;
+            this.pluginByName = pluginByName;
+            this.versions = versions;
+            this.apps = apps;
+            this.loadTime = loadTime;
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.alipay.sofa.dashboard.impl;
 
 import com.alipay.sofa.dashboard.dao.ArkDao;
 import com.alipay.sofa.dashboard.model.AppArkDO;
+import com.alipay.sofa.dashboard.model.AppArkModel;
 import com.alipay.sofa.dashboard.model.ArkModuleUserDO;
 import com.alipay.sofa.dashboard.model.ArkModuleVersionDO;
 import com.alipay.sofa.dashboard.model.ArkPluginDO;
@@ -29,9 +30,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * data for ark mng
@@ -47,9 +55,17 @@ public class ArkMngServiceImpl implements ArkMngService {
     @Autowired
     private ArkDao              arkDao;
 
+    @Autowired
+    private ArkMetadataCache    arkMetadataCache;
+
     @Override
     public List<ArkPluginModel> fetchRegisteredPlugins() {
-        return doFetchPluginsByName(null);
+        return doFetchPlugins(arkMetadataCache.plugins(), false);
+    }
+
+    @Override
+    public List<ArkPluginModel> fetchRegisteredPluginsWithApps() {
+        return doFetchPlugins(arkMetadataCache.plugins(), true);
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -71,6 +87,7 @@ public class ArkMngServiceImpl implements ArkMngService {
             arkModuleUserDO.setUserId(-1);
             arkModuleUserDO.setCreateTime(model.getCreateTime());
             arkDao.insertModuleUser(arkModuleUserDO);
+            arkMetadataCache.invalidate();
         } catch (Exception e) {
             LOGGER.error("Error to register plugin.", e);
             return false;
@@ -80,18 +97,72 @@ public class ArkMngServiceImpl implements ArkMngService {
 
     @Override
     public boolean updatePlugin(ArkPluginDO model) {
-        return arkDao.update(model) > 0;
+        int effect = arkDao.update(model);
+        arkMetadataCache.invalidate();
+        return effect > 0;
     }
 
     @Override
     public boolean addNewVersion(int mId, String version, String address) {
         // 向模板版本表中插入数据
-        return doInsertModuleVersion(mId, version, address) > 0;
+        int id = doInsertModuleVersion(mId, version, address);
+        arkMetadataCache.invalidate();
+        return id > 0;
     }
 
     @Override
     public boolean deleteVersion(int mId, String version) {
-        return arkDao.deletePluginVersion(mId, version) >= 0;
+        int effect = arkDao.deletePluginVersion(mId, version);
+        arkMetadataCache.invalidate();
+        return effect >= 0;
+    }
+
+    @Override
+    public boolean existPlugin(int mId) {
+        return arkDao.queryModuleInfoById(mId) != null;
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public Map<String, Boolean> addNewVersions(int mId, List<ArkPluginModel.Version> versions) {
+        Set<String> exists = arkDao.queryVersionsByMids(Collections.singletonList(mId)).stream()
+            .map(ArkModuleVersionDO::getModuleVersion).collect(Collectors.toSet());
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        List<ArkModuleVersionDO> inserts = new ArrayList<>();
+        Date now = SofaDashboardUtil.now();
+        for (ArkPluginModel.Version version : versions) {
+            if (result.containsKey(version.getVersion())) {
+                continue;
+            }
+            boolean insert = !StringUtils.isEmpty(version.getVersion())
+                             && exists.add(version.getVersion());
+            result.put(version.getVersion(), insert);
+            if (insert) {
+                inserts.add(newModuleVersion(mId, version.getVersion(), version.getSourcePath(),
+                    now));
+            }
+        }
+        if (!inserts.isEmpty()) {
+            arkDao.batchInsertModuleVersion(inserts);
+            arkMetadataCache.invalidate();
+        }
+        return result;
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public Map<String, Boolean> deleteVersions(int mId, List<String> versions) {
+        Set<String> exists = arkDao.queryVersionsByMids(Collections.singletonList(mId)).stream()
+            .map(ArkModuleVersionDO::getModuleVersion).collect(Collectors.toSet());
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        versions.forEach(version -> result.put(version, exists.contains(version)));
+        List<String> deletes = result.entrySet().stream().filter(Map.Entry::getValue)
+            .map(Map.Entry::getKey).collect(Collectors.toList());
+        if (!deletes.isEmpty()) {
+            arkDao.batchDeletePluginVersion(mId, deletes);
+            arkMetadataCache.invalidate();
+        }
+        return result;
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -104,6 +175,7 @@ public class ArkMngServiceImpl implements ArkMngService {
             arkDao.removeModuleVersion(mId);
             // 移除模块Owner表
             arkDao.removeModuleUser(mId);
+            arkMetadataCache.invalidate();
         } catch (Exception e) {
             LOGGER.error("Error to remove plugin.", e);
             return false;
@@ -113,7 +185,13 @@ public class ArkMngServiceImpl implements ArkMngService {
 
     @Override
     public List<ArkPluginModel> fetchPluginsByName(String pluginName) {
-        return doFetchPluginsByName(pluginName);
+        // 模糊查询
+        return doFetchPlugins(arkMetadataCache.pluginsContaining(pluginName), false);
+    }
+
+    @Override
+    public List<ArkPluginModel> fetchPluginsByNamePrefix(String pluginName) {
+        return doFetchPlugins(arkMetadataCache.pluginsStartingWith(pluginName), false);
     }
 
     @Override
@@ -126,34 +204,97 @@ public class ArkMngServiceImpl implements ArkMngService {
         appArkDO.setCreateTime(SofaDashboardUtil.now());
         appArkDO.setModuleId(moduleId);
         arkDao.insertAppArk(appArkDO);
+        arkMetadataCache.invalidate();
         return appArkDO.getId();
     }
 
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public Map<String, Boolean> relatedAppsToPlugin(int moduleId, List<String> appNames) {
+        Set<String> exists = relatedAppNames(moduleId);
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        List<AppArkDO> inserts = new ArrayList<>();
+        Date now = SofaDashboardUtil.now();
+        for (String appName : appNames) {
+            if (result.containsKey(appName)) {
+                continue;
+            }
+            boolean insert = moduleId >= 0 && !StringUtils.isEmpty(appName) && exists.add(appName);
+            result.put(appName, insert);
+            if (insert) {
+                AppArkDO appArkDO = new AppArkDO();
+                appArkDO.setAppName(appName);
+                appArkDO.setCreateTime(now);
+                appArkDO.setModuleId(moduleId);
+                inserts.add(appArkDO);
+            }
+        }
+        if (!inserts.isEmpty()) {
+            arkDao.batchInsertAppArk(inserts);
+            arkMetadataCache.invalidate();
+        }
+        return result;
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public Map<String, Boolean> cancelRelatedAppsToPlugin(int moduleId, List<String> appNames) {
+        Set<String> exists = relatedAppNames(moduleId);
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        appNames.forEach(appName -> result.put(appName, exists.contains(appName)));
+        List<String> deletes = result.entrySet().stream().filter(Map.Entry::getValue)
+            .map(Map.Entry::getKey).collect(Collectors.toList());
+        if (!deletes.isEmpty()) {
+            arkDao.batchDeleteAppArk(moduleId, deletes);
+            arkMetadataCache.invalidate();
+        }
+        return result;
+    }
+
+    private Set<String> relatedAppNames(int moduleId) {
+        return arkDao.queryAppsModuleId(moduleId).stream().map(AppArkDO::getAppName)
+            .collect(Collectors.toSet());
+    }
+
     @Override
     public List<AppArkDO> queryAppsByPlugin(String pluginName) {
-        int moduleId = queryModuleIdByPluginName(pluginName);
-        return arkDao.queryAppsModuleId(moduleId);
+        ArkPluginDO plugin = arkMetadataCache.plugin(pluginName);
+        if (plugin == null) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(arkMetadataCache.apps(plugin.getId()));
     }
 
     @Override
     public int cancelRelatedAppToPlugin(String pluginName, String appName) {
         int moduleId = queryModuleIdByPluginName(pluginName);
-        return arkDao.deleteByPluginNameAndAppName(moduleId, appName);
+        int effect = arkDao.deleteByPluginNameAndAppName(moduleId, appName);
+        arkMetadataCache.invalidate();
+        return effect;
+    }
+
+    @Override
+    public Map<String, Long> fetchCacheStats() {
+        return arkMetadataCache.stats();
     }
 
     private int queryModuleIdByPluginName(String pluginName) {
         return arkDao.queryModuleIdByPluginName(pluginName);
     }
 
-    private List<ArkPluginModel> doFetchPluginsByName(String pluginName) {
+    /**
+     * 从元数据缓存组装插件版本以及关联应用
+     *
+     * @param list     插件
+     * @param withApps 是否填充关联应用
+     * @return
+     */
+    private List<ArkPluginModel> doFetchPlugins(List<ArkPluginDO> list, boolean withApps) {
         List<ArkPluginModel> result = new ArrayList<>();
-        // 模糊查询所有
-        List<ArkPluginDO> list = arkDao.queryModuleInfoByName(pluginName);
         for (ArkPluginDO item : list) {
             ArkPluginModel temp = new ArkPluginModel();
-            List<ArkModuleVersionDO> arkModuleVersionDOList = arkDao.queryVersionsByMid(item.getId());
             List<ArkPluginModel.Version> versions = new ArrayList<>();
-            arkModuleVersionDOList.forEach(ver -> {
+            arkMetadataCache.versions(item.getId()).forEach(ver -> {
                 ArkPluginModel.Version version = new ArkPluginModel.Version();
                 version.setSourcePath(ver.getSourcePath());
                 version.setVersion(ver.getModuleVersion());
@@ -163,6 +304,16 @@ public class ArkMngServiceImpl implements ArkMngService {
             temp.setId(item.getId());
             temp.setDescription(item.getDescription());
             temp.setPluginName(item.getPluginName());
+            if (withApps) {
+                List<AppArkModel> appArkList = new ArrayList<>();
+                arkMetadataCache.apps(item.getId()).forEach(appArkDO -> {
+                    AppArkModel appArkModel = new AppArkModel();
+                    appArkModel.setAppName(appArkDO.getAppName());
+                    appArkModel.setCreateTime(SofaDashboardUtil.formatDate(appArkDO.getCreateTime()));
+                    appArkList.add(appArkModel);
+                });
+                temp.setAppArkList(appArkList);
+            }
             result.add(temp);
         }
         return result;
@@ -176,14 +327,21 @@ public class ArkMngServiceImpl implements ArkMngService {
      */
     private int doInsertModuleVersion(int mId, String version, String address) {
         // 向模板版本表中插入数据
+        ArkModuleVersionDO arkModuleVersionDO = newModuleVersion(mId, version, address,
+            SofaDashboardUtil.now());
+        arkDao.insertModuleVersion(arkModuleVersionDO);
+        return arkModuleVersionDO.getId();
+    }
+
+    private ArkModuleVersionDO newModuleVersion(int mId, String version, String address,
+                                                Date createTime) {
         ArkModuleVersionDO arkModuleVersionDO = new ArkModuleVersionDO();
-        arkModuleVersionDO.setCreateTime(SofaDashboardUtil.now());
+        arkModuleVersionDO.setCreateTime(createTime);
         arkModuleVersionDO.setModuleId(mId);
         arkModuleVersionDO.setModuleVersion(version);
         arkModuleVersionDO.setSourcePath(address);
         arkModuleVersionDO.setIsRelease((byte) 0);
-        arkDao.insertModuleVersion(arkModuleVersionDO);
-        return arkModuleVersionDO.getId();
+        return arkModuleVersionDO;
     }
 
 }
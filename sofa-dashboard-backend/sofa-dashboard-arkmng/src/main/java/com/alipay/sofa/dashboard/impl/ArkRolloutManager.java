@@ -0,0 +1,659 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.impl;
+
+import com.alipay.sofa.ark.api.ResponseCode;
+import com.alipay.sofa.dashboard.constants.SofaDashboardConstants;
+import com.alipay.sofa.dashboard.model.ClientSummaryModel;
+import com.alipay.sofa.dashboard.model.CommandPushResult;
+import com.alipay.sofa.dashboard.model.CommandRequest;
+import com.alipay.sofa.dashboard.model.RolloutModel;
+import com.alipay.sofa.dashboard.model.RolloutModel.HostState;
+import com.alipay.sofa.dashboard.model.RolloutModel.Status;
+import com.alipay.sofa.dashboard.model.RolloutRequest;
+import com.alipay.sofa.dashboard.spi.CommandPushManager;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Ark biz 分批发布
+ * <p>
+ * 目标主机按 batchSize 或 batchPercent 分批，每批通过 {@link CommandPushManager#pushCommandAsync} 推送；
+ * 上一批全部主机在 /apps/biz 上报目标版本激活后才开始下一批。状态变化由 {@link ZkNodeMirror} 的 TreeCache 事件驱动，不做轮询。
+ * 任一主机推送失败、biz 状态为 broken、上报失败或者批次等待超时，发布自动暂停，处理后可继续，继续时重推失败的主机。
+ * <p>
+ * 发布状态的迁移都在单线程 executor 中执行，命令推送以及镜像中没有节点时回源 ZooKeeper 的读取都交给 worker 线程池，
+ * 结果再投递回 executor 处理，状态线程不做阻塞调用。记录只保存在内存中。
+ */
+@Component
+public class ArkRolloutManager implements InitializingBean, DisposableBean {
+
+    private static final Logger             LOGGER         = LoggerFactory
+                                                               .getLogger(ArkRolloutManager.class);
+
+    private static final String             BROKEN         = "broken";
+
+    /**
+     * 推送与回源读取的线程数
+     */
+    private static final int                WORKER_THREADS = 4;
+
+    /**
+     * 单批等待实例激活的超时时间
+     */
+    @Value("${com.alipay.sofa.dashboard.ark.rolloutWaveTimeoutMs:600000}")
+    private long                            waveTimeoutMs  = 600000;
+
+    /**
+     * 内存中保留的发布记录数，超出时依次淘汰最早结束、最早暂停的记录，进行中的发布不淘汰
+     */
+    @Value("${com.alipay.sofa.dashboard.ark.rolloutHistorySize:100}")
+    private int                             historySize    = 100;
+
+    @Autowired
+    private CommandPushManager              commandPushManager;
+
+    @Autowired
+    private ZkHelper                        zkHelper;
+
+    @Autowired
+    private ZkNodeMirror                    zkNodeMirror;
+
+    private final Map<String, Rollout>      rollouts       = new ConcurrentHashMap<>();
+
+    /**
+     * 应用名 -> 进行中的发布，用于分发 biz 节点事件
+     */
+    private final Map<String, Set<Rollout>> activeRollouts = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService        executor;
+
+    private ExecutorService                 worker;
+
+    @Override
+    public void afterPropertiesSet() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ark-rollout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger index = new AtomicInteger();
+        worker = Executors.newFixedThreadPool(WORKER_THREADS, r -> {
+            Thread thread = new Thread(r, "ark-rollout-worker-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        zkNodeMirror.addBizListener(this::onBizEvent);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        worker.shutdownNow();
+    }
+
+    /**
+     * 创建并开始分批发布
+     *
+     * @param request
+     * @return
+     */
+    public RolloutModel start(RolloutRequest request) {
+        String command = StringUtils.isEmpty(request.getCommand()) ? SofaDashboardConstants.INSTALL
+            : request.getCommand();
+        if (!SofaDashboardConstants.INSTALL.equals(command)
+            && !SofaDashboardConstants.SWITCH.equals(command)) {
+            throw new IllegalArgumentException("Unsupported rollout command: " + command);
+        }
+        if (StringUtils.isEmpty(request.getAppName())
+            || StringUtils.isEmpty(request.getPluginName())
+            || StringUtils.isEmpty(request.getPluginVersion())) {
+            throw new IllegalArgumentException("appName, pluginName and pluginVersion are required");
+        }
+        Set<String> hosts = new LinkedHashSet<>();
+        if (request.getTargetHost() != null) {
+            request.getTargetHost().stream().filter(host -> !StringUtils.isEmpty(host))
+                .forEach(hosts::add);
+        }
+        if (hosts.isEmpty()) {
+            throw new IllegalArgumentException("targetHost is required");
+        }
+        Rollout rollout = new Rollout(request, command, hosts, waveSize(request, hosts.size()));
+        rollouts.put(rollout.id, rollout);
+        activeRollouts.compute(rollout.appName, (key, value) -> {
+            Set<Rollout> active = value == null ? ConcurrentHashMap.newKeySet() : value;
+            active.add(rollout);
+            return active;
+        });
+        LOGGER.info("Start rollout {} of {}:{} on {} hosts in {} waves.", rollout.id,
+            rollout.pluginName, rollout.pluginVersion, hosts.size(), rollout.waves.size());
+        executor.execute(() -> startWave(rollout));
+        executor.execute(this::trimHistory);
+        return snapshot(rollout, false);
+    }
+
+    public RolloutModel pause(String id) {
+        Rollout rollout = getRollout(id);
+        synchronized (rollout) {
+            checkStatus(rollout, Status.RUNNING);
+            rollout.status = Status.PAUSED;
+            rollout.message = "Paused manually";
+        }
+        return snapshot(rollout, false);
+    }
+
+    /**
+     * 继续已暂停的发布，当前批次中失败的主机重新推送
+     *
+     * @param id
+     * @return
+     */
+    public RolloutModel resume(String id) {
+        Rollout rollout = getRollout(id);
+        synchronized (rollout) {
+            checkStatus(rollout, Status.PAUSED);
+            rollout.status = Status.RUNNING;
+            rollout.message = null;
+        }
+        executor.execute(() -> startWave(rollout));
+        return snapshot(rollout, false);
+    }
+
+    /**
+     * 取消发布，已推送的命令不会回滚
+     *
+     * @param id
+     * @return
+     */
+    public RolloutModel cancel(String id) {
+        Rollout rollout = getRollout(id);
+        synchronized (rollout) {
+            if (rollout.status == Status.COMPLETED || rollout.status == Status.CANCELLED) {
+                throw new IllegalStateException("Rollout is already " + rollout.status);
+            }
+            finish(rollout, Status.CANCELLED, "Cancelled manually");
+        }
+        return snapshot(rollout, false);
+    }
+
+    /**
+     * @param id
+     * @return 包含每个主机的进度
+     */
+    public RolloutModel get(String id) {
+        return snapshot(getRollout(id), true);
+    }
+
+    /**
+     * @return 按创建时间倒序，不包含主机明细
+     */
+    public List<RolloutModel> list() {
+        return rollouts.values().stream()
+            .sorted(Comparator.comparingLong((Rollout rollout) -> rollout.createTime).reversed())
+            .map(rollout -> snapshot(rollout, false)).collect(Collectors.toList());
+    }
+
+    private void startWave(Rollout rollout) {
+        List<String> targets = new ArrayList<>();
+        long generation;
+        synchronized (rollout) {
+            if (rollout.status != Status.RUNNING) {
+                return;
+            }
+            rollout.waiting = 0;
+            for (HostProgress progress : rollout.waves.get(rollout.currentWave)) {
+                if (progress.state == HostState.PENDING || progress.state == HostState.FAILED) {
+                    progress.state = HostState.PUSHING;
+                    progress.message = null;
+                    progress.baseMzxid = bizMzxid(rollout.appName, progress.host);
+                    targets.add(progress.host);
+                }
+                if (progress.state != HostState.ACTIVATED) {
+                    rollout.waiting++;
+                }
+            }
+            generation = ++rollout.generation;
+            if (rollout.waiting == 0) {
+                advance(rollout);
+                return;
+            }
+        }
+        executor.schedule(() -> onWaveTimeout(rollout, generation), waveTimeoutMs,
+            TimeUnit.MILLISECONDS);
+        if (targets.isEmpty()) {
+            return;
+        }
+        CommandRequest commandRequest = new CommandRequest();
+        commandRequest.setDimension(SofaDashboardConstants.IP);
+        commandRequest.setCommand(rollout.command);
+        commandRequest.setAppName(rollout.appName);
+        commandRequest.setPluginName(rollout.pluginName);
+        commandRequest.setPluginVersion(rollout.pluginVersion);
+        commandRequest.setTargetHost(targets);
+        try {
+            // pushCommandAsync 的实现可能在调用线程中同步读取 ZooKeeper 或数据库，不在状态线程中调用
+            worker.execute(() -> push(rollout, commandRequest));
+        } catch (RejectedExecutionException e) {
+            failPushing(rollout, targets, e);
+        }
+    }
+
+    /**
+     * 在 worker 线程中执行，推送结果投递回状态线程
+     */
+    private void push(Rollout rollout, CommandRequest commandRequest) {
+        List<String> targets = commandRequest.getTargetHost();
+        try {
+            commandPushManager
+                .pushCommandAsync(commandRequest,
+                    result -> executor.execute(() -> onPushed(rollout, result)))
+                .whenComplete((results, e) -> {
+                    if (e != null) {
+                        executor.execute(() -> failPushing(rollout, targets, e));
+                    }
+                });
+        } catch (Exception e) {
+            executor.execute(() -> failPushing(rollout, targets, e));
+        }
+    }
+
+    private void onPushed(Rollout rollout, CommandPushResult result) {
+        synchronized (rollout) {
+            HostProgress progress = rollout.hosts.get(result.getHost());
+            if (progress == null || progress.state != HostState.PUSHING) {
+                return;
+            }
+            if (!result.isSuccess()) {
+                fail(rollout, progress, "Failed to push command: " + result.getMessage());
+                return;
+            }
+            progress.state = HostState.PUSHED;
+            // 推送期间到达的事件已被忽略，这里以镜像中的当前状态补一次判断
+            evaluate(rollout, progress, false);
+        }
+    }
+
+    private void failPushing(Rollout rollout, List<String> targets, Throwable e) {
+        LOGGER.error("Failed to push command of rollout " + rollout.id + ".", e);
+        synchronized (rollout) {
+            for (String host : targets) {
+                HostProgress progress = rollout.hosts.get(host);
+                if (progress.state == HostState.PUSHING) {
+                    fail(rollout, progress, "Failed to push command: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void onBizEvent(CuratorFramework client, TreeCacheEvent event) {
+        if ((event.getType() != TreeCacheEvent.Type.NODE_ADDED && event.getType() != TreeCacheEvent.Type.NODE_UPDATED)
+            || event.getData() == null) {
+            return;
+        }
+        String prefix = ZkNodeMirror.BIZ_ROOT + SofaDashboardConstants.SEPARATOR;
+        String path = event.getData().getPath();
+        if (!path.startsWith(prefix)) {
+            return;
+        }
+        int idx = path.indexOf(SofaDashboardConstants.SEPARATOR, prefix.length());
+        if (idx == -1) {
+            return;
+        }
+        Set<Rollout> active = activeRollouts.get(path.substring(prefix.length(), idx));
+        if (active == null) {
+            return;
+        }
+        String host = path.substring(idx + 1);
+        for (Rollout rollout : active) {
+            executor.execute(() -> onBizChanged(rollout, host));
+        }
+    }
+
+    private void onBizChanged(Rollout rollout, String host) {
+        synchronized (rollout) {
+            HostProgress progress = rollout.hosts.get(host);
+            if (progress != null && progress.state == HostState.PUSHED) {
+                evaluate(rollout, progress, true);
+            }
+        }
+    }
+
+    /**
+     * 根据实例上报的 biz 状态判断主机是否完成。镜像初始化后直接读取镜像判断；
+     * 镜像未初始化时在 worker 中回源读取，读取结果再交回状态线程判断
+     *
+     * @param changed 是否由节点变化事件触发，只有节点在推送后发生过变化时才认定上报的失败结果
+     */
+    private void evaluate(Rollout rollout, HostProgress progress, boolean changed) {
+        if (zkNodeMirror.isBizInitialized()) {
+            applyBizState(rollout, progress, changed, readBizState(rollout, progress.host));
+            return;
+        }
+        try {
+            worker.execute(() -> {
+                BizStateView view = readBizState(rollout, progress.host);
+                executor.execute(() -> {
+                    synchronized (rollout) {
+                        if (progress.state == HostState.PUSHED) {
+                            applyBizState(rollout, progress, changed, view);
+                        }
+                    }
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Failed to read biz state of {}/{}.", rollout.appName, progress.host);
+        }
+    }
+
+    /**
+     * @return 读取失败时返回 null
+     */
+    private BizStateView readBizState(Rollout rollout, String host) {
+        try {
+            BizStateView view = new BizStateView();
+            view.state = zkHelper.getAppState(rollout.appName, host, rollout.pluginName,
+                rollout.pluginVersion);
+            view.summary = zkHelper.getBizSummary(rollout.appName, host);
+            return view;
+        } catch (Exception e) {
+            LOGGER.warn("Failed to read biz state of {}/{}.", rollout.appName, host);
+            return null;
+        }
+    }
+
+    private void applyBizState(Rollout rollout, HostProgress progress, boolean changed,
+                               BizStateView view) {
+        if (view == null) {
+            return;
+        }
+        String state = view.state;
+        // install 时同名 biz 已有激活版本，新版本以 deactivated 状态安装
+        if (SofaDashboardConstants.ACTIVATED.equalsIgnoreCase(state)
+            || (SofaDashboardConstants.INSTALL.equals(rollout.command) && SofaDashboardConstants.DEACTIVATED
+                .equalsIgnoreCase(state))) {
+            progress.state = HostState.ACTIVATED;
+            progress.message = null;
+            if (--rollout.waiting == 0 && rollout.status == Status.RUNNING) {
+                advance(rollout);
+            }
+        } else if (BROKEN.equalsIgnoreCase(state)) {
+            fail(rollout, progress, "Biz state is broken");
+        } else if (changed && bizMzxid(rollout.appName, progress.host) != progress.baseMzxid) {
+            ClientSummaryModel summary = view.summary;
+            if (summary.getCode() == ResponseCode.FAILED
+                || summary.getCode() == ResponseCode.ILLEGAL_STATE_BIZ) {
+                fail(rollout, progress, summary.getCode() + ": " + summary.getMessage());
+            }
+        }
+    }
+
+    private void onWaveTimeout(Rollout rollout, long generation) {
+        synchronized (rollout) {
+            if (rollout.generation != generation || rollout.status != Status.RUNNING) {
+                return;
+            }
+            for (HostProgress progress : rollout.waves.get(rollout.currentWave)) {
+                if (progress.state == HostState.PUSHING || progress.state == HostState.PUSHED) {
+                    fail(rollout, progress, "Timeout waiting for biz activated");
+                }
+            }
+        }
+    }
+
+    private void advance(Rollout rollout) {
+        if (rollout.currentWave + 1 >= rollout.waves.size()) {
+            finish(rollout, Status.COMPLETED, null);
+            LOGGER.info("Rollout {} completed.", rollout.id);
+            return;
+        }
+        rollout.currentWave++;
+        executor.execute(() -> startWave(rollout));
+    }
+
+    private void fail(Rollout rollout, HostProgress progress, String message) {
+        progress.state = HostState.FAILED;
+        progress.message = message;
+        LOGGER.warn("Rollout {} failed on host {}: {}", rollout.id, progress.host, message);
+        if (rollout.status == Status.RUNNING) {
+            rollout.status = Status.PAUSED;
+            rollout.message = "Paused on failure of " + progress.host + ": " + message;
+        }
+    }
+
+    private void finish(Rollout rollout, Status status, String message) {
+        rollout.status = status;
+        rollout.message = message;
+        // 使未触发的批次超时失效
+        rollout.generation++;
+        activeRollouts.computeIfPresent(rollout.appName, (key, value) -> {
+            value.remove(rollout);
+            return value.isEmpty() ? null : value;
+        });
+        // 淘汰时需要逐个持有其他发布的锁，不在持有当前发布的锁时执行
+        executor.execute(this::trimHistory);
+    }
+
+    /**
+     * 在状态线程中执行，超出 historySize 时先淘汰最早结束的记录，仍超出时取消并淘汰最早暂停的记录
+     */
+    private void trimHistory() {
+        int overflow = rollouts.size() - historySize;
+        if (overflow <= 0) {
+            return;
+        }
+        List<Rollout> candidates = rollouts.values().stream()
+            .filter(rollout -> rollout.status != Status.RUNNING)
+            .sorted(Comparator.comparing((Rollout rollout) -> rollout.status == Status.PAUSED)
+                .thenComparingLong(rollout -> rollout.createTime))
+            .limit(overflow).collect(Collectors.toList());
+        for (Rollout rollout : candidates) {
+            synchronized (rollout) {
+                if (rollout.status == Status.RUNNING) {
+                    continue;
+                }
+                if (rollout.status == Status.PAUSED) {
+                    finish(rollout, Status.CANCELLED, "Evicted from rollout history");
+                }
+            }
+            rollouts.remove(rollout.id);
+            LOGGER.info("Rollout {} evicted from history.", rollout.id);
+        }
+    }
+
+    private long bizMzxid(String appName, String host) {
+        ChildData data = zkNodeMirror.getBizNode(appName, host);
+        return data == null || data.getStat() == null ? -1 : data.getStat().getMzxid();
+    }
+
+    private Rollout getRollout(String id) {
+        Rollout rollout = id == null ? null : rollouts.get(id);
+        if (rollout == null) {
+            throw new IllegalArgumentException("Rollout not found: " + id);
+        }
+        return rollout;
+    }
+
+    private void checkStatus(Rollout rollout, Status expected) {
+        if (rollout.status != expected) {
+            throw new IllegalStateException("Rollout is " + rollout.status + ", expected "
+                                            + expected);
+        }
+    }
+
+    private RolloutModel snapshot(Rollout rollout, boolean withHosts) {
+        RolloutModel model = new RolloutModel();
+        model.setId(rollout.id);
+        model.setAppName(rollout.appName);
+        model.setPluginName(rollout.pluginName);
+        model.setPluginVersion(rollout.pluginVersion);
+        model.setCommand(rollout.command);
+        model.setCreateTime(rollout.createTime);
+        model.setTotalWaves(rollout.waves.size());
+        model.setHostCount(rollout.hosts.size());
+        synchronized (rollout) {
+            model.setStatus(rollout.status);
+            model.setMessage(rollout.message);
+            model.setCurrentWave(rollout.currentWave);
+            int activated = 0;
+            int failed = 0;
+            for (HostProgress progress : rollout.hosts.values()) {
+                if (progress.state == HostState.ACTIVATED) {
+                    activated++;
+                } else if (progress.state == HostState.FAILED) {
+                    failed++;
+                }
+                if (withHosts) {
+                    RolloutModel.Host host = new RolloutModel.Host();
+                    host.setHost(progress.host);
+                    host.setWave(progress.wave);
+                    host.setState(progress.state);
+                    host.setMessage(progress.message);
+                    model.getHosts().add(host);
+                }
+            }
+            model.setActivatedCount(activated);
+            model.setFailedCount(failed);
+        }
+        return model;
+    }
+
+    private static int waveSize(RolloutRequest request, int hostCount) {
+        if (request.getBatchSize() != null) {
+            if (request.getBatchSize() <= 0) {
+                throw new IllegalArgumentException("batchSize must be positive");
+            }
+            return request.getBatchSize();
+        }
+        if (request.getBatchPercent() != null) {
+            if (request.getBatchPercent() <= 0 || request.getBatchPercent() > 100) {
+                throw new IllegalArgumentException("batchPercent must be in (0, 100]");
+            }
+            return Math.max(1, (int) Math.ceil(hostCount * request.getBatchPercent() / 100.0));
+        }
+        return hostCount;
+    }
+
+    /**
+     * 一次读取到的主机 biz 状态
+     */
+    private static final class BizStateView {
+
+        private String             state;
+
+        private ClientSummaryModel summary;
+    }
+
+    /**
+     * 一次分批发布，除 id 等不可变字段外均在持有自身锁时访问
+     */
+    private static final class Rollout {
+
+        private final String                    id         = UUID.randomUUID().toString();
+
+        private final String                    appName;
+
+        private final String                    pluginName;
+
+        private final String                    pluginVersion;
+
+        private final String                    command;
+
+        private final long                      createTime = System.currentTimeMillis();
+
+        private final Map<String, HostProgress> hosts      = new LinkedHashMap<>();
+
+        private final List<List<HostProgress>>  waves      = new ArrayList<>();
+
+        private volatile Status                 status     = Status.RUNNING;
+
+        private String                          message;
+
+        private int                             currentWave;
+
+        /**
+         * 当前批次中尚未激活的主机数
+         */
+        private int                             waiting;
+
+        /**
+         * 每次开始批次时递增，用于识别过期的超时任务
+         */
+        private long                            generation;
+
+        Rollout(RolloutRequest request, String command, Set<String> targetHosts, int waveSize) {
+            this.appName = request.getAppName();
+            this.pluginName = request.getPluginName();
+            this.pluginVersion = request.getPluginVersion();
+            this.command = command;
+            for (String host : targetHosts) {
+                if (hosts.size() % waveSize == 0) {
+                    waves.add(new ArrayList<>(Math.min(waveSize, targetHosts.size())));
+                }
+                HostProgress progress = new HostProgress(host, waves.size() - 1);
+                waves.get(waves.size() - 1).add(progress);
+                hosts.put(host, progress);
+            }
+        }
+    }
+
+    private static final class HostProgress {
+
+        private final String host;
+
+        private final int    wave;
+
+        private HostState    state = HostState.PENDING;
+
+        private String       message;
+
+        /**
+         * 推送前 biz 节点的 mzxid，节点不存在时为 -1
+         */
+        private long         baseMzxid;
+
+        HostProgress(String host, int wave) {
+            this.host = host;
+            this.wave = wave;
+        }
+    }
+}
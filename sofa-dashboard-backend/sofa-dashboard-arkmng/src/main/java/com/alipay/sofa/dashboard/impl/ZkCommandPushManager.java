@@ -19,172 +19,250 @@ package com.alipay.sofa.dashboard.impl;
 import com.alipay.sofa.dashboard.constants.SofaDashboardConstants;
 import com.alipay.sofa.dashboard.dao.ArkDao;
 import com.alipay.sofa.dashboard.model.ArkModuleVersionDO;
+import com.alipay.sofa.dashboard.model.ArkOperation;
 import com.alipay.sofa.dashboard.model.ArkPluginDO;
+import com.alipay.sofa.dashboard.model.CommandPushResult;
 import com.alipay.sofa.dashboard.model.CommandRequest;
 import com.alipay.sofa.dashboard.spi.CommandPushManager;
+import com.alipay.sofa.dashboard.utils.ArkOperationCodec;
 import com.alipay.sofa.dashboard.zookeeper.ZkCommandClient;
 import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.CuratorEvent;
 import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * @author: guolei.sgl (guolei.sgl@antfin.com) 2019/2/12 5:21 PM
  * @since:
  **/
 @Service
-public class ZkCommandPushManager implements CommandPushManager {
+public class ZkCommandPushManager implements CommandPushManager, DisposableBean {
 
-    private static final Logger    LOGGER         = LoggerFactory
-                                                      .getLogger(ZkCommandPushManager.class);
+    private static final Logger      LOGGER              = LoggerFactory
+                                                             .getLogger(ZkCommandPushManager.class);
 
-    private volatile AtomicBoolean isSyncAppState = new AtomicBoolean(false);
+    /**
+     * 推送准备线程数
+     */
+    private static final int         PREPARE_PARALLELISM = 4;
+
+    /**
+     * 推送准备排队任务上限，超出后推送直接失败
+     */
+    private static final int         PREPARE_QUEUE_SIZE  = 1024;
+
+    private volatile AtomicBoolean   isSyncAppState      = new AtomicBoolean(false);
+
+    /**
+     * IP 维度推送时同时在途的主机数
+     */
+    @Value("${com.alipay.sofa.dashboard.ark.pushConcurrency:64}")
+    private int                      pushConcurrency     = 64;
+
+    /**
+     * 同步推送等待全部主机完成的超时时间
+     */
+    @Value("${com.alipay.sofa.dashboard.ark.pushTimeoutMs:60000}")
+    private long                     pushTimeoutMs       = 60000;
+
+    /**
+     * 命令节点版本冲突时的最大重试次数
+     */
+    @Value("${com.alipay.sofa.dashboard.ark.pushMaxRetries:32}")
+    private int                      pushMaxRetries      = 32;
 
     @Autowired
-    private ZkCommandClient        zkCommandClient;
+    private ZkCommandClient          zkCommandClient;
 
     @Autowired
-    private ArkDao                 arkDao;
+    private ArkMetadataCache         arkMetadataCache;
+
+    @Autowired
+    private ArkDao                   arkDao;
+
+    /**
+     * 推送前的准备工作（检查根节点、读取应用维度状态、解析插件地址）及应用维度推送在此执行，不占用调用线程
+     */
+    private final ThreadPoolExecutor prepareExecutor     = newPrepareExecutor();
 
     @Override
     public void pushCommand(CommandRequest commandRequest) {
-        checkRoot();
         // 如果是按照应用维度推送命令，则直接放在 /appName 节点数据中
         if (commandRequest.getDimension().equals(SofaDashboardConstants.APP)) {
-            String path = SofaDashboardConstants.SOFA_ARK_ROOT + SofaDashboardConstants.SEPARATOR + commandRequest.getAppName();
-            ArkOperation data = getData(commandRequest);
+            checkRoot();
             try {
-                Stat stat = getClient().checkExists().forPath(path);
-                if (stat == null) {
-                    getClient().create().creatingParentContainersIfNeeded().withMode(CreateMode.EPHEMERAL).forPath(path, convertConfig(data, "").getBytes());
-                } else {
-                    String oldData = new String(getClient().getData().forPath(path));
-                    getClient().setData().forPath(path, convertConfig(data, oldData).getBytes());
-                }
+                pushAppDimension(commandRequest);
             } catch (Exception e) {
                 LOGGER.error("Failed to install biz module via app dimension.", e);
                 throw new RuntimeException(e);
             }
         } else {
             // 如果是按照IP维度推送，则放在 /ip 节点数据中
-            List<String> targetHosts = commandRequest.getTargetHost();
-            targetHosts.forEach(targetHost -> {
-                String path = SofaDashboardConstants.SOFA_ARK_ROOT + SofaDashboardConstants.SEPARATOR + commandRequest.getAppName() + SofaDashboardConstants.SEPARATOR + targetHost;
-                ArkOperation data = getData(commandRequest);
+            for (CommandPushResult result : pushCommandAndWait(commandRequest)) {
+                if (!result.isSuccess()) {
+                    LOGGER.error("Failed to install biz module via ip dimension, host: {}, {}.",
+                        result.getHost(), result.getMessage());
+                    throw new RuntimeException("Failed to push command to " + result.getHost()
+                                               + ": " + result.getMessage());
+                }
+            }
+        }
+    }
 
+    /**
+     * 异步推送，调用线程只负责提交，准备工作在 prepareExecutor 中执行。
+     * IP 维度：插件地址每条命令只解析一次，各主机的读取与写入通过 Curator 后台操作流水线执行，
+     * 同时在途的主机数不超过 pushConcurrency，一个主机完成后再发起下一个。
+     * 写入均以读取时的节点版本做 CAS，版本冲突时重新读取合并，多个推送可并行作用于同一应用。
+     * 插件地址解析失败等准备阶段的异常使 future 异常完成
+     *
+     * @param commandRequest
+     * @param listener       单个目标推送完成回调，在 ZooKeeper 事件线程或推送线程中执行，不应阻塞
+     * @return
+     */
+    @Override
+    public CompletableFuture<List<CommandPushResult>> pushCommandAsync(CommandRequest commandRequest,
+                                                                       Consumer<CommandPushResult> listener) {
+        CompletableFuture<List<CommandPushResult>> future = new CompletableFuture<>();
+        try {
+            prepareExecutor.execute(() -> {
                 try {
-                    if (getClient().checkExists().forPath(path) == null) {
-                        getClient().create().creatingParentContainersIfNeeded().withMode(CreateMode.EPHEMERAL).forPath(path, convertConfig(data, "").getBytes());
-                    } else {
-                        // 这里应该ark在首次从应用维度初始化之后向自己的节点写入状态数据
-                        // 为了保持兼容，这里先从应用维度解析然后进行 merge
-                        if (isSyncAppState.compareAndSet(false, true)) {
-                            String appPath = SofaDashboardConstants.SOFA_ARK_ROOT + SofaDashboardConstants.SEPARATOR + commandRequest.getAppName();
-                            String appOldData = new String(getClient().getData().forPath(appPath));
-                            getClient().setData().forPath(path, convertConfig(data, appOldData).getBytes());
-                        } else {
-                            String oldData = new String(getClient().getData().forPath(path));
-                            getClient().setData().forPath(path, convertConfig(data, oldData).getBytes());
-                        }
-                    }
-                } catch (Exception e) {
-                    LOGGER.error("Failed to install biz module via ip dimension.", e);
-                    throw new RuntimeException(e);
+                    prepare(commandRequest, listener, future);
+                } catch (Throwable e) {
+                    LOGGER.error("Failed to prepare command push.", e);
+                    future.completeExceptionally(e);
                 }
             });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
         }
+        return future;
     }
 
-    private String convertConfig(ArkOperation operation, String oldData) {
-        List<ArkOperation> arkOperations = new ArrayList<>();
-        String[] stateInfo = oldData.split(SofaDashboardConstants.SEMICOLON);
-        for (String info : stateInfo) {
-            if (StringUtils.isEmpty(info)) {
-                continue;
-            }
-            arkOperations.add(convertArkOperation(info));
-        }
-        if (SofaDashboardConstants.INSTALL.equals(operation.getCommand())) {
-            return handleInstall(operation.getBizName(), operation.getBizVersion(),
-                operation.getParameters(), arkOperations);
-        } else if (SofaDashboardConstants.SWITCH.equals(operation.getCommand())) {
-            return handleSwitch(operation.getBizName(), operation.getBizVersion(), arkOperations);
-        } else {
-            return handleUninstall(operation.getBizName(), operation.getBizVersion(), arkOperations);
+    /**
+     * 同步推送并等待全部目标完成，等待超过 pushTimeoutMs 时抛出异常
+     *
+     * @param commandRequest
+     * @return
+     */
+    @Override
+    public List<CommandPushResult> pushCommandAndWait(CommandRequest commandRequest) {
+        try {
+            return pushCommandAsync(commandRequest, result -> {}).get(pushTimeoutMs,
+                TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            LOGGER.error("Failed to push command.", e.getCause());
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            LOGGER.error("Push command timeout after {} ms.", pushTimeoutMs);
+            throw new RuntimeException("Push command timeout after " + pushTimeoutMs + " ms.", e);
         }
     }
 
-    private String handleInstall(String bizName, String bizVersion, String parameters,
-                                 List<ArkOperation> current) {
-        String state = SofaDashboardConstants.ACTIVATED;
-        boolean isExist = false;
-        for (ArkOperation arkOperation : current) {
-            if (arkOperation.getBizName().equals(bizName)
-                && arkOperation.getBizVersion().equals(bizVersion)) {
-                isExist = true;
-            } else if (arkOperation.getBizName().equals(bizName)
-                       && arkOperation.getState().equals(SofaDashboardConstants.ACTIVATED)) {
-                state = SofaDashboardConstants.DEACTIVATED;
-            }
-        }
-        if (!isExist) {
-            ArkOperation operation = new ArkOperation();
-            operation.setBizName(bizName);
-            operation.setBizVersion(bizVersion);
-            operation.setState(state);
-            operation.setParameters(parameters);
-            current.add(operation);
-        }
-        return covertToConfig(current);
+    @Override
+    public void destroy() {
+        prepareExecutor.shutdownNow();
     }
 
-    private String handleUninstall(String bizName, String bizVersion, List<ArkOperation> current) {
-        for (ArkOperation arkOperation : current) {
-            if (arkOperation.getBizName().equals(bizName)
-                && arkOperation.getBizVersion().equals(bizVersion)) {
-                current.remove(arkOperation);
-                break;
+    private void prepare(CommandRequest commandRequest, Consumer<CommandPushResult> listener,
+                         CompletableFuture<List<CommandPushResult>> future) {
+        checkRoot();
+        if (SofaDashboardConstants.APP.equals(commandRequest.getDimension())) {
+            CommandPushResult result;
+            try {
+                pushAppDimension(commandRequest);
+                result = new CommandPushResult(null, true, "");
+            } catch (Exception e) {
+                LOGGER.error("Failed to install biz module via app dimension.", e);
+                result = new CommandPushResult(null, false, String.valueOf(e.getMessage()));
             }
+            try {
+                listener.accept(result);
+            } catch (Throwable e) {
+                LOGGER.error("Error to notify command push result.", e);
+            }
+            future.complete(Collections.singletonList(result));
+            return;
+        }
+        List<String> targetHosts = commandRequest.getTargetHost() == null ? new ArrayList<>()
+            : commandRequest.getTargetHost();
+        ArkOperation operation = getData(commandRequest);
+        String appOldData = null;
+        if (!isSyncAppState.get()) {
+            appOldData = readAppData(commandRequest.getAppName());
         }
-        return covertToConfig(current);
+        new IpPushTask(commandRequest.getAppName(), operation, targetHosts, appOldData, listener,
+            future).start();
     }
 
-    private String handleSwitch(String bizName, String bizVersion, List<ArkOperation> current) {
-        for (ArkOperation arkOperation : current) {
-            if (arkOperation.getBizName().equals(bizName)
-                && arkOperation.getBizVersion().equals(bizVersion)) {
-                arkOperation.setState(SofaDashboardConstants.ACTIVATED);
-            } else if (arkOperation.getBizName().equals(bizName)) {
-                arkOperation.setState(SofaDashboardConstants.DEACTIVATED);
-            }
-        }
-        return covertToConfig(current);
+    private void pushAppDimension(CommandRequest commandRequest) throws Exception {
+        String path = SofaDashboardConstants.SOFA_ARK_ROOT + SofaDashboardConstants.SEPARATOR
+                      + commandRequest.getAppName();
+        pushWithVersion(path, getData(commandRequest));
     }
 
-    private String covertToConfig(List<ArkOperation> arkOperations) {
-        StringBuilder sb = new StringBuilder();
-        for (ArkOperation arkOperation : arkOperations) {
-            sb.append(arkOperation.getBizName()).append(SofaDashboardConstants.COLON)
-                .append(arkOperation.getBizVersion()).append(SofaDashboardConstants.COLON)
-                .append(arkOperation.getState());
-            if (!StringUtils.isEmpty(arkOperation.getParameters())) {
-                sb.append(SofaDashboardConstants.Q_MARK).append(arkOperation.getParameters());
+    /**
+     * 以节点版本做 CAS 写入：读取数据及版本，合并后带版本写回；
+     * 版本冲突（BADVERSION）或节点在读写之间被创建、删除时，重新读取后再次合并，最多重试 pushMaxRetries 次
+     *
+     * @param path
+     * @param operation
+     * @throws Exception
+     */
+    private void pushWithVersion(String path, ArkOperation operation) throws Exception {
+        for (int attempt = 0; attempt <= pushMaxRetries; attempt++) {
+            Stat stat = new Stat();
+            byte[] oldData;
+            try {
+                oldData = getClient().getData().storingStatIn(stat).forPath(path);
+            } catch (KeeperException.NoNodeException e) {
+                try {
+                    getClient().create().creatingParentContainersIfNeeded()
+                        .withMode(CreateMode.EPHEMERAL)
+                        .forPath(path, ArkOperationCodec.merge(operation, "").getBytes());
+                    return;
+                } catch (KeeperException.NodeExistsException ex) {
+                    continue;
+                }
+            }
+            String newData = ArkOperationCodec.merge(operation, oldData == null ? "" : new String(
+                oldData));
+            try {
+                getClient().setData().withVersion(stat.getVersion())
+                    .forPath(path, newData.getBytes());
+                return;
+            } catch (KeeperException.BadVersionException | KeeperException.NoNodeException e) {
+                LOGGER.debug("Concurrent modification on {}, retry: {}.", path, attempt);
             }
-            sb.append(SofaDashboardConstants.SEMICOLON);
-        }
-        String ret = sb.toString();
-        if (ret.endsWith(SofaDashboardConstants.SEMICOLON)) {
-            ret = ret.substring(0, ret.length() - 1);
         }
-        return ret;
+        throw new IllegalStateException("Too many concurrent modifications on " + path);
     }
 
     private CuratorFramework getClient() {
@@ -200,19 +278,47 @@ public class ZkCommandPushManager implements CommandPushManager {
         return arkOperation;
     }
 
+    /**
+     * 优先读缓存；缓存未命中时回源数据库，其他节点刚写入的插件或版本在缓存过期前也能找到
+     */
     private String getBizPluginFileUrl(CommandRequest commandRequest) {
+        ArkPluginDO arkPlugin = arkMetadataCache.plugin(commandRequest.getPluginName());
+        if (arkPlugin != null) {
+            ArkModuleVersionDO arkModuleVersion = arkMetadataCache.version(arkPlugin.getId(),
+                commandRequest.getPluginVersion());
+            if (arkModuleVersion != null) {
+                return arkModuleVersion.getSourcePath();
+            }
+        }
         List<ArkPluginDO> arkPluginList = arkDao.queryModuleInfoByNameStrict(commandRequest
             .getPluginName());
         if (arkPluginList.size() > 1) {
             throw new RuntimeException("Multiple modules with the same name coexist.");
         }
-        if (arkPluginList.size() == 1) {
-            ArkPluginDO arkPlugin = arkPluginList.get(0);
-            ArkModuleVersionDO arkModuleVersion = arkDao.queryByModuleIdAndModuleVersion(
-                arkPlugin.getId(), commandRequest.getPluginVersion());
-            return arkModuleVersion.getSourcePath();
+        if (arkPluginList.isEmpty()) {
+            return null;
+        }
+        ArkModuleVersionDO arkModuleVersion = arkDao.queryByModuleIdAndModuleVersion(arkPluginList
+            .get(0).getId(), commandRequest.getPluginVersion());
+        if (arkModuleVersion == null) {
+            throw new RuntimeException("Module version not found: "
+                                       + commandRequest.getPluginName() + ":"
+                                       + commandRequest.getPluginVersion());
+        }
+        // 缓存已落后于数据库
+        arkMetadataCache.invalidate();
+        return arkModuleVersion.getSourcePath();
+    }
+
+    private String readAppData(String appName) {
+        String appPath = SofaDashboardConstants.SOFA_ARK_ROOT + SofaDashboardConstants.SEPARATOR
+                         + appName;
+        try {
+            return new String(getClient().getData().forPath(appPath));
+        } catch (Exception e) {
+            LOGGER.warn("Failed to read ark app state of {}.", appName);
+            return null;
         }
-        return null;
     }
 
     private void checkRoot() {
@@ -227,64 +333,170 @@ public class ZkCommandPushManager implements CommandPushManager {
         }
     }
 
-    private ArkOperation convertArkOperation(String config) {
-        int idx = config.indexOf(SofaDashboardConstants.Q_MARK);
-        String parameter = (idx == -1) ? "" : config.substring(idx + 1);
-        String[] meta = (idx == -1) ? config.split(SofaDashboardConstants.COLON) : config
-            .substring(0, idx).split(SofaDashboardConstants.COLON);
-        ArkOperation arkOperation = new ArkOperation();
-        arkOperation.setParameters(parameter);
-        arkOperation.setBizName(meta[0]);
-        arkOperation.setBizVersion(meta[1]);
-        arkOperation.setState(meta[2]);
-        return arkOperation;
+    private static ThreadPoolExecutor newPrepareExecutor() {
+        AtomicInteger index = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(PREPARE_PARALLELISM,
+            PREPARE_PARALLELISM, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(PREPARE_QUEUE_SIZE),
+            runnable -> {
+                Thread thread = new Thread(runnable, "ark-push-prepare-" + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
-    class ArkOperation {
-        String command;
-        String bizName;
-        String bizVersion;
-        String parameters;
-        String state;
+    /**
+     * 一条 IP 维度命令的推送过程
+     */
+    private final class IpPushTask {
 
-        private String getState() {
-            return state;
-        }
+        private final String                                     appName;
 
-        private void setState(String state) {
-            this.state = state;
-        }
+        private final ArkOperation                               operation;
+
+        private final Queue<String>                              pending;
+
+        private final AtomicInteger                              remaining;
+
+        private final List<CommandPushResult>                    results;
+
+        private final Consumer<CommandPushResult>                listener;
+
+        private final CompletableFuture<List<CommandPushResult>> future;
 
-        private String getCommand() {
-            return command;
+        /**
+         * 应用维度的状态数据，只用于首次同步
+         */
+        private final String                                     appOldData;
+
+        IpPushTask(String appName, ArkOperation operation, List<String> targetHosts,
+                   String appOldData, Consumer<CommandPushResult> listener,
+                   CompletableFuture<List<CommandPushResult>> future) {
+            this.appName = appName;
+            this.operation = operation;
+            this.pending = new ConcurrentLinkedQueue<>(targetHosts);
+            this.remaining = new AtomicInteger(targetHosts.size());
+            this.results = Collections.synchronizedList(new ArrayList<>(targetHosts.size()));
+            this.appOldData = appOldData;
+            this.listener = listener;
+            this.future = future;
         }
 
-        private void setCommand(String command) {
-            this.command = command;
+        void start() {
+            if (remaining.get() == 0) {
+                future.complete(new ArrayList<>());
+                return;
+            }
+            int concurrency = Math.max(1, pushConcurrency);
+            for (int i = 0; i < concurrency; i++) {
+                String host = pending.poll();
+                if (host == null) {
+                    break;
+                }
+                read(host, 0);
+            }
         }
 
-        private String getBizName() {
-            return bizName;
+        private String path(String host) {
+            return SofaDashboardConstants.SOFA_ARK_ROOT + SofaDashboardConstants.SEPARATOR
+                   + appName + SofaDashboardConstants.SEPARATOR + host;
         }
 
-        private void setBizName(String bizName) {
-            this.bizName = bizName;
+        private void read(String host, int attempt) {
+            if (attempt > pushMaxRetries) {
+                complete(host, false, "Too many concurrent modifications");
+                return;
+            }
+            try {
+                getClient().getData().inBackground((client, event) -> {
+                    try {
+                        onRead(host, attempt, event);
+                    } catch (Exception e) {
+                        complete(host, false, e.getMessage());
+                    }
+                }).forPath(path(host));
+            } catch (Exception e) {
+                complete(host, false, e.getMessage());
+            }
         }
 
-        private String getBizVersion() {
-            return bizVersion;
+        private void onRead(String host, int attempt, CuratorEvent event) {
+            int code = event.getResultCode();
+            if (code == KeeperException.Code.NONODE.intValue()) {
+                create(host, attempt);
+            } else if (code == KeeperException.Code.OK.intValue()) {
+                String oldData = event.getData() == null ? "" : new String(event.getData());
+                // 这里应该ark在首次从应用维度初始化之后向自己的节点写入状态数据
+                // 为了保持兼容，这里先从应用维度解析然后进行 merge；
+                // 主机节点已有数据时不再覆盖，避免丢失并发推送写入的内容；
+                // 先判断为空再占用一次性的同步标记，否则非空节点会白白消耗掉标记
+                if (StringUtils.isEmpty(oldData) && appOldData != null
+                    && isSyncAppState.compareAndSet(false, true)) {
+                    oldData = appOldData;
+                }
+                write(host, attempt, ArkOperationCodec.merge(operation, oldData), event.getStat()
+                    .getVersion());
+            } else {
+                complete(host, false, KeeperException.Code.get(code).name());
+            }
         }
 
-        private void setBizVersion(String bizVersion) {
-            this.bizVersion = bizVersion;
+        private void create(String host, int attempt) {
+            try {
+                getClient().create().creatingParentContainersIfNeeded()
+                    .withMode(CreateMode.EPHEMERAL).inBackground((client, event) -> {
+                        int code = event.getResultCode();
+                        if (code == KeeperException.Code.NODEEXISTS.intValue()) {
+                            // 并发创建，重新读取后合并
+                            read(host, attempt + 1);
+                        } else {
+                            complete(host, code == KeeperException.Code.OK.intValue(),
+                                KeeperException.Code.get(code).name());
+                        }
+                    }).forPath(path(host), ArkOperationCodec.merge(operation, "").getBytes());
+            } catch (Exception e) {
+                complete(host, false, e.getMessage());
+            }
         }
 
-        private String getParameters() {
-            return parameters;
+        /**
+         * 带版本写入，版本冲突或节点已被删除时重新读取后合并
+         */
+        private void write(String host, int attempt, String data, int version) {
+            try {
+                getClient().setData().withVersion(version).inBackground((client, event) -> {
+                    int code = event.getResultCode();
+                    if (code == KeeperException.Code.BADVERSION.intValue()
+                        || code == KeeperException.Code.NONODE.intValue()) {
+                        read(host, attempt + 1);
+                    } else {
+                        complete(host, code == KeeperException.Code.OK.intValue(),
+                            KeeperException.Code.get(code).name());
+                    }
+                }).forPath(path(host), data.getBytes());
+            } catch (Exception e) {
+                complete(host, false, e.getMessage());
+            }
         }
 
-        private void setParameters(String parameters) {
-            this.parameters = parameters;
+        private void complete(String host, boolean success, String message) {
+            CommandPushResult result = new CommandPushResult(host, success, success ? ""
+                : String.valueOf(message));
+            results.add(result);
+            try {
+                listener.accept(result);
+            } catch (Throwable e) {
+                LOGGER.error("Error to notify command push result.", e);
+            }
+            if (remaining.decrementAndGet() == 0) {
+                future.complete(new ArrayList<>(results));
+                return;
+            }
+            String next = pending.poll();
+            if (next != null) {
+                read(next, 0);
+            }
         }
     }
 }
@@ -25,9 +25,13 @@ import com.alipay.sofa.dashboard.constants.SofaDashboardConstants;
 import com.alipay.sofa.dashboard.model.AppUnitModel;
 import com.alipay.sofa.dashboard.model.BizModel;
 import com.alipay.sofa.dashboard.model.ClientResponseModel;
-import com.alipay.sofa.dashboard.utils.FastJsonUtils;
+import com.alipay.sofa.dashboard.model.ClientSummaryModel;
 import com.alipay.sofa.dashboard.zookeeper.ZkCommandClient;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,10 +53,25 @@ import java.util.Set;
 @Component
 public class ZkHelper {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(ZkHelper.class);
+    private static final Logger                LOGGER                = LoggerFactory
+                                                                         .getLogger(ZkHelper.class);
+
+    private static final int                   MAX_BIZ_STATE_ENTRIES = 4096;
+
+    @Autowired
+    ZkCommandClient                            zkCommandClient;
 
     @Autowired
-    ZkCommandClient             zkCommandClient;
+    ZkNodeMirror                               zkNodeMirror;
+
+    /**
+     * /apps/biz/{appName}/{ip} -> 解析结果
+     */
+    private final Cache<String, BizStateEntry> bizStateCache         = CacheBuilder
+                                                                         .newBuilder()
+                                                                         .maximumSize(
+                                                                             MAX_BIZ_STATE_ENTRIES)
+                                                                         .build();
 
     /**
      * 根据应用名获取当前应用的所有实例
@@ -79,12 +98,15 @@ public class ZkHelper {
     }
 
     /**
-     * 获取 /sofa-ark/appName 下面所有的实例 IP
+     * 获取 /sofa-ark/appName 下面所有的实例 IP，镜像初始化后只读本地镜像
      * @param appName
      * @return
      */
     private List<String> getInstanceIpList(String appName) {
-        List<String> result = null;
+        List<String> result = zkNodeMirror.getArkInstances(appName);
+        if (result != null) {
+            return result;
+        }
         CuratorFramework curatorClient = zkCommandClient.getCuratorClient();
         String arkAppBasePath = SofaDashboardConstants.SOFA_ARK_ROOT
                                 + SofaDashboardConstants.SEPARATOR + appName;
@@ -137,105 +159,169 @@ public class ZkHelper {
      */
     public String getAppState(String appName, String ip, String pluginName, String version)
                                                                                            throws Exception {
-        String bizPath = SofaDashboardConstants.SOFA_BOOT_CLIENT_ROOT
-                         + SofaDashboardConstants.SOFA_BOOT_CLIENT_BIZ;
-        CuratorFramework curatorClient = zkCommandClient.getCuratorClient();
-        if (curatorClient.checkExists().forPath(bizPath) != null) {
-            String bizAppPath = bizPath + SofaDashboardConstants.SEPARATOR + appName
-                                + SofaDashboardConstants.SEPARATOR + ip;
-            if (curatorClient.checkExists().forPath(bizAppPath) != null) {
-                byte[] bytes = curatorClient.getData().forPath(bizAppPath);
-                String data = new String(bytes);
-                JSONObject json = JSON.parseObject(data);
-                String bizInfos = FastJsonUtils.getString(json, "bizInfos");
-                JSONArray array = JSONArray.parseArray(bizInfos);
-                for (int i = 0; i < array.size(); i++) {
-                    JSONObject item = array.getJSONObject(i);
-                    String bizName = FastJsonUtils.getString(item, "bizName");
-                    String bizVersion = FastJsonUtils.getString(item, "bizVersion");
-                    if (bizName.equalsIgnoreCase(pluginName)
-                        && bizVersion.equalsIgnoreCase(version)) {
-                        return FastJsonUtils.getString(item, "bizState");
-                    }
+        BizStateEntry entry = getBizStateEntry(appName, ip);
+        if (entry != null) {
+            for (ClientSummaryModel.Biz biz : entry.summary.getBizInfos()) {
+                if (biz.getBizName().equalsIgnoreCase(pluginName)
+                    && biz.getBizVersion().equalsIgnoreCase(version)) {
+                    return biz.getBizState();
                 }
             }
         }
         return "";
     }
 
+    /**
+     * 从 ZK 获取   apps/biz/ 的概要信息，不解析 classPath、deny import 以及 classloader
+     * <p>
+     * 返回对象在节点未变化时被多次请求共享，调用方不应修改
+     *
+     * @param appName
+     * @param ip
+     * @return
+     */
+    public ClientSummaryModel getBizSummary(String appName, String ip) throws Exception {
+        BizStateEntry entry = getBizStateEntry(appName, ip);
+        return entry == null ? new ClientSummaryModel() : entry.summary;
+    }
+
     /**
      * 从 ZK 获取   apps/biz/
+     * <p>
+     * 返回对象在节点未变化时被多次请求共享，调用方不应修改
+     *
      * @param appName
      * @param ip
      * @return
      */
     public ClientResponseModel getBizState(String appName, String ip) throws Exception {
-        ClientResponseModel result = new ClientResponseModel();
-        String bizPath = SofaDashboardConstants.SOFA_BOOT_CLIENT_ROOT
-                         + SofaDashboardConstants.SOFA_BOOT_CLIENT_BIZ;
-        CuratorFramework curatorClient = zkCommandClient.getCuratorClient();
-        if (curatorClient.checkExists().forPath(bizPath) != null) {
-            String bizAppPath = bizPath + SofaDashboardConstants.SEPARATOR + appName
-                                + SofaDashboardConstants.SEPARATOR + ip;
-            if (curatorClient.checkExists().forPath(bizAppPath) != null) {
-                byte[] bytes = curatorClient.getData().forPath(bizAppPath);
-                String data = new String(bytes);
-                JSONObject json = JSON.parseObject(data);
-                String message = FastJsonUtils.getString(json, "message");
-                String code = FastJsonUtils.getString(json, "code");
-                result.setCode(ResponseCode.valueOf(code));
-                result.setMessage(message);
-                String bizInfos = FastJsonUtils.getString(json, "bizInfos");
-                JSONArray array = JSONArray.parseArray(bizInfos);
-                Set<BizModel> bizInfoList = new HashSet<>();
-                for (int i = 0; i < array.size(); i++) {
-                    JSONObject item = array.getJSONObject(i);
-                    BizModel bizModel = new BizModel();
-                    bizModel.setBizName(FastJsonUtils.getString(item, "bizName"));
-                    bizModel.setBizState(BizState.of(FastJsonUtils.getString(item, "bizState")));
-                    bizModel.setBizVersion(FastJsonUtils.getString(item, "bizVersion"));
-                    bizModel.setIdentity(FastJsonUtils.getString(item, "identity"));
-                    bizModel.setMainClass(FastJsonUtils.getString(item, "mainClass"));
-                    bizModel.setClassPath(getUrls("classPath", item));
-                    bizModel.setDenyImportClasses(parseBizStateByKey("denyImportClasses", item));
-                    bizModel.setDenyImportPackageNodes(parseBizStateByKey("denyImportPackageNodes",
-                        item));
-                    bizModel.setDenyImportPackageStems(parseBizStateByKey("denyImportPackageStems",
-                        item));
-                    bizModel.setDenyImportPackages(parseBizStateByKey("denyImportPackages", item));
-                    bizModel
-                        .setDenyImportResources(parseBizStateByKey("denyImportResources", item));
-                    bizModel.setWebContextPath(FastJsonUtils.getString(item, "webContextPath"));
-                    bizModel.setPriority(FastJsonUtils.getInteger(item, "priority"));
-                    bizModel.setBizClassLoader(getClassLoader(item));
-                    bizInfoList.add(bizModel);
-                }
+        BizStateEntry entry = getBizStateEntry(appName, ip);
+        if (entry == null) {
+            return new ClientResponseModel();
+        }
+        ClientResponseModel detail = entry.detail;
+        if (detail == null) {
+            detail = parseDetail(JSON.parseObject(entry.data));
+            entry.detail = detail;
+        }
+        return detail;
+    }
+
+    /**
+     * 按节点修改版本 (mzxid) 缓存解析结果，节点未变化时不重新解析
+     */
+    private BizStateEntry getBizStateEntry(String appName, String ip) throws Exception {
+        String path = ZkNodeMirror.bizPath(appName, ip);
+        ChildData node = getBizNode(appName, ip);
+        if (node == null || node.getData() == null) {
+            bizStateCache.invalidate(path);
+            return null;
+        }
+        long mzxid = node.getStat().getMzxid();
+        BizStateEntry entry = bizStateCache.getIfPresent(path);
+        if (entry == null || entry.mzxid != mzxid) {
+            String data = new String(node.getData());
+            entry = new BizStateEntry(mzxid, data, parseSummary(JSON.parseObject(data)));
+            bizStateCache.put(path, entry);
+        }
+        return entry;
+    }
 
-                result.setBizInfos(bizInfoList);
+    private ClientSummaryModel parseSummary(JSONObject json) {
+        ClientSummaryModel result = new ClientSummaryModel();
+        result.setMessage(json.getString("message"));
+        result.setCode(ResponseCode.valueOf(json.getString("code")));
+        JSONArray array = json.getJSONArray("bizInfos");
+        if (array == null) {
+            return result;
+        }
+        for (int i = 0; i < array.size(); i++) {
+            JSONObject item = array.getJSONObject(i);
+            ClientSummaryModel.Biz biz = new ClientSummaryModel.Biz();
+            biz.setBizName(item.getString("bizName"));
+            biz.setBizVersion(item.getString("bizVersion"));
+            biz.setBizState(item.getString("bizState"));
+            biz.setIdentity(item.getString("identity"));
+            biz.setMainClass(item.getString("mainClass"));
+            biz.setWebContextPath(item.getString("webContextPath"));
+            biz.setPriority(item.getInteger("priority"));
+            result.getBizInfos().add(biz);
+        }
+        return result;
+    }
+
+    private ClientResponseModel parseDetail(JSONObject json) throws MalformedURLException {
+        ClientResponseModel result = new ClientResponseModel();
+        result.setCode(ResponseCode.valueOf(json.getString("code")));
+        result.setMessage(json.getString("message"));
+        JSONArray array = json.getJSONArray("bizInfos");
+        Set<BizModel> bizInfoList = new HashSet<>();
+        for (int i = 0; array != null && i < array.size(); i++) {
+            JSONObject item = array.getJSONObject(i);
+            BizModel bizModel = new BizModel();
+            bizModel.setBizName(item.getString("bizName"));
+            bizModel.setBizState(BizState.of(item.getString("bizState")));
+            bizModel.setBizVersion(item.getString("bizVersion"));
+            bizModel.setIdentity(item.getString("identity"));
+            bizModel.setMainClass(item.getString("mainClass"));
+            bizModel.setClassPath(getUrls(item.getJSONArray("classPath")));
+            bizModel.setDenyImportClasses(parseBizStateByKey("denyImportClasses", item));
+            bizModel.setDenyImportPackageNodes(parseBizStateByKey("denyImportPackageNodes", item));
+            bizModel.setDenyImportPackageStems(parseBizStateByKey("denyImportPackageStems", item));
+            bizModel.setDenyImportPackages(parseBizStateByKey("denyImportPackages", item));
+            bizModel.setDenyImportResources(parseBizStateByKey("denyImportResources", item));
+            bizModel.setWebContextPath(item.getString("webContextPath"));
+            Integer priority = item.getInteger("priority");
+            if (priority != null) {
+                bizModel.setPriority(priority);
             }
+            bizModel.setBizClassLoader(getClassLoader(item));
+            bizInfoList.add(bizModel);
         }
+        result.setBizInfos(bizInfoList);
         return result;
     }
 
+    /**
+     * 读取 /apps/biz/{appName}/{ip} 节点，镜像初始化后只读本地镜像，初始化前回源 ZooKeeper
+     *
+     * @param appName
+     * @param ip
+     * @return 节点不存在时返回 null
+     */
+    private ChildData getBizNode(String appName, String ip) throws Exception {
+        if (zkNodeMirror.isBizInitialized()) {
+            return zkNodeMirror.getBizNode(appName, ip);
+        }
+        String bizAppPath = ZkNodeMirror.bizPath(appName, ip);
+        try {
+            Stat stat = new Stat();
+            byte[] data = zkCommandClient.getCuratorClient().getData().storingStatIn(stat)
+                .forPath(bizAppPath);
+            return new ChildData(bizAppPath, stat, data);
+        } catch (KeeperException.NoNodeException e) {
+            return null;
+        }
+    }
+
     private Set<String> parseBizStateByKey(String key, JSONObject json) {
-        String val = FastJsonUtils.getString(json, key);
-        JSONArray urls = JSONArray.parseArray(val);
+        JSONArray values = json.getJSONArray(key);
         Set<String> data = new HashSet<>();
-        for (int i = 0; i < urls.size(); i++) {
-            JSONObject jsonObject = urls.getJSONObject(i);
-            data.add(jsonObject.toString());
+        for (int i = 0; values != null && i < values.size(); i++) {
+            Object value = values.get(i);
+            data.add(value instanceof JSON ? ((JSON) value).toJSONString() : String.valueOf(value));
         }
         return data;
     }
 
-    private URL[] getUrls(String key, JSONObject json) throws MalformedURLException {
-        String classPath = FastJsonUtils.getString(json, key);
-        JSONArray urls = JSONArray.parseArray(classPath);
+    private URL[] getUrls(JSONArray urls) throws MalformedURLException {
+        if (urls == null) {
+            return new URL[0];
+        }
         URL[] data = new URL[urls.size()];
         for (int i = 0; i < urls.size(); i++) {
             Object object = urls.get(i);
             data[i] = new URL(object == null ? "" : (String) object);
-
         }
         return data;
     }
@@ -243,16 +329,35 @@ public class ZkHelper {
     private BizModel.ClassLoader getClassLoader(JSONObject json) {
         BizModel.ClassLoader data = new BizModel.ClassLoader();
         try {
-            String parent = FastJsonUtils.getString(json, "bizClassLoader/parent");
-            String bizIdentity = FastJsonUtils.getString(json, "bizClassLoader/bizIdentity");
-            URL[] urls = getUrls("bizClassLoader/urls", json);
-            data.setBizIdentity(bizIdentity);
+            JSONObject classLoader = json.getJSONObject("bizClassLoader");
+            String parent = classLoader.getString("parent");
+            data.setBizIdentity(classLoader.getString("bizIdentity"));
             data.setParent(parent == null ? "" : parent);
-            data.setUrls(urls);
+            data.setUrls(getUrls(classLoader.getJSONArray("urls")));
         } catch (Throwable e) {
             LOGGER.error("Error to get bizClassLoader.", e);
         }
         return data;
     }
 
+    private static final class BizStateEntry {
+
+        private final long                   mzxid;
+
+        /**
+         * 原始节点数据，明细按需解析
+         */
+        private final String                 data;
+
+        private final ClientSummaryModel     summary;
+
+        private volatile ClientResponseModel detail;
+
+        BizStateEntry(long mzxid, String data, ClientSummaryModel summary) {
+            this.mzxid = mzxid;
+            this.data = data;
+            this.summary = summary;
+        }
+    }
+
 }
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.impl;
+
+import com.alipay.sofa.dashboard.constants.SofaDashboardConstants;
+import com.alipay.sofa.dashboard.zookeeper.ZkCommandClient;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.TreeCache;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+import org.apache.curator.framework.recipes.cache.TreeCacheListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /sofa-ark/{app}/{ip} 与 /apps/biz/{app}/{ip} 的本地镜像
+ * <p>
+ * 通过 Curator TreeCache 监听节点变化，读取时直接查本地数据。镜像尚未完成初始化时返回 null，由调用方回源 ZooKeeper；
+ * 初始化完成后以镜像为准，本地没有的节点视为不存在，不再回源。
+ * <p>
+ * 镜像是最终一致的：应用节点已在镜像中时，其下刚创建的实例在事件到达前不会出现在 {@link #getArkInstances} 的结果里，
+ * 刚删除的实例也可能仍被返回。
+ */
+@Component
+public class ZkNodeMirror implements InitializingBean, DisposableBean {
+
+    private static final Logger    LOGGER    = LoggerFactory.getLogger(ZkNodeMirror.class);
+
+    public static final String     BIZ_ROOT  = SofaDashboardConstants.SOFA_BOOT_CLIENT_ROOT
+                                               + SofaDashboardConstants.SOFA_BOOT_CLIENT_BIZ;
+
+    /**
+     * 根节点 / 应用 / 实例
+     */
+    private static final int       MAX_DEPTH = 2;
+
+    private final CuratorFramework curatorClient;
+
+    private TreeCache              arkCache;
+
+    private TreeCache              bizCache;
+
+    private volatile boolean       arkInitialized;
+
+    private volatile boolean       bizInitialized;
+
+    @Autowired
+    public ZkNodeMirror(ZkCommandClient zkCommandClient) {
+        this.curatorClient = zkCommandClient.getCuratorClient();
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        arkCache = TreeCache.newBuilder(curatorClient, SofaDashboardConstants.SOFA_ARK_ROOT)
+            .setCacheData(true).setMaxDepth(MAX_DEPTH).build();
+        arkCache.getListenable().addListener((client, event) -> {
+            if (event.getType() == TreeCacheEvent.Type.INITIALIZED) {
+                arkInitialized = true;
+            }
+        });
+        bizCache = TreeCache.newBuilder(curatorClient, BIZ_ROOT).setCacheData(true)
+            .setMaxDepth(MAX_DEPTH).build();
+        bizCache.getListenable().addListener((client, event) -> {
+            if (event.getType() == TreeCacheEvent.Type.INITIALIZED) {
+                bizInitialized = true;
+            }
+        });
+        arkCache.start();
+        bizCache.start();
+    }
+
+    @Override
+    public void destroy() {
+        closeQuietly(arkCache);
+        closeQuietly(bizCache);
+    }
+
+    /**
+     * /sofa-ark/{appName} 下的实例 IP，可能滞后于 ZooKeeper
+     *
+     * @param appName 应用名
+     * @return 镜像未初始化时返回 null，应用节点不存在时返回空列表
+     */
+    public List<String> getArkInstances(String appName) {
+        if (!arkInitialized) {
+            return null;
+        }
+        Map<String, ChildData> children = arkCache
+            .getCurrentChildren(SofaDashboardConstants.SOFA_ARK_ROOT
+                                + SofaDashboardConstants.SEPARATOR + appName);
+        return children == null ? new ArrayList<>() : new ArrayList<>(children.keySet());
+    }
+
+    /**
+     * /apps/biz 镜像是否已完成初始化，完成后 {@link #getBizNode} 返回 null 即表示节点不存在
+     *
+     * @return
+     */
+    public boolean isBizInitialized() {
+        return bizInitialized;
+    }
+
+    /**
+     * /apps/biz/{appName}/{ip} 节点数据
+     *
+     * @param appName 应用名
+     * @param ip      实例 IP
+     * @return 镜像未初始化或节点不存在时返回 null
+     */
+    public ChildData getBizNode(String appName, String ip) {
+        if (!bizInitialized) {
+            return null;
+        }
+        return bizCache.getCurrentData(bizPath(appName, ip));
+    }
+
+    /**
+     * 监听 /apps/biz 下的节点变化，回调时镜像数据已经更新
+     *
+     * @param listener 在 TreeCache 事件线程中执行，不应阻塞
+     */
+    public void addBizListener(TreeCacheListener listener) {
+        bizCache.getListenable().addListener(listener);
+    }
+
+    public static String bizPath(String appName, String ip) {
+        return BIZ_ROOT + SofaDashboardConstants.SEPARATOR + appName
+               + SofaDashboardConstants.SEPARATOR + ip;
+    }
+
+    private void closeQuietly(TreeCache cache) {
+        if (cache == null) {
+            return;
+        }
+        try {
+            cache.close();
+        } catch (Exception e) {
+            LOGGER.warn("Failed to close zookeeper tree cache.", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.model;
+
+import java.util.List;
+
+/**
+ * 插件版本、关联应用批量操作请求
+ **/
+public class ArkPluginBatchModel {
+
+    /**
+     * 插件ID
+     */
+    private int                          id;
+
+    /**
+     * 批量注册或删除的版本，删除时只使用版本号
+     */
+    private List<ArkPluginModel.Version> versions;
+
+    /**
+     * 批量关联或取消关联的应用名
+     */
+    private List<String>                 appNames;
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public List<ArkPluginModel.Version> getVersions() {
+        return versions;
+    }
+
+    public void setVersions(List<ArkPluginModel.Version> versions) {
+        this.versions = versions;
+    }
+
+    public List<String> getAppNames() {
+        return appNames;
+    }
+
+    public void setAppNames(List<String> appNames) {
+        this.appNames = appNames;
+    }
+}
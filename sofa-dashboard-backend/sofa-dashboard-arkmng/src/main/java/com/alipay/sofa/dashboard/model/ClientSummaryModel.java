@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.model;
+
+import com.alipay.sofa.ark.api.ResponseCode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 实例 biz 状态概要，不包含 classPath、deny import 以及 classloader 等明细
+ **/
+public class ClientSummaryModel {
+
+    private String       message  = "";
+
+    private ResponseCode code     = ResponseCode.NOT_FOUND_BIZ;
+
+    private List<Biz>    bizInfos = new ArrayList<>();
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public ResponseCode getCode() {
+        return code;
+    }
+
+    public void setCode(ResponseCode code) {
+        this.code = code;
+    }
+
+    public List<Biz> getBizInfos() {
+        return bizInfos;
+    }
+
+    public void setBizInfos(List<Biz> bizInfos) {
+        this.bizInfos = bizInfos;
+    }
+
+    public static class Biz {
+
+        private String  bizName;
+
+        private String  bizVersion;
+
+        private String  bizState;
+
+        private String  identity;
+
+        private String  mainClass;
+
+        private String  webContextPath;
+
+        private Integer priority;
+
+        public String getBizName() {
+            return bizName;
+        }
+
+        public void setBizName(String bizName) {
+            this.bizName = bizName;
+        }
+
+        public String getBizVersion() {
+            return bizVersion;
+        }
+
+        public void setBizVersion(String bizVersion) {
+            this.bizVersion = bizVersion;
+        }
+
+        public String getBizState() {
+            return bizState;
+        }
+
+        public void setBizState(String bizState) {
+            this.bizState = bizState;
+        }
+
+        public String getIdentity() {
+            return identity;
+        }
+
+        public void setIdentity(String identity) {
+            this.identity = identity;
+        }
+
+        public String getMainClass() {
+            return mainClass;
+        }
+
+        public void setMainClass(String mainClass) {
+            this.mainClass = mainClass;
+        }
+
+        public String getWebContextPath() {
+            return webContextPath;
+        }
+
+        public void setWebContextPath(String webContextPath) {
+            this.webContextPath = webContextPath;
+        }
+
+        public Integer getPriority() {
+            return priority;
+        }
+
+        public void setPriority(Integer priority) {
+            this.priority = priority;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分批发布进度
+ **/
+public class RolloutModel {
+
+    private String     id;
+
+    private String     appName;
+
+    private String     pluginName;
+
+    private String     pluginVersion;
+
+    private String     command;
+
+    private Status     status;
+
+    private String     message;
+
+    /**
+     * 当前批次，从 0 开始
+     */
+    private int        currentWave;
+
+    private int        totalWaves;
+
+    private int        hostCount;
+
+    private int        activatedCount;
+
+    private int        failedCount;
+
+    private long       createTime;
+
+    /**
+     * 列表查询时为空
+     */
+    private List<Host> hosts = new ArrayList<>();
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getAppName() {
+        return appName;
+    }
+
+    public void setAppName(String appName) {
+        this.appName = appName;
+    }
+
+    public String getPluginName() {
+        return pluginName;
+    }
+
+    public void setPluginName(String pluginName) {
+        this.pluginName = pluginName;
+    }
+
+    public String getPluginVersion() {
+        return pluginVersion;
+    }
+
+    public void setPluginVersion(String pluginVersion) {
+        this.pluginVersion = pluginVersion;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public void setCommand(String command) {
+        this.command = command;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public int getCurrentWave() {
+        return currentWave;
+    }
+
+    public void setCurrentWave(int currentWave) {
+        this.currentWave = currentWave;
+    }
+
+    public int getTotalWaves() {
+        return totalWaves;
+    }
+
+    public void setTotalWaves(int totalWaves) {
+        this.totalWaves = totalWaves;
+    }
+
+    public int getHostCount() {
+        return hostCount;
+    }
+
+    public void setHostCount(int hostCount) {
+        this.hostCount = hostCount;
+    }
+
+    public int getActivatedCount() {
+        return activatedCount;
+    }
+
+    public void setActivatedCount(int activatedCount) {
+        this.activatedCount = activatedCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(int failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public long getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(long createTime) {
+        this.createTime = createTime;
+    }
+
+    public List<Host> getHosts() {
+        return hosts;
+    }
+
+    public void setHosts(List<Host> hosts) {
+        this.hosts = hosts;
+    }
+
+    public enum Status {
+        RUNNING, PAUSED, COMPLETED, CANCELLED
+    }
+
+    public enum HostState {
+        /**
+         * 所在批次尚未开始
+         */
+        PENDING,
+        /**
+         * 命令推送中
+         */
+        PUSHING,
+        /**
+         * 命令已写入，等待实例上报激活
+         */
+        PUSHED, ACTIVATED, FAILED
+    }
+
+    public static class Host {
+
+        private String    host;
+
+        private int       wave;
+
+        private HostState state;
+
+        private String    message;
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+
+        public int getWave() {
+            return wave;
+        }
+
+        public void setWave(int wave) {
+            this.wave = wave;
+        }
+
+        public HostState getState() {
+            return state;
+        }
+
+        public void setState(HostState state) {
+            this.state = state;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.model;
+
+import java.util.List;
+
+/**
+ * 分批发布请求，batchSize 与 batchPercent 同时为空时所有主机作为一批
+ **/
+public class RolloutRequest {
+
+    private String       appName;
+
+    private String       pluginName;
+
+    private String       pluginVersion;
+
+    /**
+     * install / switch
+     */
+    private String       command;
+
+    private List<String> targetHost;
+
+    /**
+     * 每批主机数
+     */
+    private Integer      batchSize;
+
+    /**
+     * 每批主机占比，1 ~ 100，batchSize 不为空时忽略
+     */
+    private Integer      batchPercent;
+
+    public String getAppName() {
+        return appName;
+    }
+
+    public void setAppName(String appName) {
+        this.appName = appName;
+    }
+
+    public String getPluginName() {
+        return pluginName;
+    }
+
+    public void setPluginName(String pluginName) {
+        this.pluginName = pluginName;
+    }
+
+    public String getPluginVersion() {
+        return pluginVersion;
+    }
+
+    public void setPluginVersion(String pluginVersion) {
+        this.pluginVersion = pluginVersion;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public void setCommand(String command) {
+        this.command = command;
+    }
+
+    public List<String> getTargetHost() {
+        return targetHost;
+    }
+
+    public void setTargetHost(List<String> targetHost) {
+        this.targetHost = targetHost;
+    }
+
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Integer getBatchPercent() {
+        return batchPercent;
+    }
+
+    public void setBatchPercent(Integer batchPercent) {
+        this.batchPercent = batchPercent;
+    }
+}
@@ -21,6 +21,7 @@ import com.alipay.sofa.dashboard.model.ArkPluginDO;
 import com.alipay.sofa.dashboard.model.ArkPluginModel;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author: guolei.sgl (guolei.sgl@antfin.com) 18/12/19 上午11:13
@@ -35,6 +36,13 @@ public interface ArkMngService {
      */
     List<ArkPluginModel> fetchRegisteredPlugins();
 
+    /**
+     * 获取当前所有注册的 plugin 信息，同时填充关联应用（不含实例数）
+     *
+     * @return
+     */
+    List<ArkPluginModel> fetchRegisteredPluginsWithApps();
+
     /**
      * 向管控端注册插件
      *
@@ -68,6 +76,32 @@ public interface ArkMngService {
      */
     boolean deleteVersion(int mId, String version);
 
+    /**
+     * 插件是否存在
+     *
+     * @param mId
+     * @return
+     */
+    boolean existPlugin(int mId);
+
+    /**
+     * 批量增加插件版本，同一事务内完成；已存在的版本不重复添加
+     *
+     * @param mId
+     * @param versions
+     * @return 版本号 -> 是否添加
+     */
+    Map<String, Boolean> addNewVersions(int mId, List<ArkPluginModel.Version> versions);
+
+    /**
+     * 批量删除插件版本，同一事务内完成
+     *
+     * @param mId
+     * @param versions
+     * @return 版本号 -> 是否删除
+     */
+    Map<String, Boolean> deleteVersions(int mId, List<String> versions);
+
     /**
      * 删除一个模块
      * @param mId
@@ -83,6 +117,14 @@ public interface ArkMngService {
      */
     List<ArkPluginModel> fetchPluginsByName(String pluginName);
 
+    /**
+     * 通过插件名前缀查询插件
+     *
+     * @param pluginName
+     * @return
+     */
+    List<ArkPluginModel> fetchPluginsByNamePrefix(String pluginName);
+
     /**
      * 关联应用和插件
      *
@@ -92,6 +134,24 @@ public interface ArkMngService {
      */
     int relatedAppToPlugin(int moduleId, String appName);
 
+    /**
+     * 批量关联应用和插件，同一事务内完成；已关联的应用不重复关联
+     *
+     * @param moduleId
+     * @param appNames
+     * @return 应用名 -> 是否关联
+     */
+    Map<String, Boolean> relatedAppsToPlugin(int moduleId, List<String> appNames);
+
+    /**
+     * 批量取消关联应用和插件，同一事务内完成
+     *
+     * @param moduleId
+     * @param appNames
+     * @return 应用名 -> 是否取消
+     */
+    Map<String, Boolean> cancelRelatedAppsToPlugin(int moduleId, List<String> appNames);
+
     /**
      * 根据插件名查询当前插件关联的应用名
      *
@@ -109,4 +169,11 @@ public interface ArkMngService {
      */
     int cancelRelatedAppToPlugin(String pluginName, String appName);
 
+    /**
+     * 插件元数据缓存统计
+     *
+     * @return
+     */
+    Map<String, Long> fetchCacheStats();
+
 }
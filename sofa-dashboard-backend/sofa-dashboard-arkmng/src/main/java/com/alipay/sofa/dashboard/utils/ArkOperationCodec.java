@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.utils;
+
+import com.alipay.sofa.dashboard.constants.SofaDashboardConstants;
+import com.alipay.sofa.dashboard.model.ArkOperation;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ark 命令节点数据的解析、合并与序列化
+ * <p>
+ * 节点数据由多条操作记录以 ; 分隔组成，单条记录格式为 bizName:bizVersion:state?parameters。
+ * 合并只依赖节点的旧数据和新命令，不产生副作用，可在版本冲突后基于重新读取的数据反复执行。
+ **/
+public final class ArkOperationCodec {
+
+    private ArkOperationCodec() {
+    }
+
+    /**
+     * 解析节点数据
+     *
+     * @param data 节点数据，可以为空
+     * @return
+     */
+    public static List<ArkOperation> decode(String data) {
+        List<ArkOperation> arkOperations = new ArrayList<>();
+        if (StringUtils.isEmpty(data)) {
+            return arkOperations;
+        }
+        for (String info : data.split(SofaDashboardConstants.SEMICOLON)) {
+            if (StringUtils.isEmpty(info)) {
+                continue;
+            }
+            arkOperations.add(decodeOne(info));
+        }
+        return arkOperations;
+    }
+
+    /**
+     * 解析单条操作记录
+     *
+     * @param config bizName:bizVersion:state?parameters
+     * @return
+     */
+    public static ArkOperation decodeOne(String config) {
+        int idx = config.indexOf(SofaDashboardConstants.Q_MARK);
+        String parameter = (idx == -1) ? "" : config.substring(idx + 1);
+        String[] meta = (idx == -1) ? config.split(SofaDashboardConstants.COLON) : config
+            .substring(0, idx).split(SofaDashboardConstants.COLON);
+        if (meta.length < 3) {
+            throw new IllegalArgumentException("Illegal ark operation: " + config);
+        }
+        ArkOperation arkOperation = new ArkOperation();
+        arkOperation.setParameters(parameter);
+        arkOperation.setBizName(meta[0]);
+        arkOperation.setBizVersion(meta[1]);
+        arkOperation.setState(meta[2]);
+        return arkOperation;
+    }
+
+    /**
+     * 序列化为节点数据
+     *
+     * @param arkOperations
+     * @return
+     */
+    public static String encode(List<ArkOperation> arkOperations) {
+        StringBuilder sb = new StringBuilder();
+        for (ArkOperation arkOperation : arkOperations) {
+            if (sb.length() > 0) {
+                sb.append(SofaDashboardConstants.SEMICOLON);
+            }
+            sb.append(arkOperation.getBizName()).append(SofaDashboardConstants.COLON)
+                .append(arkOperation.getBizVersion()).append(SofaDashboardConstants.COLON)
+                .append(arkOperation.getState());
+            if (!StringUtils.isEmpty(arkOperation.getParameters())) {
+                sb.append(SofaDashboardConstants.Q_MARK).append(arkOperation.getParameters());
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 将命令合并到节点旧数据上，返回新的节点数据
+     *
+     * @param operation 待执行的命令
+     * @param oldData   节点旧数据
+     * @return
+     */
+    public static String merge(ArkOperation operation, String oldData) {
+        List<ArkOperation> current = decode(oldData);
+        if (SofaDashboardConstants.INSTALL.equals(operation.getCommand())) {
+            handleInstall(operation, current);
+        } else if (SofaDashboardConstants.SWITCH.equals(operation.getCommand())) {
+            handleSwitch(operation, current);
+        } else {
+            handleUninstall(operation, current);
+        }
+        return encode(current);
+    }
+
+    private static void handleInstall(ArkOperation operation, List<ArkOperation> current) {
+        String state = SofaDashboardConstants.ACTIVATED;
+        for (ArkOperation arkOperation : current) {
+            if (isSameBiz(arkOperation, operation)) {
+                return;
+            } else if (arkOperation.getBizName().equals(operation.getBizName())
+                       && SofaDashboardConstants.ACTIVATED.equals(arkOperation.getState())) {
+                state = SofaDashboardConstants.DEACTIVATED;
+            }
+        }
+        ArkOperation installed = new ArkOperation();
+        installed.setBizName(operation.getBizName());
+        installed.setBizVersion(operation.getBizVersion());
+        installed.setState(state);
+        installed.setParameters(operation.getParameters());
+        current.add(installed);
+    }
+
+    private static void handleUninstall(ArkOperation operation, List<ArkOperation> current) {
+        current.removeIf(arkOperation -> isSameBiz(arkOperation, operation));
+    }
+
+    private static void handleSwitch(ArkOperation operation, List<ArkOperation> current) {
+        for (ArkOperation arkOperation : current) {
+            if (isSameBiz(arkOperation, operation)) {
+                arkOperation.setState(SofaDashboardConstants.ACTIVATED);
+            } else if (arkOperation.getBizName().equals(operation.getBizName())) {
+                arkOperation.setState(SofaDashboardConstants.DEACTIVATED);
+            }
+        }
+    }
+
+    private static boolean isSameBiz(ArkOperation left, ArkOperation right) {
+        return left.getBizName().equals(right.getBizName())
+               && left.getBizVersion().equals(right.getBizVersion());
+    }
+}
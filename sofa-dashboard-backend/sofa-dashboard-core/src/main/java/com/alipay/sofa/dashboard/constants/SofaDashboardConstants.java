@@ -42,6 +42,7 @@ public class SofaDashboardConstants {
     public static final String DESCRIPTION                 = "description";
 
     public static final String APP                         = "app";
+    public static final String IP                          = "ip";
     public static final String CODE                        = "code";
     public static final String SUCCESS                     = "SUCCESS";
     public static final String BIZ_NAME                    = "bizName";
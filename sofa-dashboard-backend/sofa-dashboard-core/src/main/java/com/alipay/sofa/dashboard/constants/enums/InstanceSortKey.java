@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.constants.enums;
+
+/**
+ * 应用实例排序字段，相同取值时按 host、port 排序
+ **/
+public enum InstanceSortKey {
+    HOST, START_TIME, STATE;
+
+    /**
+     * 忽略大小写解析，支持 startTime 与 start_time 两种写法，无法识别时返回 HOST
+     *
+     * @param name 排序字段名
+     * @return
+     */
+    public static InstanceSortKey of(String name) {
+        if (name != null) {
+            String normalized = name.replace("_", "").replace("-", "");
+            for (InstanceSortKey key : values()) {
+                if (key.name().replace("_", "").equalsIgnoreCase(normalized)) {
+                    return key;
+                }
+            }
+        }
+        return HOST;
+    }
+}
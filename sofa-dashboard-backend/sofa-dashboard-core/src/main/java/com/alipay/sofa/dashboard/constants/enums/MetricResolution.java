@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.constants.enums;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 指标序列的时间粒度，RAW 为原始采样点，其余为按固定时间窗口预聚合的结果
+ **/
+public enum MetricResolution {
+
+    RAW("raw", 0L),
+
+    ONE_MINUTE("1m", TimeUnit.MINUTES.toMillis(1)),
+
+    TEN_MINUTES("10m", TimeUnit.MINUTES.toMillis(10));
+
+    /**
+     * 原始数据可覆盖的时间范围，超过后自动选择聚合粒度
+     */
+    private static final long RAW_RANGE    = TimeUnit.MINUTES.toMillis(30);
+
+    /**
+     * 一分钟聚合可覆盖的时间范围
+     */
+    private static final long MINUTE_RANGE = TimeUnit.HOURS.toMillis(3);
+
+    private final String      alias;
+
+    private final long        bucketMillis;
+
+    MetricResolution(String alias, long bucketMillis) {
+        this.alias = alias;
+        this.bucketMillis = bucketMillis;
+    }
+
+    public String getAlias() {
+        return alias;
+    }
+
+    /**
+     * 聚合窗口长度，RAW 返回 0
+     */
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    /**
+     * 忽略大小写解析，支持枚举名与 raw、1m、10m 简写，无法识别时返回 {@code null}
+     *
+     * @param name 粒度名称
+     * @return
+     */
+    public static MetricResolution of(String name) {
+        if (name != null) {
+            for (MetricResolution resolution : values()) {
+                if (resolution.alias.equalsIgnoreCase(name)
+                    || resolution.name().equalsIgnoreCase(name)) {
+                    return resolution;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 根据查询时间范围选择能覆盖该范围的最细粒度
+     *
+     * @param range 时间范围，单位毫秒
+     * @return
+     */
+    public static MetricResolution suggest(long range) {
+        if (range <= RAW_RANGE) {
+            return RAW;
+        }
+        return range <= MINUTE_RANGE ? ONE_MINUTE : TEN_MINUTES;
+    }
+}
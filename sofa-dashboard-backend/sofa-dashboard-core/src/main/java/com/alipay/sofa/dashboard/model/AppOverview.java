@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.model;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 应用维度的实例状态汇总：健康状态分布，以及内存、线程各字段在实例间的分位数
+ **/
+public class AppOverview implements Serializable {
+
+    private static final long        serialVersionUID   = -2184462319742367710L;
+
+    private String                   appName;
+
+    /**
+     * 参与汇总的实例数
+     */
+    private int                      instanceCount;
+
+    /**
+     * 健康状态 -> 实例数，没有健康度数据的实例计为 UNKNOWN
+     */
+    private Map<String, Integer>     healthDistribution = new LinkedHashMap<>();
+
+    /**
+     * 内存字段 -> 各实例最新值的分位数，单位 byte
+     */
+    private Map<String, Percentiles> memory             = new LinkedHashMap<>();
+
+    /**
+     * 线程字段 -> 各实例最新值的分位数
+     */
+    private Map<String, Percentiles> thread             = new LinkedHashMap<>();
+
+    /**
+     * 汇总数据最近一次变化的时间
+     */
+    private long                     updateTime;
+
+    public String getAppName() {
+        return appName;
+    }
+
+    public void setAppName(String appName) {
+        this.appName = appName;
+    }
+
+    public int getInstanceCount() {
+        return instanceCount;
+    }
+
+    public void setInstanceCount(int instanceCount) {
+        this.instanceCount = instanceCount;
+    }
+
+    public Map<String, Integer> getHealthDistribution() {
+        return healthDistribution;
+    }
+
+    public void setHealthDistribution(Map<String, Integer> healthDistribution) {
+        this.healthDistribution = healthDistribution;
+    }
+
+    public Map<String, Percentiles> getMemory() {
+        return memory;
+    }
+
+    public void setMemory(Map<String, Percentiles> memory) {
+        this.memory = memory;
+    }
+
+    public Map<String, Percentiles> getThread() {
+        return thread;
+    }
+
+    public void setThread(Map<String, Percentiles> thread) {
+        this.thread = thread;
+    }
+
+    public long getUpdateTime() {
+        return updateTime;
+    }
+
+    public void setUpdateTime(long updateTime) {
+        this.updateTime = updateTime;
+    }
+
+    public static class Percentiles implements Serializable {
+
+        private static final long serialVersionUID = 6514928875731529904L;
+
+        private long              p50;
+
+        private long              p95;
+
+        private long              max;
+
+        public Percentiles() {
+        }
+
+        public Percentiles(long p50, long p95, long max) {
+            this.p50 = p50;
+            this.p95 = p95;
+            this.max = max;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public void setP50(long p50) {
+            this.p50 = p50;
+        }
+
+        public long getP95() {
+            return p95;
+        }
+
+        public void setP95(long p95) {
+            this.p95 = p95;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public void setMax(long max) {
+            this.max = max;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.model;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * 按列存储的指标序列，用于图表展示：一个时间戳数组，每个字段一个与之等长的数值数组
+ **/
+public class ColumnarSeries implements Serializable {
+
+    private static final long   serialVersionUID = -5213794720170745512L;
+
+    /**
+     * 数据名称
+     */
+    private String              name;
+
+    /**
+     * 毫秒时间戳，升序
+     */
+    private long[]              timestamps       = new long[0];
+
+    /**
+     * 字段名 -> 各时间点取值
+     */
+    private Map<String, long[]> columns          = new LinkedHashMap<>();
+
+    /**
+     * 将按时间升序的逐条记录转换为按列存储
+     *
+     * @param name    数据名称
+     * @param records 逐条记录
+     * @param fields  字段名 -> 从描述对象中提取取值
+     * @return
+     */
+    public static <T extends Serializable> ColumnarSeries of(String name,
+                                                             List<StampedValueEntity<T>> records,
+                                                             Map<String, ToLongFunction<T>> fields) {
+        ColumnarSeries result = new ColumnarSeries();
+        result.setName(name);
+        long[] timestamps = new long[records.size()];
+        for (int i = 0; i < records.size(); i++) {
+            timestamps[i] = records.get(i).getEpochMillis();
+        }
+        result.setTimestamps(timestamps);
+        fields.forEach((field, extractor) -> {
+            long[] column = new long[records.size()];
+            for (int i = 0; i < records.size(); i++) {
+                column[i] = extractor.applyAsLong(records.get(i).getValue());
+            }
+            result.getColumns().put(field, column);
+        });
+        return result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    public void setTimestamps(long[] timestamps) {
+        this.timestamps = timestamps;
+    }
+
+    public Map<String, long[]> getColumns() {
+        return columns;
+    }
+
+    public void setColumns(Map<String, long[]> columns) {
+        this.columns = columns;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一个聚合窗口内的指标统计，每个字段记录最小值、最大值、平均值与窗口内最后一个值
+ **/
+public class MetricAggregate implements Serializable {
+
+    private static final long      serialVersionUID = 2391740157203875046L;
+
+    /**
+     * 窗口内的采样点数
+     */
+    private int                    count;
+
+    /**
+     * 字段名 -> 统计值，顺序与采集字段一致
+     */
+    private Map<String, FieldStat> fields           = new LinkedHashMap<>();
+
+    /**
+     * 将时间范围 [from, to] 内的原始采样点转换为统计序列，每个采样点视为只含一个值的窗口
+     *
+     * @param series 按列存储的原始采样点
+     * @param from   起始时间（含）
+     * @param to     结束时间（含）
+     * @return
+     */
+    public static List<StampedValueEntity<MetricAggregate>> ofSamples(ColumnarSeries series,
+                                                                      long from, long to) {
+        List<StampedValueEntity<MetricAggregate>> result = new ArrayList<>();
+        long[] timestamps = series.getTimestamps();
+        for (int i = 0; i < timestamps.length; i++) {
+            if (timestamps[i] < from || timestamps[i] > to) {
+                continue;
+            }
+            MetricAggregate aggregate = new MetricAggregate();
+            aggregate.setCount(1);
+            for (Map.Entry<String, long[]> column : series.getColumns().entrySet()) {
+                long value = column.getValue()[i];
+                aggregate.getFields().put(column.getKey(),
+                    new FieldStat(value, value, value, value));
+            }
+            StampedValueEntity<MetricAggregate> stamped = new StampedValueEntity<>();
+            stamped.setName(series.getName());
+            stamped.setEpochMillis(timestamps[i]);
+            stamped.setValue(aggregate);
+            result.add(stamped);
+        }
+        return result;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public Map<String, FieldStat> getFields() {
+        return fields;
+    }
+
+    public void setFields(Map<String, FieldStat> fields) {
+        this.fields = fields;
+    }
+
+    public static class FieldStat implements Serializable {
+
+        private static final long serialVersionUID = -4370113592260348174L;
+
+        private long              min;
+
+        private long              max;
+
+        private double            avg;
+
+        private long              last;
+
+        public FieldStat() {
+        }
+
+        public FieldStat(long min, long max, double avg, long last) {
+            this.min = min;
+            this.max = max;
+            this.avg = avg;
+            this.last = last;
+        }
+
+        public long getMin() {
+            return min;
+        }
+
+        public void setMin(long min) {
+            this.min = min;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public void setMax(long max) {
+            this.max = max;
+        }
+
+        public double getAvg() {
+            return avg;
+        }
+
+        public void setAvg(double avg) {
+            this.avg = avg;
+        }
+
+        public long getLast() {
+            return last;
+        }
+
+        public void setLast(long last) {
+            this.last = last;
+        }
+    }
+}
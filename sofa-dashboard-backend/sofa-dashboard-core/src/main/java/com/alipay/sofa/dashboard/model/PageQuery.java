@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.model;
+
+/**
+ * 分页查询参数，同时支持偏移量与游标两种方式，游标优先
+ **/
+public class PageQuery {
+
+    public static final int DEFAULT_LIMIT = 20;
+
+    public static final int MAX_LIMIT     = 1000;
+
+    /**
+     * 起始偏移量，cursor 不为空时忽略
+     */
+    private int             offset;
+
+    /**
+     * 每页条数，取值范围 [1, {@link #MAX_LIMIT}]
+     */
+    private int             limit         = DEFAULT_LIMIT;
+
+    /**
+     * 上一页返回的 nextCursor，无法解析时从第一页开始
+     */
+    private String          cursor;
+
+    /**
+     * 是否倒序
+     */
+    private boolean         descending;
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public void setOffset(int offset) {
+        this.offset = Math.max(0, offset);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public void setDescending(boolean descending) {
+        this.descending = descending;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 应用间服务依赖拓扑，边由服务消费方应用指向服务提供方应用
+ **/
+public class ServiceGraphModel {
+
+    /**
+     * 查询中心应用
+     */
+    private String     appName;
+
+    /**
+     * 实际展开深度
+     */
+    private int        depth;
+
+    private List<Node> nodes = new ArrayList<>();
+
+    private List<Edge> edges = new ArrayList<>();
+
+    public String getAppName() {
+        return appName;
+    }
+
+    public void setAppName(String appName) {
+        this.appName = appName;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    public void setNodes(List<Node> nodes) {
+        this.nodes = nodes;
+    }
+
+    public List<Edge> getEdges() {
+        return edges;
+    }
+
+    public void setEdges(List<Edge> edges) {
+        this.edges = edges;
+    }
+
+    /**
+     * 拓扑节点，即应用
+     */
+    public static class Node {
+
+        private String appName;
+
+        /**
+         * 距离中心应用的跳数
+         */
+        private int    distance;
+
+        public String getAppName() {
+            return appName;
+        }
+
+        public void setAppName(String appName) {
+            this.appName = appName;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+
+        public void setDistance(int distance) {
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * 拓扑边，权重为消费方应用中引用这些服务的实例数之和
+     */
+    public static class Edge {
+
+        private String       consumerApp;
+
+        private String       providerApp;
+
+        private List<String> services;
+
+        private int          weight;
+
+        public String getConsumerApp() {
+            return consumerApp;
+        }
+
+        public void setConsumerApp(String consumerApp) {
+            this.consumerApp = consumerApp;
+        }
+
+        public String getProviderApp() {
+            return providerApp;
+        }
+
+        public void setProviderApp(String providerApp) {
+            this.providerApp = providerApp;
+        }
+
+        public List<String> getServices() {
+            return services;
+        }
+
+        public void setServices(List<String> services) {
+            this.services = services;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+    }
+}
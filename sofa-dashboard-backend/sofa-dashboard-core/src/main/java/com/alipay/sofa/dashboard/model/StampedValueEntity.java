@@ -16,6 +16,9 @@
  */
 package com.alipay.sofa.dashboard.model;
 
+import com.alipay.sofa.dashboard.utils.DateFormatUtils;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.io.Serializable;
 
 /**
@@ -32,6 +35,12 @@ public class StampedValueEntity<T extends Serializable> implements Serializable
      */
     private String           timestamp;
 
+    /**
+     * 毫秒时间戳，timestamp 由 {@link #formatTimestamp()} 根据它生成
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long             epochMillis;
+
     /**
      * 数据名称
      */
@@ -50,6 +59,23 @@ public class StampedValueEntity<T extends Serializable> implements Serializable
         this.timestamp = timestamp;
     }
 
+    public Long getEpochMillis() {
+        return epochMillis;
+    }
+
+    public void setEpochMillis(Long epochMillis) {
+        this.epochMillis = epochMillis;
+    }
+
+    /**
+     * 根据 epochMillis 生成格式化的 timestamp，epochMillis 为空时不做修改
+     */
+    public void formatTimestamp() {
+        if (epochMillis != null) {
+            this.timestamp = DateFormatUtils.format(epochMillis);
+        }
+    }
+
     public String getName() {
         return name;
     }
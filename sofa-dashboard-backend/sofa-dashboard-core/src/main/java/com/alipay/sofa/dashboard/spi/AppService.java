@@ -17,7 +17,10 @@
 package com.alipay.sofa.dashboard.spi;
 
 import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.constants.enums.InstanceSortKey;
 import com.alipay.sofa.dashboard.model.ApplicationInfo;
+import com.alipay.sofa.dashboard.model.PageQuery;
+import com.alipay.sofa.dashboard.model.PageResult;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 
@@ -33,7 +36,7 @@ public interface AppService {
     /**
      * 获取全部应用统计信息
      *
-     * @return 全部应用统计信息，如果没有实例则返回空列表
+     * @return 全部应用统计信息（只读），如果没有实例则返回空列表
      */
     @NonNull
     List<ApplicationInfo> getAllStatistics();
@@ -42,7 +45,7 @@ public interface AppService {
      * 获取包含关键词的应用统计信息
      *
      * @param keyword 关键词，如果为空，则返回全部统计信息
-     * @return 满足条件应用统计信息，如果没有实例则返回空列表
+     * @return 满足条件应用统计信息（只读），如果没有实例则返回空列表
      */
     @NonNull
     List<ApplicationInfo> getStatisticsByKeyword(@Nullable String keyword);
@@ -50,7 +53,7 @@ public interface AppService {
     /**
      * 获取全部应用实例信息
      *
-     * @return 全部应用实例信息, 如果没有实例则返回空列表
+     * @return 全部应用实例信息（只读）, 如果没有实例则返回空列表
      */
     @NonNull
     List<Application> getAllInstances();
@@ -59,8 +62,31 @@ public interface AppService {
      * 获取服务名匹配的全部实例信息, 如果查询名为空，则返回全部实例信息
      *
      * @param serviceName 服务名称
-     * @return 满足条件应用实例信息，如果没有实例则返回空列表
+     * @return 满足条件应用实例信息（只读），如果没有实例则返回空列表
      */
     @NonNull
     List<Application> getInstancesByName(@Nullable String serviceName);
+
+    /**
+     * 分页获取包含关键词的应用统计信息，按应用名排序
+     *
+     * @param keyword 关键词，如果为空，则分页返回全部统计信息
+     * @param query   分页参数
+     * @return 当前页的统计信息
+     */
+    @NonNull
+    PageResult<ApplicationInfo> getStatisticsPage(@Nullable String keyword, @NonNull PageQuery query);
+
+    /**
+     * 分页获取应用的实例信息
+     *
+     * @param appName 应用名称
+     * @param sortKey 排序字段
+     * @param query   分页参数
+     * @return 当前页的实例信息，应用不存在时返回空页
+     */
+    @NonNull
+    PageResult<Application> getInstancesPage(@NonNull String appName,
+                                             @NonNull InstanceSortKey sortKey,
+                                             @NonNull PageQuery query);
 }
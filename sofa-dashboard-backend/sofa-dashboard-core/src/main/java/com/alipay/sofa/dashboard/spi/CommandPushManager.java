@@ -16,8 +16,14 @@
  */
 package com.alipay.sofa.dashboard.spi;
 
+import com.alipay.sofa.dashboard.model.CommandPushResult;
 import com.alipay.sofa.dashboard.model.CommandRequest;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 /**
  * CommandPushManager can be extended by any other external user to implement push of ark commands,
  * such as zookeeper-based push by default, or you can implement it based on Apollo.
@@ -33,4 +39,45 @@ public interface CommandPushManager {
      * @param command
      */
     void pushCommand(CommandRequest command);
+
+    /**
+     * 异步推送命令，每个目标完成时回调 listener，全部完成后 future 返回所有结果。
+     * 默认实现同步调用 {@link #pushCommand(CommandRequest)}，整体成功或失败
+     *
+     * @param command
+     * @param listener 单个目标推送完成回调
+     * @return
+     */
+    default CompletableFuture<List<CommandPushResult>> pushCommandAsync(CommandRequest command,
+                                                                        Consumer<CommandPushResult> listener) {
+        boolean success = true;
+        String message = "";
+        try {
+            pushCommand(command);
+        } catch (Exception e) {
+            success = false;
+            message = String.valueOf(e.getMessage());
+        }
+        List<CommandPushResult> results = new ArrayList<>();
+        if (command.getTargetHost() == null || command.getTargetHost().isEmpty()) {
+            results.add(new CommandPushResult(null, success, message));
+        } else {
+            for (String host : command.getTargetHost()) {
+                results.add(new CommandPushResult(host, success, message));
+            }
+        }
+        results.forEach(listener);
+        return CompletableFuture.completedFuture(results);
+    }
+
+    /**
+     * 推送命令并等待全部目标完成，返回每个目标的推送结果。
+     * 默认等待 {@link #pushCommandAsync(CommandRequest, Consumer)} 完成，等待时长由实现控制
+     *
+     * @param command
+     * @return
+     */
+    default List<CommandPushResult> pushCommandAndWait(CommandRequest command) {
+        return pushCommandAsync(command, result -> {}).join();
+    }
 }
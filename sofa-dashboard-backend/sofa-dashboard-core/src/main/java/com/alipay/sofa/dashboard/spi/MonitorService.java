@@ -20,15 +20,26 @@ import com.alipay.sofa.dashboard.client.model.common.HostAndPort;
 import com.alipay.sofa.dashboard.client.model.env.EnvironmentDescriptor;
 import com.alipay.sofa.dashboard.client.model.health.HealthDescriptor;
 import com.alipay.sofa.dashboard.client.model.info.InfoDescriptor;
+import com.alipay.sofa.dashboard.client.model.io.RecordName;
 import com.alipay.sofa.dashboard.client.model.logger.LoggersDescriptor;
 import com.alipay.sofa.dashboard.client.model.mappings.MappingsDescriptor;
 import com.alipay.sofa.dashboard.client.model.memory.MemoryDescriptor;
 import com.alipay.sofa.dashboard.client.model.thread.ThreadSummaryDescriptor;
+import com.alipay.sofa.dashboard.constants.enums.MetricResolution;
+import com.alipay.sofa.dashboard.model.AppOverview;
+import com.alipay.sofa.dashboard.model.ColumnarSeries;
+import com.alipay.sofa.dashboard.model.MetricAggregate;
 import com.alipay.sofa.dashboard.model.StampedValueEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
 
 /**
  * 应用实例统计面板信息
@@ -82,11 +93,64 @@ public interface MonitorService {
     @Nullable
     MappingsDescriptor fetchMappings(@NonNull HostAndPort hostAndPort);
 
+    /**
+     * 批量获取多个实例的最新记录，默认逐个调用单实例查询，实现类可并行查询.
+     *
+     * @param instances   实例地址列表
+     * @param recordNames 记录名，取值见 RecordName
+     * @return 实例地址 -> (记录名 -> 描述对象)，无数据或查询失败的记录不出现在结果中
+     */
+    @NonNull
+    default Map<HostAndPort, Map<String, Object>> fetchLatest(@NonNull Collection<HostAndPort> instances,
+                                                              @NonNull Collection<String> recordNames) {
+        Map<HostAndPort, Map<String, Object>> result = new LinkedHashMap<>();
+        for (HostAndPort hostAndPort : instances) {
+            Map<String, Object> records = new HashMap<>(recordNames.size());
+            for (String recordName : recordNames) {
+                Object descriptor = fetchLatest(hostAndPort, recordName);
+                if (descriptor != null) {
+                    records.put(recordName, descriptor);
+                }
+            }
+            if (!records.isEmpty()) {
+                result.put(hostAndPort, records);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 批量获取多个实例的健康度信息.
+     *
+     * @param instances 实例地址列表
+     * @return 实例地址 -> 健康度信息，无数据的实例不出现在结果中
+     */
+    @NonNull
+    default Map<HostAndPort, HealthDescriptor> fetchHealth(@NonNull Collection<HostAndPort> instances) {
+        Map<HostAndPort, HealthDescriptor> result = new LinkedHashMap<>();
+        fetchLatest(instances, Collections.singletonList(RecordName.HEALTH)).forEach(
+            (hostAndPort, records) -> result.put(hostAndPort,
+                (HealthDescriptor) records.get(RecordName.HEALTH)));
+        return result;
+    }
+
+    /**
+     * 获取应用维度的汇总信息，由后台采集的最新数据增量维护，查询时不访问存储.
+     * 默认实现不做汇总，始终返回{@code null}.
+     *
+     * @param appName 应用名
+     * @return 汇总信息，应用没有采集数据时返回{@code null}
+     */
+    @Nullable
+    default AppOverview fetchAppOverview(@NonNull String appName) {
+        return null;
+    }
+
     /**
      * 获取过去一段时间的线程概况统计信息(按照时间升序排序).
      *
      * @param hostAndPort 实例地址
-     * @return 线程概况统计信息, 如果数据为空则返回空列表
+     * @return 线程概况统计信息, 如果数据为空则返回空列表，记录只带 epochMillis
      */
     @NonNull
     List<StampedValueEntity<ThreadSummaryDescriptor>> fetchThreadInfo(@NonNull HostAndPort hostAndPort);
@@ -95,9 +159,108 @@ public interface MonitorService {
      * 获取过去一段时间的内存概况统计信息(按照时间升序排序).
      *
      * @param hostAndPort 实例地址
-     * @return 内存概况统计信息，如果数据为空则返回空列表
+     * @return 内存概况统计信息，如果数据为空则返回空列表，记录只带 epochMillis
      */
     @NonNull
     List<StampedValueEntity<MemoryDescriptor>> fetchMemoryInfo(@NonNull HostAndPort hostAndPort);
 
+    /**
+     * 以列存储格式获取过去一段时间的内存概况，时间范围与{@link #fetchMemoryInfo(HostAndPort)}一致.
+     * 默认由{@link #fetchMemoryInfo(HostAndPort)}的结果转换，实现类可直接读取列存储数据.
+     *
+     * @param hostAndPort 实例地址
+     * @return 内存概况序列，如果数据为空则各数组为空
+     */
+    @NonNull
+    default ColumnarSeries fetchMemoryColumns(@NonNull HostAndPort hostAndPort) {
+        Map<String, ToLongFunction<MemoryDescriptor>> fields = new LinkedHashMap<>();
+        fields.put("heapSize", it -> it.getHeap() == null ? 0L : it.getHeap().getSize());
+        fields.put("heapUsed", it -> it.getHeap() == null ? 0L : it.getHeap().getUsed());
+        fields.put("nonHeapSize", it -> it.getNonHeap() == null ? 0L : it.getNonHeap().getSize());
+        fields.put("nonHeapUsed", it -> it.getNonHeap() == null ? 0L : it.getNonHeap().getUsed());
+        fields.put("metaspace", it -> it.getNonHeap() == null ? 0L : it.getNonHeap()
+            .getMetaspace());
+        return ColumnarSeries.of(RecordName.MEMORY, fetchMemoryInfo(hostAndPort), fields);
+    }
+
+    /**
+     * 以列存储格式获取过去一段时间的线程概况，时间范围与{@link #fetchThreadInfo(HostAndPort)}一致.
+     * 默认由{@link #fetchThreadInfo(HostAndPort)}的结果转换，实现类可直接读取列存储数据.
+     *
+     * @param hostAndPort 实例地址
+     * @return 线程概况序列，如果数据为空则各数组为空
+     */
+    @NonNull
+    default ColumnarSeries fetchThreadColumns(@NonNull HostAndPort hostAndPort) {
+        Map<String, ToLongFunction<ThreadSummaryDescriptor>> fields = new LinkedHashMap<>();
+        fields.put("live", ThreadSummaryDescriptor::getLive);
+        fields.put("daemon", ThreadSummaryDescriptor::getDaemon);
+        fields.put("peak", ThreadSummaryDescriptor::getPeak);
+        return ColumnarSeries.of(RecordName.THREAD_SUMMARY, fetchThreadInfo(hostAndPort), fields);
+    }
+
+    /**
+     * 获取指定时间范围内的内存概况序列(按照时间升序排序)，非 RAW 粒度返回预聚合结果.
+     * 默认实现没有预聚合数据，忽略粒度，返回{@link #fetchMemoryColumns(HostAndPort)}中落在时间范围内的原始采样点.
+     *
+     * @param hostAndPort 实例地址
+     * @param from        起始时间(含)，单位毫秒
+     * @param to          结束时间(含)，单位毫秒
+     * @param resolution  时间粒度，为{@code null}时根据时间范围自动选择
+     * @return 每个时间点(聚合窗口起始时间)的统计值, 如果数据为空则返回空列表，记录只带 epochMillis
+     */
+    @NonNull
+    default List<StampedValueEntity<MetricAggregate>> fetchMemoryInfo(@NonNull HostAndPort hostAndPort,
+                                                                      long from, long to,
+                                                                      @Nullable MetricResolution resolution) {
+        return MetricAggregate.ofSamples(fetchMemoryColumns(hostAndPort), from, to);
+    }
+
+    /**
+     * 获取指定时间范围内的线程概况序列(按照时间升序排序)，非 RAW 粒度返回预聚合结果.
+     * 默认实现没有预聚合数据，忽略粒度，返回{@link #fetchThreadColumns(HostAndPort)}中落在时间范围内的原始采样点.
+     *
+     * @param hostAndPort 实例地址
+     * @param from        起始时间(含)，单位毫秒
+     * @param to          结束时间(含)，单位毫秒
+     * @param resolution  时间粒度，为{@code null}时根据时间范围自动选择
+     * @return 每个时间点(聚合窗口起始时间)的统计值, 如果数据为空则返回空列表，记录只带 epochMillis
+     */
+    @NonNull
+    default List<StampedValueEntity<MetricAggregate>> fetchThreadInfo(@NonNull HostAndPort hostAndPort,
+                                                                      long from, long to,
+                                                                      @Nullable MetricResolution resolution) {
+        return MetricAggregate.ofSamples(fetchThreadColumns(hostAndPort), from, to);
+    }
+
+    /**
+     * 通过单实例查询获取一条最新记录，供批量查询的默认实现使用.
+     *
+     * @param hostAndPort 实例地址
+     * @param recordName  记录名，取值见 RecordName
+     * @return 描述对象，如果无数据则返回{@code null}
+     */
+    @Nullable
+    default Object fetchLatest(@NonNull HostAndPort hostAndPort, @NonNull String recordName) {
+        switch (recordName) {
+            case RecordName.ENVIRONMENT:
+                return fetchEnvironment(hostAndPort);
+            case RecordName.HEALTH:
+                return fetchHealth(hostAndPort);
+            case RecordName.INFO:
+                return fetchInfo(hostAndPort);
+            case RecordName.LOGGERS:
+                return fetchLoggers(hostAndPort);
+            case RecordName.MAPPINGS:
+                return fetchMappings(hostAndPort);
+            case RecordName.MEMORY:
+                List<StampedValueEntity<MemoryDescriptor>> memory = fetchMemoryInfo(hostAndPort);
+                return memory.isEmpty() ? null : memory.get(memory.size() - 1).getValue();
+            case RecordName.THREAD_SUMMARY:
+                List<StampedValueEntity<ThreadSummaryDescriptor>> thread = fetchThreadInfo(hostAndPort);
+                return thread.isEmpty() ? null : thread.get(thread.size() - 1).getValue();
+            default:
+                throw new IllegalArgumentException("Unsupported record name: " + recordName);
+        }
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.utils;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 时间格式化工具，统一使用 yyyy-MM-dd HH:mm:ss 格式
+ * <p>
+ * DateTimeFormatter 不可变且线程安全，可全局共享。格式精确到秒，最近格式化过的秒级时间戳缓存在定长数组中，
+ * 曲线数据中相邻的采样点命中缓存时不再重复格式化。缓存条目不可变，并发覆盖只会导致重新格式化，不影响正确性。
+ **/
+public final class DateFormatUtils {
+
+    public static final String             PATTERN    = "yyyy-MM-dd HH:mm:ss";
+
+    private static final DateTimeFormatter FORMATTER  = DateTimeFormatter.ofPattern(PATTERN)
+                                                          .withZone(ZoneId.systemDefault());
+
+    /**
+     * 缓存槽数，需为 2 的幂
+     */
+    private static final int               CACHE_SIZE = 4096;
+
+    private static final Entry[]           CACHE      = new Entry[CACHE_SIZE];
+
+    private DateFormatUtils() {
+    }
+
+    /**
+     * 格式化毫秒时间戳
+     *
+     * @param epochMillis 毫秒时间戳
+     * @return
+     */
+    public static String format(long epochMillis) {
+        long epochSecond = Math.floorDiv(epochMillis, 1000L);
+        int slot = (int) (epochSecond & (CACHE_SIZE - 1));
+        Entry entry = CACHE[slot];
+        if (entry != null && entry.epochSecond == epochSecond) {
+            return entry.text;
+        }
+        String text = FORMATTER.format(Instant.ofEpochSecond(epochSecond));
+        CACHE[slot] = new Entry(epochSecond, text);
+        return text;
+    }
+
+    private static final class Entry {
+
+        private final long   epochSecond;
+
+        private final String text;
+
+        Entry(long epochSecond, String text) {
+            this.epochSecond = epochSecond;
+            this.text = text;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import com.alipay.sofa.dashboard.domain.RpcProvider;
 import com.alipay.sofa.dashboard.domain.RpcService;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -112,7 +113,7 @@ public interface RegistryDataCache {
     /**
      * 获取 RpcService
      *
-     * @return
+     * @return 服务名 -> 服务（只读）
      */
     default Map<String, RpcService> fetchService() {
         return new HashMap<>();
@@ -122,7 +123,7 @@ public interface RegistryDataCache {
      * 获取 Providers
      *
      * @param serviceName 服务名
-     * @return
+     * @return 服务提供方列表（只读）
      */
     default List<RpcProvider> fetchProvidersByService(String serviceName) {
         return new ArrayList<>();
@@ -132,9 +133,27 @@ public interface RegistryDataCache {
      * 获取 Consumers
      *
      * @param serviceName 服务名
-     * @return
+     * @return 服务消费方列表（只读）
      */
     default List<RpcConsumer> fetchConsumersByService(String serviceName) {
         return new ArrayList<>();
     }
-}
\ No newline at end of file
+
+    /**
+     * 批量获取多个服务的 providers 与 consumers，结果为同一时刻的一致性快照
+     *
+     * @param serviceNames 服务名列表
+     * @return
+     */
+    default RegistryDataSnapshot fetchSnapshot(Collection<String> serviceNames) {
+        RegistryDataSnapshot snapshot = new RegistryDataSnapshot();
+        if (serviceNames == null) {
+            return snapshot;
+        }
+        for (String serviceName : serviceNames) {
+            snapshot.put(serviceName, fetchProvidersByService(serviceName),
+                fetchConsumersByService(serviceName));
+        }
+        return snapshot;
+    }
+}
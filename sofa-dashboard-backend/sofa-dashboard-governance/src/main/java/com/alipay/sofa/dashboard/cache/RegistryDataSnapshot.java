@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.cache;
+
+import com.alipay.sofa.dashboard.domain.RpcConsumer;
+import com.alipay.sofa.dashboard.domain.RpcProvider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 多个服务 providers/consumers 的只读快照，按服务名的请求顺序保存
+ **/
+public class RegistryDataSnapshot {
+
+    private final Map<String, List<RpcProvider>> providers = new LinkedHashMap<>();
+
+    private final Map<String, List<RpcConsumer>> consumers = new LinkedHashMap<>();
+
+    void put(String serviceName, List<RpcProvider> providerList, List<RpcConsumer> consumerList) {
+        providers.put(serviceName, copyOf(providerList));
+        consumers.put(serviceName, copyOf(consumerList));
+    }
+
+    public Set<String> getServiceNames() {
+        return Collections.unmodifiableSet(providers.keySet());
+    }
+
+    public List<RpcProvider> getProviders(String serviceName) {
+        return providers.getOrDefault(serviceName, Collections.emptyList());
+    }
+
+    public List<RpcConsumer> getConsumers(String serviceName) {
+        return consumers.getOrDefault(serviceName, Collections.emptyList());
+    }
+
+    private static <T> List<T> copyOf(List<T> list) {
+        return list == null || list.isEmpty() ? Collections.emptyList() : Collections
+            .unmodifiableList(new ArrayList<>(list));
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.cache;
+
+import com.alipay.sofa.dashboard.domain.RpcConsumer;
+import com.alipay.sofa.dashboard.domain.RpcProvider;
+import com.alipay.sofa.dashboard.model.ServiceGraphModel;
+import com.alipay.sofa.rpc.common.utils.StringUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * 应用间服务依赖图
+ * <p>
+ * 由 {@link RegistryDataCache} 在服务提供方/消费方变更时按服务增量维护：每次只对比变更服务下各应用的实例数，
+ * 并调整与之相关的边，不做全量的应用两两扫描。边权重为消费方应用中引用该提供方应用服务的实例数之和。
+ **/
+public class ServiceDependencyGraph {
+
+    /**
+     * 邻域查询允许的最大深度
+     */
+    public static final int                         MAX_DEPTH     = 5;
+
+    private final ReadWriteLock                     lock          = new ReentrantReadWriteLock();
+
+    /**
+     * serviceName -> (appName -> 提供方实例数)
+     */
+    private final Map<String, Map<String, Integer>> providerApps  = new HashMap<>();
+
+    /**
+     * serviceName -> (appName -> 消费方实例数)
+     */
+    private final Map<String, Map<String, Integer>> consumerApps  = new HashMap<>();
+
+    /**
+     * consumerApp -> (providerApp -> edge)
+     */
+    private final Map<String, Map<String, Edge>>    outgoingEdges = new HashMap<>();
+
+    /**
+     * providerApp -> (consumerApp -> edge)
+     */
+    private final Map<String, Map<String, Edge>>    incomingEdges = new HashMap<>();
+
+    /**
+     * 以服务当前的全部提供方刷新依赖图
+     *
+     * @param serviceName 服务名
+     * @param providers   该服务当前的全部提供方
+     */
+    public void updateProviders(String serviceName, Collection<RpcProvider> providers) {
+        if (StringUtils.isBlank(serviceName)) {
+            return;
+        }
+        Map<String, Integer> current = countByApp(providers, RpcProvider::getAppName);
+        lock.writeLock().lock();
+        try {
+            Map<String, Integer> previous = replace(providerApps, serviceName, current);
+            Map<String, Integer> consumers = consumerApps.getOrDefault(serviceName,
+                Collections.emptyMap());
+            for (String providerApp : previous.keySet()) {
+                if (!current.containsKey(providerApp)) {
+                    for (String consumerApp : consumers.keySet()) {
+                        updateEdge(consumerApp, providerApp, serviceName, 0);
+                    }
+                }
+            }
+            for (String providerApp : current.keySet()) {
+                if (!previous.containsKey(providerApp)) {
+                    for (Map.Entry<String, Integer> consumer : consumers.entrySet()) {
+                        updateEdge(consumer.getKey(), providerApp, serviceName,
+                            consumer.getValue());
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 以服务当前的全部消费方刷新依赖图
+     *
+     * @param serviceName 服务名
+     * @param consumers   该服务当前的全部消费方
+     */
+    public void updateConsumers(String serviceName, Collection<RpcConsumer> consumers) {
+        if (StringUtils.isBlank(serviceName)) {
+            return;
+        }
+        Map<String, Integer> current = countByApp(consumers, RpcConsumer::getAppName);
+        lock.writeLock().lock();
+        try {
+            Map<String, Integer> previous = replace(consumerApps, serviceName, current);
+            Set<String> providers = providerApps.getOrDefault(serviceName,
+                Collections.emptyMap()).keySet();
+            Set<String> changedApps = new HashSet<>(previous.keySet());
+            changedApps.addAll(current.keySet());
+            for (String consumerApp : changedApps) {
+                int count = current.getOrDefault(consumerApp, 0);
+                if (count == previous.getOrDefault(consumerApp, 0)) {
+                    continue;
+                }
+                for (String providerApp : providers) {
+                    updateEdge(consumerApp, providerApp, serviceName, count);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 服务下线，移除该服务贡献的所有边
+     *
+     * @param serviceName 服务名
+     */
+    public void removeService(String serviceName) {
+        updateProviders(serviceName, Collections.emptyList());
+        updateConsumers(serviceName, Collections.emptyList());
+    }
+
+    /**
+     * 查询应用在给定深度内的上下游依赖，沿调用与被调用两个方向展开
+     *
+     * @param appName 中心应用
+     * @param depth   展开深度，取值范围 [1, {@link #MAX_DEPTH}]
+     * @return 邻域子图
+     */
+    public ServiceGraphModel neighborhood(String appName, int depth) {
+        int maxDepth = Math.max(1, Math.min(depth, MAX_DEPTH));
+        ServiceGraphModel result = new ServiceGraphModel();
+        result.setAppName(appName);
+        result.setDepth(maxDepth);
+        if (StringUtils.isBlank(appName)) {
+            return result;
+        }
+
+        Map<String, Integer> distances = new LinkedHashMap<>();
+        Set<Edge> edges = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        distances.put(appName, 0);
+        queue.add(appName);
+
+        lock.readLock().lock();
+        try {
+            while (!queue.isEmpty()) {
+                String app = queue.poll();
+                int distance = distances.get(app);
+                if (distance >= maxDepth) {
+                    continue;
+                }
+                expand(outgoingEdges.get(app), distance + 1, distances, edges, queue);
+                expand(incomingEdges.get(app), distance + 1, distances, edges, queue);
+            }
+            for (Map.Entry<String, Integer> entry : distances.entrySet()) {
+                ServiceGraphModel.Node node = new ServiceGraphModel.Node();
+                node.setAppName(entry.getKey());
+                node.setDistance(entry.getValue());
+                result.getNodes().add(node);
+            }
+            for (Edge edge : edges) {
+                result.getEdges().add(edge.toModel());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private void expand(Map<String, Edge> adjacent, int distance, Map<String, Integer> distances,
+                        Set<Edge> edges, Deque<String> queue) {
+        if (adjacent == null) {
+            return;
+        }
+        for (Map.Entry<String, Edge> entry : adjacent.entrySet()) {
+            edges.add(entry.getValue());
+            if (!distances.containsKey(entry.getKey())) {
+                distances.put(entry.getKey(), distance);
+                queue.add(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * 设置某个服务在 consumerApp -> providerApp 边上贡献的权重，为 0 时移除该服务，边上无服务时移除该边
+     */
+    private void updateEdge(String consumerApp, String providerApp, String serviceName,
+                            int weight) {
+        Map<String, Edge> outgoing = outgoingEdges.get(consumerApp);
+        Edge edge = outgoing == null ? null : outgoing.get(providerApp);
+        if (weight <= 0) {
+            if (edge == null) {
+                return;
+            }
+            edge.remove(serviceName);
+            if (edge.isEmpty()) {
+                removeAdjacent(outgoingEdges, consumerApp, providerApp);
+                removeAdjacent(incomingEdges, providerApp, consumerApp);
+            }
+            return;
+        }
+        if (edge == null) {
+            edge = new Edge(consumerApp, providerApp);
+            outgoingEdges.computeIfAbsent(consumerApp, key -> new HashMap<>()).put(providerApp, edge);
+            incomingEdges.computeIfAbsent(providerApp, key -> new HashMap<>()).put(consumerApp, edge);
+        }
+        edge.put(serviceName, weight);
+    }
+
+    private static void removeAdjacent(Map<String, Map<String, Edge>> adjacency, String from,
+                                       String to) {
+        Map<String, Edge> adjacent = adjacency.get(from);
+        if (adjacent != null) {
+            adjacent.remove(to);
+            if (adjacent.isEmpty()) {
+                adjacency.remove(from);
+            }
+        }
+    }
+
+    private static Map<String, Integer> replace(Map<String, Map<String, Integer>> index,
+                                                String serviceName, Map<String, Integer> current) {
+        Map<String, Integer> previous = current.isEmpty() ? index.remove(serviceName) : index.put(
+            serviceName, current);
+        return previous == null ? Collections.emptyMap() : previous;
+    }
+
+    private static <T> Map<String, Integer> countByApp(Collection<T> instances,
+                                                       Function<T, String> appName) {
+        Map<String, Integer> counts = new HashMap<>();
+        if (instances == null) {
+            return counts;
+        }
+        for (T instance : instances) {
+            String app = instance == null ? null : appName.apply(instance);
+            if (StringUtils.isNotBlank(app)) {
+                counts.merge(app, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 应用间的一条依赖边，记录每个服务贡献的权重
+     */
+    private static class Edge {
+
+        private final String               consumerApp;
+
+        private final String               providerApp;
+
+        private final Map<String, Integer> services = new TreeMap<>();
+
+        private int                        weight;
+
+        Edge(String consumerApp, String providerApp) {
+            this.consumerApp = consumerApp;
+            this.providerApp = providerApp;
+        }
+
+        void put(String serviceName, int serviceWeight) {
+            Integer previous = services.put(serviceName, serviceWeight);
+            weight += serviceWeight - (previous == null ? 0 : previous);
+        }
+
+        void remove(String serviceName) {
+            Integer previous = services.remove(serviceName);
+            if (previous != null) {
+                weight -= previous;
+            }
+        }
+
+        boolean isEmpty() {
+            return services.isEmpty();
+        }
+
+        ServiceGraphModel.Edge toModel() {
+            ServiceGraphModel.Edge model = new ServiceGraphModel.Edge();
+            model.setConsumerApp(consumerApp);
+            model.setProviderApp(providerApp);
+            model.setServices(new ArrayList<>(services.keySet()));
+            model.setWeight(weight);
+            return model;
+        }
+    }
+}
@@ -22,9 +22,12 @@ import com.alipay.sofa.dashboard.domain.RpcService;
 import com.alipay.sofa.rpc.common.utils.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * @author: guolei.sgl (guolei.sgl@antfin.com) 2019/5/23 10:52 AM
@@ -36,6 +39,14 @@ public class SofaRegistryDataCacheImpl implements RegistryDataCache {
     private Map<String, List<RpcConsumer>> consumerMap = new ConcurrentHashMap<>();
     private Map<String, List<RpcProvider>> providerMap = new ConcurrentHashMap<>();
 
+    private final ServiceDependencyGraph   dependencyGraph;
+
+    private final ReadWriteLock            lock        = new ReentrantReadWriteLock();
+
+    public SofaRegistryDataCacheImpl(ServiceDependencyGraph dependencyGraph) {
+        this.dependencyGraph = dependencyGraph;
+    }
+
     @Override
     public Map<String, RpcService> fetchService() {
         return serviceMap;
@@ -67,22 +78,49 @@ public class SofaRegistryDataCacheImpl implements RegistryDataCache {
 
     @Override
     public void addProviders(String serviceName, List<RpcProvider> providerList) {
-        if (StringUtils.isNotBlank(serviceName) && providerList != null) {
-            providerMap.put(serviceName, providerList);
+        lock.writeLock().lock();
+        try {
+            if (StringUtils.isNotBlank(serviceName) && providerList != null) {
+                providerMap.put(serviceName, providerList);
+                dependencyGraph.updateProviders(serviceName, providerList);
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
     @Override
     public void addConsumers(String serviceName, List<RpcConsumer> consumerList) {
-        if (StringUtils.isNotBlank(serviceName) && consumerList != null) {
-            consumerMap.put(serviceName, consumerList);
+        lock.writeLock().lock();
+        try {
+            if (StringUtils.isNotBlank(serviceName) && consumerList != null) {
+                consumerMap.put(serviceName, consumerList);
+                dependencyGraph.updateConsumers(serviceName, consumerList);
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
     @Override
     public void addService(List<RpcService> rpcServices) {
-        for (RpcService rpcService : rpcServices) {
-            serviceMap.put(rpcService.getServiceName(), rpcService);
+        lock.writeLock().lock();
+        try {
+            for (RpcService rpcService : rpcServices) {
+                serviceMap.put(rpcService.getServiceName(), rpcService);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public RegistryDataSnapshot fetchSnapshot(Collection<String> serviceNames) {
+        lock.readLock().lock();
+        try {
+            return RegistryDataCache.super.fetchSnapshot(serviceNames);
+        } finally {
+            lock.readLock().unlock();
         }
     }
 }
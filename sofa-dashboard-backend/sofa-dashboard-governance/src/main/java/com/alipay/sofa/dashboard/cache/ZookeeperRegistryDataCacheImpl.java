@@ -19,15 +19,19 @@ package com.alipay.sofa.dashboard.cache;
 import com.alipay.sofa.dashboard.domain.RpcConsumer;
 import com.alipay.sofa.dashboard.domain.RpcProvider;
 import com.alipay.sofa.dashboard.domain.RpcService;
-import com.alipay.sofa.rpc.common.utils.CommonUtils;
 import com.alipay.sofa.rpc.common.utils.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * @author bystander
@@ -38,85 +42,139 @@ public class ZookeeperRegistryDataCacheImpl implements RegistryDataCache {
     private static final Logger                LOGGER    = LoggerFactory
                                                              .getLogger(ZookeeperRegistryDataCacheImpl.class);
 
-    private Map<String, RpcService>            services  = new ConcurrentHashMap<>();
+    /**
+     * 写时复制：每次写入发布新的只读 Map，读取直接返回当前引用
+     */
+    private volatile Map<String, RpcService>   services  = Collections.emptyMap();
 
+    /**
+     * 列表均为只读，写入时整体替换
+     */
     private Map<RpcService, List<RpcProvider>> providers = new ConcurrentHashMap<>();
 
     private Map<RpcService, List<RpcConsumer>> consumers = new ConcurrentHashMap<>();
 
+    private final ServiceDependencyGraph       dependencyGraph;
+
+    /**
+     * 写操作持有写锁并发布新的只读数据，快照读取持有读锁，保证批量查询看到的是同一时刻的数据
+     */
+    private final ReadWriteLock                lock      = new ReentrantReadWriteLock();
+
+    public ZookeeperRegistryDataCacheImpl(ServiceDependencyGraph dependencyGraph) {
+        this.dependencyGraph = dependencyGraph;
+    }
+
     @Override
     public void addProviders(String serviceName, List<RpcProvider> providerList) {
+        lock.writeLock().lock();
+        try {
+            RpcService rpcService = services.get(serviceName);
 
-        RpcService rpcService = services.get(serviceName);
-
-        if (rpcService == null) {
-            LOGGER.warn("receive provider registry data add, but service name is not exist now,{}",
-                serviceName);
-            return;
-        }
+            if (rpcService == null) {
+                LOGGER.warn(
+                    "receive provider registry data add, but service name is not exist now,{}",
+                    serviceName);
+                return;
+            }
 
-        List<RpcProvider> currentProviderList = providers.get(rpcService);
-        if (currentProviderList == null) {
-            providers.put(rpcService, providerList);
-        } else {
-            for (RpcProvider provider : providerList) {
-                if (currentProviderList.contains(provider)) {
-                    continue;
+            List<RpcProvider> currentProviderList = providers.get(rpcService);
+            List<RpcProvider> newProviderList = new ArrayList<>();
+            if (currentProviderList == null) {
+                newProviderList.addAll(providerList);
+            } else {
+                newProviderList.addAll(currentProviderList);
+                for (RpcProvider provider : providerList) {
+                    if (newProviderList.contains(provider)) {
+                        continue;
+                    }
+                    newProviderList.add(provider);
                 }
-                currentProviderList.add(provider);
             }
-        }
+            List<RpcProvider> published = Collections.unmodifiableList(newProviderList);
+            providers.put(rpcService, published);
+            dependencyGraph.updateProviders(serviceName, published);
 
-        LOGGER.info("receive provider registry data add, data is {}", providerList);
+            LOGGER.info("receive provider registry data add, data is {}", providerList);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @Override
     public void addConsumers(String serviceName, List<RpcConsumer> consumersList) {
+        lock.writeLock().lock();
+        try {
+            RpcService rpcService = services.get(serviceName);
 
-        RpcService rpcService = services.get(serviceName);
-
-        if (rpcService == null) {
-            LOGGER.warn("receive consumer registry data add, but service name is not exist now,{}",
-                serviceName);
-            return;
-        }
+            if (rpcService == null) {
+                LOGGER.warn(
+                    "receive consumer registry data add, but service name is not exist now,{}",
+                    serviceName);
+                return;
+            }
 
-        List<RpcConsumer> currentConsumerList = consumers.get(rpcService);
-        if (currentConsumerList == null) {
-            consumers.put(rpcService, consumersList);
-        } else {
-            for (RpcConsumer consumer : consumersList) {
-                if (currentConsumerList.contains(consumer)) {
-                    continue;
+            List<RpcConsumer> currentConsumerList = consumers.get(rpcService);
+            List<RpcConsumer> newConsumerList = new ArrayList<>();
+            if (currentConsumerList == null) {
+                newConsumerList.addAll(consumersList);
+            } else {
+                newConsumerList.addAll(currentConsumerList);
+                for (RpcConsumer consumer : consumersList) {
+                    if (newConsumerList.contains(consumer)) {
+                        continue;
+                    }
+                    newConsumerList.add(consumer);
                 }
-                currentConsumerList.add(consumer);
             }
-        }
-
-        LOGGER.info("receive consumer registry data add, data is {}", consumers);
+            List<RpcConsumer> published = Collections.unmodifiableList(newConsumerList);
+            consumers.put(rpcService, published);
+            dependencyGraph.updateConsumers(serviceName, published);
 
+            LOGGER.info("receive consumer registry data add, data is {}", consumers);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @Override
     public void removeProviders(String serviceName, List<RpcProvider> providerList) {
-        RpcService rpcService = services.get(serviceName);
-        if (rpcService == null || providerList == null) {
-            return;
+        lock.writeLock().lock();
+        try {
+            RpcService rpcService = services.get(serviceName);
+            if (rpcService == null || providerList == null) {
+                return;
+            }
+            List<RpcProvider> currentProviderList = new ArrayList<>(providers.getOrDefault(
+                rpcService, Collections.emptyList()));
+            currentProviderList.removeAll(providerList);
+            List<RpcProvider> published = Collections.unmodifiableList(currentProviderList);
+            providers.put(rpcService, published);
+            dependencyGraph.updateProviders(serviceName, published);
+            LOGGER.info("receive provider registry data remove, data is {}", providerList);
+        } finally {
+            lock.writeLock().unlock();
         }
-        List<RpcProvider> currentProviderList = providers.get(rpcService);
-        currentProviderList.removeAll(providerList);
-        LOGGER.info("receive provider registry data remove, data is {}", providerList);
     }
 
     @Override
     public void removeConsumers(String serviceName, List<RpcConsumer> consumersList) {
-        RpcService rpcService = services.get(serviceName);
-        if (rpcService == null || consumersList == null) {
-            return;
+        lock.writeLock().lock();
+        try {
+            RpcService rpcService = services.get(serviceName);
+            if (rpcService == null || consumersList == null) {
+                return;
+            }
+            List<RpcConsumer> currentConsumerList = new ArrayList<>(consumers.getOrDefault(
+                rpcService, Collections.emptyList()));
+            currentConsumerList.removeAll(consumersList);
+            List<RpcConsumer> published = Collections.unmodifiableList(currentConsumerList);
+            consumers.put(rpcService, published);
+            dependencyGraph.updateConsumers(serviceName, published);
+            LOGGER.info("receive consumer registry data remove, data is {}", consumersList);
+        } finally {
+            lock.writeLock().unlock();
         }
-        List<RpcConsumer> currentConsumerList = consumers.get(rpcService);
-        currentConsumerList.removeAll(consumersList);
-        LOGGER.info("receive consumer registry data remove, data is {}", consumersList);
     }
 
     @Override
@@ -134,60 +192,77 @@ public class ZookeeperRegistryDataCacheImpl implements RegistryDataCache {
 
     @Override
     public void addService(List<RpcService> rpcServiceList) {
-        for (RpcService rpcService : rpcServiceList) {
-            LOGGER.info("receive service registry data add, data is {}", rpcService);
-            services.put(rpcService.getServiceName(), rpcService);
+        lock.writeLock().lock();
+        try {
+            Map<String, RpcService> newServices = new HashMap<>(services);
+            for (RpcService rpcService : rpcServiceList) {
+                LOGGER.info("receive service registry data add, data is {}", rpcService);
+                newServices.put(rpcService.getServiceName(), rpcService);
+            }
+            services = Collections.unmodifiableMap(newServices);
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
     @Override
     public void removeService(List<RpcService> rpcServices) {
-        for (RpcService rpcService : rpcServices) {
-            LOGGER.info("receive service registry data remove, data is {}", rpcService);
-            services.remove(rpcService.getServiceName());
+        lock.writeLock().lock();
+        try {
+            Map<String, RpcService> newServices = new HashMap<>(services);
+            for (RpcService rpcService : rpcServices) {
+                LOGGER.info("receive service registry data remove, data is {}", rpcService);
+                newServices.remove(rpcService.getServiceName());
+                dependencyGraph.removeService(rpcService.getServiceName());
+            }
+            services = Collections.unmodifiableMap(newServices);
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
     @Override
     public void updateService(RpcService rpcService) {
-        services.put(rpcService.getServiceName(), rpcService);
+        lock.writeLock().lock();
+        try {
+            Map<String, RpcService> newServices = new HashMap<>(services);
+            newServices.put(rpcService.getServiceName(), rpcService);
+            services = Collections.unmodifiableMap(newServices);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @Override
     public Map<String, RpcService> fetchService() {
-        return this.services;
+        return services;
     }
 
     @Override
     public List<RpcProvider> fetchProvidersByService(String serviceName) {
-        List<RpcProvider> result = new ArrayList<>();
         if (StringUtils.isEmpty(serviceName)) {
-            return result;
+            return Collections.emptyList();
         }
         RpcService rpcService = services.get(serviceName);
-
-        if (rpcService != null) {
-            result = providers.get(rpcService);
-            if (CommonUtils.isNotEmpty(result)) {
-                return result;
-            }
-        }
-        return result;
+        return rpcService == null ? Collections.emptyList() : providers.get(rpcService);
     }
 
     @Override
     public List<RpcConsumer> fetchConsumersByService(String serviceName) {
-        List<RpcConsumer> result = new ArrayList<>();
         if (StringUtils.isEmpty(serviceName)) {
-            return result;
+            return Collections.emptyList();
         }
         RpcService rpcService = services.get(serviceName);
-        if (rpcService != null) {
-            result = consumers.get(rpcService);
-            if (CommonUtils.isNotEmpty(result)) {
-                return result;
-            }
+        return rpcService == null ? Collections.emptyList() : consumers.get(rpcService);
+    }
+
+    @Override
+    public RegistryDataSnapshot fetchSnapshot(Collection<String> serviceNames) {
+        lock.readLock().lock();
+        try {
+            return RegistryDataCache.super.fetchSnapshot(serviceNames);
+        } finally {
+            lock.readLock().unlock();
         }
-        return result;
     }
-}
\ No newline at end of file
+}
@@ -17,6 +17,7 @@
 package com.alipay.sofa.dashboard.configuration;
 
 import com.alipay.sofa.dashboard.cache.RegistryDataCache;
+import com.alipay.sofa.dashboard.cache.ServiceDependencyGraph;
 import com.alipay.sofa.dashboard.cache.SofaRegistryDataCacheImpl;
 import com.alipay.sofa.dashboard.cache.ZookeeperRegistryDataCacheImpl;
 import com.alipay.sofa.dashboard.constants.SofaDashboardConstants;
@@ -86,13 +87,18 @@ public class GovernanceConfiguration {
         return new RestTemplate();
     }
 
+    @Bean
+    public ServiceDependencyGraph serviceDependencyGraph() {
+        return new ServiceDependencyGraph();
+    }
+
     @Bean
     public RegistryDataCache registryDataCache() {
         if (environment.getProperty(SofaDashboardConstants.KEY).contains(
             SofaDashboardConstants.SOFA_PREFIX)) {
-            return new SofaRegistryDataCacheImpl();
+            return new SofaRegistryDataCacheImpl(serviceDependencyGraph());
         } else {
-            return new ZookeeperRegistryDataCacheImpl();
+            return new ZookeeperRegistryDataCacheImpl(serviceDependencyGraph());
         }
     }
 }
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 启动时按版本号顺序执行 classpath:db/migration 下尚未执行的 V{version}__{description}.sql 脚本，
+ * 已执行的版本记录在 schema_version 表中。
+ * <p>
+ * 每个脚本与其版本记录在同一事务中提交；已存在的索引会被跳过，脚本部分执行后重启可以继续。
+ * 关闭自动迁移（com.alipay.sofa.dashboard.schema.migrate=false）时需要手工执行脚本并写入 schema_version。
+ */
+@Component
+public class SchemaMigrationRunner implements InitializingBean {
+
+    private static final Logger  LOGGER               = LoggerFactory
+                                                          .getLogger(SchemaMigrationRunner.class);
+
+    private static final String  LOCATION             = "classpath*:db/migration/V*__*.sql";
+
+    private static final Pattern SCRIPT_PATTERN       = Pattern.compile("^V(\\d+)__(.+)\\.sql$");
+
+    private static final Pattern CREATE_INDEX_PATTERN = Pattern
+                                                          .compile(
+                                                              "^\\s*CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)",
+                                                              Pattern.CASE_INSENSITIVE);
+
+    private final JdbcTemplate   jdbcTemplate;
+
+    @Value("${com.alipay.sofa.dashboard.schema.migrate:true}")
+    private boolean              enabled              = true;
+
+    @Autowired
+    public SchemaMigrationRunner(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (enabled) {
+            migrate();
+        }
+    }
+
+    /**
+     * 执行尚未执行的迁移脚本
+     *
+     * @return 本次执行的版本号
+     * @throws IOException 脚本读取失败
+     */
+    public List<Integer> migrate() throws IOException {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                             + "version int NOT NULL, description varchar(128) NOT NULL, "
+                             + "installed_on datetime NOT NULL, PRIMARY KEY (version))");
+        Set<Integer> applied = new HashSet<>(jdbcTemplate.queryForList(
+            "select version from schema_version", Integer.class));
+        List<Integer> result = new ArrayList<>();
+        for (Map.Entry<Integer, Resource> entry : resolveScripts().entrySet()) {
+            if (applied.contains(entry.getKey())) {
+                continue;
+            }
+            Resource script = entry.getValue();
+            LOGGER.info("Apply schema migration {}.", script.getFilename());
+            List<String> statements = readStatements(script);
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                apply(connection, entry.getKey(), describe(script), statements);
+                return null;
+            });
+            result.add(entry.getKey());
+        }
+        return result;
+    }
+
+    /**
+     * 脚本与版本记录在同一事务中执行。MySQL 的 DDL 会隐式提交，无法随事务回滚，
+     * 因此已存在的索引直接跳过，脚本中途失败后下次启动可以从失败处继续
+     */
+    private void apply(Connection connection, int version, String description,
+                       List<String> statements) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (String sql : statements) {
+                if (isIndexExists(connection, sql)) {
+                    LOGGER.info("Skip existing index: {}", sql);
+                    continue;
+                }
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(sql);
+                }
+            }
+            try (PreparedStatement statement = connection
+                .prepareStatement("insert into schema_version (version, description, installed_on) values (?, ?, ?)")) {
+                statement.setInt(1, version);
+                statement.setString(2, description);
+                statement.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+                statement.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private boolean isIndexExists(Connection connection, String sql) throws SQLException {
+        Matcher matcher = CREATE_INDEX_PATTERN.matcher(sql);
+        if (!matcher.find()) {
+            return false;
+        }
+        String index = matcher.group(1);
+        String table = matcher.group(2);
+        DatabaseMetaData metaData = connection.getMetaData();
+        // 表名大小写随数据库而不同，H2 为大写
+        for (String name : new LinkedHashSet<>(Arrays.asList(table, table.toUpperCase(),
+            table.toLowerCase()))) {
+            try (ResultSet resultSet = metaData.getIndexInfo(connection.getCatalog(), null, name,
+                false, true)) {
+                while (resultSet.next()) {
+                    if (index.equalsIgnoreCase(resultSet.getString("INDEX_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static List<String> readStatements(Resource script) throws IOException {
+        EncodedResource resource = new EncodedResource(script, StandardCharsets.UTF_8);
+        String content;
+        try (InputStream in = script.getInputStream()) {
+            content = StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+        List<String> statements = new ArrayList<>();
+        ScriptUtils.splitSqlScript(resource, content, ScriptUtils.DEFAULT_STATEMENT_SEPARATOR,
+            ScriptUtils.DEFAULT_COMMENT_PREFIX, ScriptUtils.DEFAULT_BLOCK_COMMENT_START_DELIMITER,
+            ScriptUtils.DEFAULT_BLOCK_COMMENT_END_DELIMITER, statements);
+        return statements;
+    }
+
+    private TreeMap<Integer, Resource> resolveScripts() throws IOException {
+        TreeMap<Integer, Resource> scripts = new TreeMap<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+            Matcher matcher = SCRIPT_PATTERN.matcher(resource.getFilename());
+            if (!matcher.matches()) {
+                continue;
+            }
+            Resource exist = scripts.put(Integer.valueOf(matcher.group(1)), resource);
+            if (exist != null) {
+                throw new IllegalStateException("Duplicate schema migration version: "
+                                                + exist.getFilename() + ", "
+                                                + resource.getFilename());
+            }
+        }
+        return scripts;
+    }
+
+    private static String describe(Resource script) {
+        Matcher matcher = SCRIPT_PATTERN.matcher(script.getFilename());
+        return matcher.matches() ? matcher.group(2).replace('_', ' ') : script.getFilename();
+    }
+}
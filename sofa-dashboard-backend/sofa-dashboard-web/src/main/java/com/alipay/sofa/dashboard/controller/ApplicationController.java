@@ -16,11 +16,16 @@
  */
 package com.alipay.sofa.dashboard.controller;
 
+import com.alipay.sofa.dashboard.model.AppOverview;
 import com.alipay.sofa.dashboard.model.ApplicationInfo;
+import com.alipay.sofa.dashboard.model.PageQuery;
+import com.alipay.sofa.dashboard.model.PageResult;
 import com.alipay.sofa.dashboard.spi.AppService;
+import com.alipay.sofa.dashboard.spi.MonitorService;
 import com.alipay.sofa.rpc.common.utils.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -35,11 +40,54 @@ import java.util.List;
 public class ApplicationController {
 
     @Autowired
-    private AppService appService;
+    private AppService     appService;
+
+    @Autowired
+    private MonitorService monitorService;
 
     @GetMapping
     public List<ApplicationInfo> getApplication(@RequestParam(value = "keyword", required = false) String keyword) {
         return StringUtils.isEmpty(keyword) ? appService.getAllStatistics() : appService
             .getStatisticsByKeyword(keyword);
     }
+
+    /**
+     * 分页查询应用统计信息，按应用名排序
+     *
+     * @param keyword 关键词
+     * @param order   asc 或 desc
+     * @param offset  起始偏移量，cursor 不为空时忽略
+     * @param limit   每页条数
+     * @param cursor  上一页返回的 nextCursor
+     * @return
+     */
+    @GetMapping("/page")
+    public PageResult<ApplicationInfo> getApplicationPage(@RequestParam(value = "keyword", required = false) String keyword,
+                                                          @RequestParam(value = "order", defaultValue = "asc") String order,
+                                                          @RequestParam(value = "offset", defaultValue = "0") int offset,
+                                                          @RequestParam(value = "limit", defaultValue = "20") int limit,
+                                                          @RequestParam(value = "cursor", required = false) String cursor) {
+        PageQuery query = new PageQuery();
+        query.setOffset(offset);
+        query.setLimit(limit);
+        query.setCursor(StringUtils.isEmpty(cursor) ? null : cursor);
+        query.setDescending("desc".equalsIgnoreCase(order));
+        return appService.getStatisticsPage(keyword, query);
+    }
+
+    /**
+     * 应用维度汇总：健康状态分布与内存、线程分位数，数据由后台采集任务维护
+     *
+     * @param appName 应用名
+     * @return
+     */
+    @GetMapping("/{appName}/overview")
+    public AppOverview getOverview(@PathVariable("appName") String appName) {
+        AppOverview overview = monitorService.fetchAppOverview(appName);
+        if (overview == null) {
+            overview = new AppOverview();
+            overview.setAppName(appName);
+        }
+        return overview;
+    }
 }
@@ -18,12 +18,17 @@ package com.alipay.sofa.dashboard.controller;
 
 import com.alipay.sofa.dashboard.client.model.common.Application;
 import com.alipay.sofa.dashboard.constants.SofaDashboardConstants;
+import com.alipay.sofa.dashboard.impl.ArkRolloutManager;
 import com.alipay.sofa.dashboard.impl.ZkHelper;
 import com.alipay.sofa.dashboard.model.AppModuleModel;
 import com.alipay.sofa.dashboard.model.AppUnitModel;
 import com.alipay.sofa.dashboard.model.ArkPluginModel;
 import com.alipay.sofa.dashboard.model.ClientResponseModel;
+import com.alipay.sofa.dashboard.model.ClientSummaryModel;
+import com.alipay.sofa.dashboard.model.CommandPushResult;
 import com.alipay.sofa.dashboard.model.CommandRequest;
+import com.alipay.sofa.dashboard.model.RolloutModel;
+import com.alipay.sofa.dashboard.model.RolloutRequest;
 import com.alipay.sofa.dashboard.response.ResponseEntity;
 import com.alipay.sofa.dashboard.service.ArkMngService;
 import com.alipay.sofa.dashboard.spi.CommandPushManager;
@@ -39,6 +44,7 @@ import org.springframework.web.bind.annotation.RestController;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * @author: guolei.sgl (guolei.sgl@antfin.com) 18/12/21 下午2:26
@@ -56,6 +62,8 @@ public class ArkAppMngController {
     private CommandPushManager  commandPushManager;
     @Autowired
     private ZkHelper            zkHelper;
+    @Autowired
+    private ArkRolloutManager   arkRolloutManager;
 
     @RequestMapping("/ark-app")
     @Deprecated
@@ -105,6 +113,28 @@ public class ArkAppMngController {
         return true;
     }
 
+    /**
+     * 推送命令并返回每个目标的推送结果
+     *
+     * @param commandMap
+     * @return
+     */
+    @RequestMapping("/command-detail")
+    public ResponseEntity<List<CommandPushResult>> commandDetail(@RequestBody Map<String, Object> commandMap) {
+        ResponseEntity<List<CommandPushResult>> result = new ResponseEntity<>();
+        try {
+            List<CommandPushResult> results = commandPushManager
+                .pushCommandAndWait(parseCommandRequest(commandMap));
+            result.setData(results);
+            result.setSuccess(results.stream().allMatch(CommandPushResult::isSuccess));
+        } catch (Exception e) {
+            LOGGER.error("Error to push command.", e);
+            result.setSuccess(false);
+            result.setError(String.valueOf(e.getMessage()));
+        }
+        return result;
+    }
+
     @RequestMapping("biz-state-detail")
     public ClientResponseModel fetchBizState(@RequestParam("ip") String ip,
                                              @RequestParam("appName") String appName) {
@@ -116,6 +146,17 @@ public class ArkAppMngController {
         return new ClientResponseModel();
     }
 
+    @RequestMapping("biz-state-summary")
+    public ClientSummaryModel fetchBizSummary(@RequestParam("ip") String ip,
+                                              @RequestParam("appName") String appName) {
+        try {
+            return zkHelper.getBizSummary(appName, ip);
+        } catch (Exception e) {
+            LOGGER.error("Error to fetchBizSummary.", e);
+        }
+        return new ClientSummaryModel();
+    }
+
     @RequestMapping("biz-state")
     public ResponseEntity<String> getBizState(@RequestParam("ip") String ip,
                                               @RequestParam("appName") String appName,
@@ -131,6 +172,58 @@ public class ArkAppMngController {
         return result;
     }
 
+    /**
+     * 分批推送命令，下一批在上一批实例上报激活后开始，失败时自动暂停
+     *
+     * @param request
+     * @return
+     */
+    @RequestMapping("/rollout")
+    public ResponseEntity<RolloutModel> startRollout(@RequestBody RolloutRequest request) {
+        return rolloutResult(() -> arkRolloutManager.start(request));
+    }
+
+    @RequestMapping("/rollout-list")
+    public List<RolloutModel> listRollouts() {
+        return arkRolloutManager.list();
+    }
+
+    @RequestMapping("/rollout-detail")
+    public ResponseEntity<RolloutModel> rolloutDetail(@RequestParam("id") String id) {
+        return rolloutResult(() -> arkRolloutManager.get(id));
+    }
+
+    @RequestMapping("/rollout-pause")
+    public ResponseEntity<RolloutModel> pauseRollout(@RequestParam("id") String id) {
+        return rolloutResult(() -> arkRolloutManager.pause(id));
+    }
+
+    @RequestMapping("/rollout-resume")
+    public ResponseEntity<RolloutModel> resumeRollout(@RequestParam("id") String id) {
+        return rolloutResult(() -> arkRolloutManager.resume(id));
+    }
+
+    @RequestMapping("/rollout-cancel")
+    public ResponseEntity<RolloutModel> cancelRollout(@RequestParam("id") String id) {
+        return rolloutResult(() -> arkRolloutManager.cancel(id));
+    }
+
+    private ResponseEntity<RolloutModel> rolloutResult(Supplier<RolloutModel> action) {
+        ResponseEntity<RolloutModel> result = new ResponseEntity<>();
+        try {
+            result.setData(action.get());
+            result.setSuccess(true);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            result.setSuccess(false);
+            result.setError(e.getMessage());
+        } catch (Exception e) {
+            LOGGER.error("Error to operate rollout.", e);
+            result.setSuccess(false);
+            result.setError(String.valueOf(e.getMessage()));
+        }
+        return result;
+    }
+
     private CommandRequest parseCommandRequest(Map<String, Object> commandMap) {
         CommandRequest request = new CommandRequest();
         request.setCommand(commandMap.get(SofaDashboardConstants.COMMAND).toString());
@@ -18,8 +18,7 @@ package com.alipay.sofa.dashboard.controller;
 
 import com.alipay.sofa.dashboard.constants.SofaDashboardConstants;
 import com.alipay.sofa.dashboard.impl.ZkHelper;
-import com.alipay.sofa.dashboard.model.AppArkDO;
-import com.alipay.sofa.dashboard.model.AppArkModel;
+import com.alipay.sofa.dashboard.model.ArkPluginBatchModel;
 import com.alipay.sofa.dashboard.model.ArkPluginDO;
 import com.alipay.sofa.dashboard.model.ArkPluginModel;
 import com.alipay.sofa.dashboard.response.ResponseEntity;
@@ -34,9 +33,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * @author: guolei.sgl (guolei.sgl@antfin.com) 18/12/19 上午11:06
@@ -46,7 +46,12 @@ import java.util.Map;
 @RequestMapping("/api/ark")
 public class ArkMngController {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(ArkMngController.class);
+    private static final Logger LOGGER         = LoggerFactory.getLogger(ArkMngController.class);
+
+    /**
+     * 单次批量操作的条目上限
+     */
+    private static final int    MAX_BATCH_SIZE = 500;
 
     @Autowired
     private ArkMngService       arkMngService;
@@ -61,23 +66,15 @@ public class ArkMngController {
      */
     @RequestMapping("/plugin-list")
     public List<ArkPluginModel> queryArkPluginList() {
-        List<ArkPluginModel> list = arkMngService.fetchRegisteredPlugins();
-        list.forEach((item) -> {
-            List<AppArkDO> appArkDOS = arkMngService.queryAppsByPlugin(item.getPluginName());
-            List<AppArkModel> appArkList = new ArrayList<>();
-            appArkDOS.forEach((appArkDO) -> {
-                try {
-                    AppArkModel appArkModel = new AppArkModel();
-                    appArkModel.setAppName(appArkDO.getAppName());
-                    appArkModel.setCreateTime(SofaDashboardUtil.formatDate(appArkDO.getCreateTime()));
-                    appArkModel.setInstanceNum(zkHelper.getArkAppCount(appArkDO.getAppName()));
-                    appArkList.add(appArkModel);
-                } catch (Exception e) {
-                    LOGGER.error("Failed to calculate ark app count.", e);
-                }
-            });
-            item.setAppArkList(appArkList);
-        });
+        List<ArkPluginModel> list = arkMngService.fetchRegisteredPluginsWithApps();
+        // 同一应用可能关联多个插件，实例数只查询一次；查询失败的应用不展示
+        Map<String, Integer> instanceNums = new HashMap<>();
+        list.forEach((item) -> item.getAppArkList().removeIf((appArkModel) -> {
+            int instanceNum = instanceNums.computeIfAbsent(appArkModel.getAppName(),
+                this::countArkApp);
+            appArkModel.setInstanceNum(instanceNum);
+            return instanceNum < 0;
+        }));
         return list;
     }
 
@@ -137,6 +134,38 @@ public class ArkMngController {
         return result;
     }
 
+    /**
+     * 批量注册插件版本，返回每个版本是否注册成功
+     *
+     * @param batch
+     * @return
+     */
+    @RequestMapping("/batch-register-version")
+    public ResponseEntity<Map<String, Boolean>> batchRegisterVersion(@RequestBody ArkPluginBatchModel batch) {
+        ResponseEntity<Map<String, Boolean>> result = checkBatch(batch, versionNames(batch));
+        checkPluginExists(result, batch == null ? 0 : batch.getId());
+        if (result.isSuccess()) {
+            result.setData(arkMngService.addNewVersions(batch.getId(), batch.getVersions()));
+        }
+        return result;
+    }
+
+    /**
+     * 批量删除插件版本，返回每个版本是否删除成功
+     *
+     * @param batch
+     * @return
+     */
+    @RequestMapping("/batch-delete-version")
+    public ResponseEntity<Map<String, Boolean>> batchDeleteVersion(@RequestBody ArkPluginBatchModel batch) {
+        List<String> versions = versionNames(batch);
+        ResponseEntity<Map<String, Boolean>> result = checkBatch(batch, versions);
+        if (result.isSuccess()) {
+            result.setData(arkMngService.deleteVersions(batch.getId(), versions));
+        }
+        return result;
+    }
+
     @RequestMapping("/delete-plugin")
     public boolean deletePluginModel(@RequestParam("id") int id) {
         if (id < 0) {
@@ -154,14 +183,112 @@ public class ArkMngController {
         return arkMngService.fetchPluginsByName(pluginName);
     }
 
+    /**
+     * 按插件名前缀查询，在插件元数据缓存中匹配，不访问数据库
+     *
+     * @param pluginName
+     * @return
+     */
+    @RequestMapping(value = "/search-plugin", params = "prefix=true")
+    public List<ArkPluginModel> searchPluginsByPrefix(@RequestParam("pluginName") String pluginName) {
+        if (StringUtils.isEmpty(pluginName)) {
+            // 返回全部
+            return arkMngService.fetchRegisteredPlugins();
+        }
+        return arkMngService.fetchPluginsByNamePrefix(pluginName);
+    }
+
+    /**
+     * 插件元数据缓存统计
+     *
+     * @return
+     */
+    @RequestMapping("/cache-stats")
+    public Map<String, Long> cacheStats() {
+        return arkMngService.fetchCacheStats();
+    }
+
     @RequestMapping("/related-app")
     public boolean relatedApp(@RequestParam("id") int id, @RequestParam("appName") String appName) {
         return arkMngService.relatedAppToPlugin(id, appName) > 0;
     }
 
+    /**
+     * 批量关联应用，返回每个应用是否关联成功
+     *
+     * @param batch
+     * @return
+     */
+    @RequestMapping("/batch-related-app")
+    public ResponseEntity<Map<String, Boolean>> batchRelatedApp(@RequestBody ArkPluginBatchModel batch) {
+        ResponseEntity<Map<String, Boolean>> result = checkBatch(batch, batch == null ? null
+            : batch.getAppNames());
+        checkPluginExists(result, batch == null ? 0 : batch.getId());
+        if (result.isSuccess()) {
+            result.setData(arkMngService.relatedAppsToPlugin(batch.getId(), batch.getAppNames()));
+        }
+        return result;
+    }
+
+    /**
+     * 批量取消关联应用，返回每个应用是否取消成功
+     *
+     * @param batch
+     * @return
+     */
+    @RequestMapping("/batch-cancel-related-app")
+    public ResponseEntity<Map<String, Boolean>> batchCancelRelatedApp(@RequestBody ArkPluginBatchModel batch) {
+        ResponseEntity<Map<String, Boolean>> result = checkBatch(batch, batch == null ? null
+            : batch.getAppNames());
+        if (result.isSuccess()) {
+            result.setData(arkMngService.cancelRelatedAppsToPlugin(batch.getId(),
+                batch.getAppNames()));
+        }
+        return result;
+    }
+
     @RequestMapping("/cancel-related-app")
     public boolean cancelRelatedApp(@RequestParam("pluginName") String pluginName,
                                     @RequestParam("appName") String appName) {
         return arkMngService.cancelRelatedAppToPlugin(pluginName, appName) > 0;
     }
+
+    private int countArkApp(String appName) {
+        try {
+            return zkHelper.getArkAppCount(appName);
+        } catch (Exception e) {
+            LOGGER.error("Failed to calculate ark app count.", e);
+            return -1;
+        }
+    }
+
+    private List<String> versionNames(ArkPluginBatchModel batch) {
+        if (batch == null || batch.getVersions() == null) {
+            return null;
+        }
+        return batch.getVersions().stream()
+            .map(version -> version == null ? null : version.getVersion())
+            .collect(Collectors.toList());
+    }
+
+    private ResponseEntity<Map<String, Boolean>> checkBatch(ArkPluginBatchModel batch,
+                                                            List<String> items) {
+        ResponseEntity<Map<String, Boolean>> result = new ResponseEntity<>();
+        if (batch == null || batch.getId() <= 0 || items == null || items.isEmpty()
+            || items.stream().anyMatch(StringUtils::isEmpty)) {
+            result.setSuccess(false);
+            result.setError("plugin id or batch items cannot be blank.");
+        } else if (items.size() > MAX_BATCH_SIZE) {
+            result.setSuccess(false);
+            result.setError("batch size cannot exceed " + MAX_BATCH_SIZE + ".");
+        }
+        return result;
+    }
+
+    private void checkPluginExists(ResponseEntity<Map<String, Boolean>> result, int id) {
+        if (result.isSuccess() && !arkMngService.existPlugin(id)) {
+            result.setSuccess(false);
+            result.setError("plugin not found: " + id);
+        }
+    }
 }
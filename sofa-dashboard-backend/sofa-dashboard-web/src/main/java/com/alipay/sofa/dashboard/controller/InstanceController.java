@@ -16,24 +16,38 @@
  */
 package com.alipay.sofa.dashboard.controller;
 
+import com.alipay.sofa.dashboard.client.model.common.Application;
 import com.alipay.sofa.dashboard.client.model.common.HostAndPort;
 import com.alipay.sofa.dashboard.client.model.env.EnvironmentDescriptor;
 import com.alipay.sofa.dashboard.client.model.env.PropertySourceDescriptor;
+import com.alipay.sofa.dashboard.client.model.env.PropertyValueDescriptor;
 import com.alipay.sofa.dashboard.client.model.health.HealthDescriptor;
 import com.alipay.sofa.dashboard.client.model.info.InfoDescriptor;
+import com.alipay.sofa.dashboard.client.model.io.RecordName;
 import com.alipay.sofa.dashboard.client.model.logger.LoggersDescriptor;
 import com.alipay.sofa.dashboard.client.model.mappings.MappingsDescriptor;
 import com.alipay.sofa.dashboard.client.model.memory.MemoryDescriptor;
 import com.alipay.sofa.dashboard.client.model.thread.ThreadSummaryDescriptor;
+import com.alipay.sofa.dashboard.constants.enums.InstanceSortKey;
+import com.alipay.sofa.dashboard.constants.enums.MetricResolution;
+import com.alipay.sofa.dashboard.model.ColumnarSeries;
+import com.alipay.sofa.dashboard.model.ConfigDiff;
 import com.alipay.sofa.dashboard.model.InstanceRecord;
+import com.alipay.sofa.dashboard.model.MetricAggregate;
+import com.alipay.sofa.dashboard.model.PageQuery;
+import com.alipay.sofa.dashboard.model.PageResult;
 import com.alipay.sofa.dashboard.model.RecordResponse;
 import com.alipay.sofa.dashboard.model.StampedValueEntity;
+import com.alipay.sofa.dashboard.model.TreeNode;
 import com.alipay.sofa.dashboard.spi.AppService;
 import com.alipay.sofa.dashboard.spi.MonitorService;
+import com.alipay.sofa.dashboard.utils.ConfigDiffUtils;
+import com.alipay.sofa.dashboard.utils.FlatKeyIndex;
 import com.alipay.sofa.dashboard.utils.HostPortUtils;
 import com.alipay.sofa.dashboard.utils.MapUtils;
 import com.alipay.sofa.dashboard.utils.TreeNodeConverter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.util.MultiValueMap;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -42,10 +56,13 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -58,11 +75,27 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/instance")
 public class InstanceController {
 
+    /**
+     * 序列查询未指定起始时间时的默认时间范围
+     */
+    private static final long   DEFAULT_SERIES_RANGE = TimeUnit.HOURS.toMillis(1);
+
+    private static final String TIME_FORMAT_TEXT     = "text";
+
+    private static final int    MAX_SEARCH_LIMIT     = 1000;
+
+    /**
+     * info 概览展示的条目数
+     */
+    private static final int    INFO_OVERVIEW_SIZE   = 3;
+
+    private static final String TIME_FORMAT_EPOCH    = "epoch";
+
     @Autowired
-    private AppService     applicationService;
+    private AppService          applicationService;
 
     @Autowired
-    private MonitorService service;
+    private MonitorService      service;
 
     @GetMapping
     public List<InstanceRecord> instances(
@@ -76,33 +109,185 @@ public class InstanceController {
             .collect(Collectors.toList());
     }
 
+    /**
+     * 分页查询应用实例
+     *
+     * @param applicationName 应用名
+     * @param sortBy          排序字段：host, startTime, state
+     * @param order           asc 或 desc
+     * @param offset          起始偏移量，cursor 不为空时忽略
+     * @param limit           每页条数
+     * @param cursor          上一页返回的 nextCursor
+     * @return
+     */
+    @GetMapping("/page")
+    public PageResult<InstanceRecord> instancePage(
+        @RequestParam(value = "applicationName", required = false) String applicationName,
+        @RequestParam(value = "sortBy", required = false) String sortBy,
+        @RequestParam(value = "order", defaultValue = "asc") String order,
+        @RequestParam(value = "offset", defaultValue = "0") int offset,
+        @RequestParam(value = "limit", defaultValue = "20") int limit,
+        @RequestParam(value = "cursor", required = false) String cursor) {
+        PageResult<InstanceRecord> result = new PageResult<>();
+        // 与列表查询一致，没有传入 applicationName 时不返回数据
+        if (StringUtils.isEmpty(applicationName)) {
+            return result;
+        }
+        PageQuery query = new PageQuery();
+        query.setOffset(offset);
+        query.setLimit(limit);
+        query.setCursor(StringUtils.isEmpty(cursor) ? null : cursor);
+        query.setDescending("desc".equalsIgnoreCase(order));
+
+        PageResult<Application> page = applicationService.getInstancesPage(applicationName,
+            InstanceSortKey.of(sortBy), query);
+        result.setTotal(page.getTotal());
+        result.setOffset(page.getOffset());
+        result.setNextCursor(page.getNextCursor());
+        result.setItems(page.getItems().stream()
+            .map(InstanceRecord::new)
+            .collect(Collectors.toList()));
+        return result;
+    }
+
+    /**
+     * 一次查询应用下所有实例的健康度，各实例并行查询
+     *
+     * @param applicationName 应用名
+     * @return 实例 ID -> 健康度信息，无数据的实例状态为 UNKNOWN
+     */
+    @GetMapping("/health")
+    public Map<String, HealthDescriptor> instancesHealth(
+        @RequestParam(value = "applicationName", required = false) String applicationName) {
+        Map<String, HealthDescriptor> result = new LinkedHashMap<>();
+        if (StringUtils.isEmpty(applicationName)) {
+            return result;
+        }
+        List<HostAndPort> instances = applicationService.getInstancesByName(applicationName)
+            .stream()
+            .map(it -> new HostAndPort(it.getHostName(), it.getInternalHost(), it.getPort()))
+            .collect(Collectors.toList());
+        Map<HostAndPort, HealthDescriptor> health = service.fetchHealth(instances);
+        for (HostAndPort hostAndPort : instances) {
+            HealthDescriptor descriptor = health.get(hostAndPort);
+            if (descriptor == null) {
+                descriptor = new HealthDescriptor();
+                descriptor.setStatus("UNKNOWN");
+            }
+            result.put(HostPortUtils.uniqueId(hostAndPort), descriptor);
+        }
+        return result;
+    }
+
+    /**
+     * 查询实例环境变量
+     *
+     * @param instanceId 实例 ID
+     * @param depth      detail 展开层数，默认展开到各属性源，小于 0 时展开全部，未展开的节点可通过 /env/tree 按路径获取
+     * @return
+     */
     @GetMapping("/{instanceId}/env")
-    public RecordResponse getEnv(
-        @PathVariable("instanceId") String instanceId) {
+    public RecordResponse getEnv(@PathVariable("instanceId") String instanceId,
+                                 @RequestParam(value = "depth", defaultValue = "2") int depth) {
         HostAndPort hostAndPort = HostPortUtils.getById(instanceId);
         EnvironmentDescriptor descriptor = service.fetchEnvironment(hostAndPort);
 
         //
-        // 注意descriptor可能为空
+        // 接口层重新拼装一次前端需要的数据结构概览，注意descriptor可能为空
         //
-        Map<String, String> envMap = new HashMap<>();
-        for (PropertySourceDescriptor propertySource :
-            Optional.ofNullable(descriptor).orElse(new EnvironmentDescriptor())
-                .getPropertySources()) {
-            propertySource.getProperties().forEach((key, value) ->
-                envMap.put(key, String.valueOf(value.getValue())));
-        }
-
-        //
-        // 接口层重新拼装一次前端需要的数据结构概览
-        //
-        return RecordResponse.newBuilder()
-            .overview("Name", envMap.get("spring.application.name"))
+        return RecordResponse
+            .newBuilder()
+            .overview("Name", findProperty(descriptor, "spring.application.name"))
             .overview("Address",
                 String.format("%s:%d", hostAndPort.getHost(), hostAndPort.getPort()))
-            .overview("sofa-boot.version", envMap.get("sofa-boot.version"))
-            .detail(TreeNodeConverter.convert(descriptor))
-            .build();
+            .overview("sofa-boot.version", findProperty(descriptor, "sofa-boot.version"))
+            .detail(
+                TreeNodeConverter.render(TreeNodeConverter.view(descriptor),
+                    Collections.emptyList(), depth < 0 ? Integer.MAX_VALUE : depth)).build();
+    }
+
+    /**
+     * 比较应用下各实例的环境变量或 logger 级别，按配置指纹分组并只返回存在差异的键
+     *
+     * @param applicationName 应用名
+     * @param record          比较范围：env 或 loggers
+     * @return
+     */
+    @GetMapping("/diff")
+    public ConfigDiff diff(@RequestParam(value = "applicationName", required = false) String applicationName,
+                           @RequestParam(value = "record", defaultValue = "env") String record) {
+        boolean loggers = "loggers".equalsIgnoreCase(record);
+        if (!loggers && !"env".equalsIgnoreCase(record)) {
+            throw new IllegalArgumentException("Unsupported record: " + record);
+        }
+        Map<String, FlatKeyIndex> indexes = new LinkedHashMap<>();
+        if (!StringUtils.isEmpty(applicationName)) {
+            List<HostAndPort> instances = applicationService.getInstancesByName(applicationName)
+                .stream()
+                .map(it -> new HostAndPort(it.getHostName(), it.getInternalHost(), it.getPort()))
+                .collect(Collectors.toList());
+            String recordName = loggers ? RecordName.LOGGERS : RecordName.ENVIRONMENT;
+            service.fetchLatest(instances, Collections.singletonList(recordName)).forEach(
+                (hostAndPort, records) -> {
+                    Object descriptor = records.get(recordName);
+                    indexes.put(HostPortUtils.uniqueId(hostAndPort), loggers
+                        ? FlatKeyIndex.of((LoggersDescriptor) descriptor)
+                        : FlatKeyIndex.of((EnvironmentDescriptor) descriptor));
+                });
+        }
+        return ConfigDiffUtils.diff(loggers ? "loggers" : "env", indexes);
+    }
+
+    /**
+     * 按路径展开环境变量子树
+     *
+     * @param instanceId 实例 ID
+     * @param params     path 可重复传入，依次为自根节点起的子节点名称
+     * @param depth      展开层数
+     * @return 目标子树，路径不存在时为空
+     */
+    @GetMapping("/{instanceId}/env/tree")
+    public TreeNode getEnvTree(@PathVariable("instanceId") String instanceId,
+                               @RequestParam MultiValueMap<String, String> params,
+                               @RequestParam(value = "depth", defaultValue = "1") int depth) {
+        HostAndPort hostAndPort = HostPortUtils.getById(instanceId);
+        EnvironmentDescriptor descriptor = service.fetchEnvironment(hostAndPort);
+        return TreeNodeConverter.render(TreeNodeConverter.view(descriptor), pathOf(params), depth);
+    }
+
+    /**
+     * 在实例的环境变量、logger 或 mappings 中搜索键路径，只返回匹配的条目
+     *
+     * @param instanceId 实例 ID
+     * @param record     搜索范围：env, loggers, mappings
+     * @param query      搜索词，忽略大小写
+     * @param mode       匹配方式：prefix 或 substring
+     * @param limit      最多返回条数
+     * @return 键路径 -> 值
+     */
+    @GetMapping("/{instanceId}/search")
+    public Map<String, String> search(@PathVariable("instanceId") String instanceId,
+                                      @RequestParam(value = "record", defaultValue = "env") String record,
+                                      @RequestParam(value = "query", required = false) String query,
+                                      @RequestParam(value = "mode", defaultValue = "substring") String mode,
+                                      @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        HostAndPort hostAndPort = HostPortUtils.getById(instanceId);
+        FlatKeyIndex index;
+        switch (record.toLowerCase()) {
+            case "loggers":
+                index = FlatKeyIndex.of(service.fetchLoggers(hostAndPort));
+                break;
+            case "mappings":
+                index = FlatKeyIndex.of(service.fetchMappings(hostAndPort));
+                break;
+            case "env":
+                index = FlatKeyIndex.of(service.fetchEnvironment(hostAndPort));
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported record: " + record);
+        }
+        return index.search(query, FlatKeyIndex.Mode.of(mode),
+            Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT)));
     }
 
     @GetMapping("/{instanceId}/info")
@@ -114,18 +299,14 @@ public class InstanceController {
         // 注意descriptor可能为空
         //
         Map<String, Object> infoMap = MapUtils.toFlatMap(
-            Optional.ofNullable(descriptor).orElse(new InfoDescriptor()).getInfo())
-            .entrySet().stream()
-            .limit(3)
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            Optional.ofNullable(descriptor).orElse(new InfoDescriptor()).getInfo(),
+            INFO_OVERVIEW_SIZE);
 
         //
         // 接口层重新拼装一次前端需要的数据结构概览
         //
-        return RecordResponse.newBuilder()
-            .overview(infoMap)
-            .detail(TreeNodeConverter.convert(descriptor))
-            .build();
+        return RecordResponse.newBuilder().overview(infoMap)
+            .detail(TreeNodeConverter.convert(descriptor)).build();
     }
 
     @GetMapping("/{instanceId}/health")
@@ -158,8 +339,16 @@ public class InstanceController {
             .detail(TreeNodeConverter.convert(descriptor)).build();
     }
 
+    /**
+     * 查询实例 mappings
+     *
+     * @param instanceId 实例 ID
+     * @param depth      detail 展开层数，小于 0 时展开全部，未展开的节点可通过 /mappings/tree 按路径获取
+     * @return
+     */
     @GetMapping("/{instanceId}/mappings")
-    public RecordResponse getMappings(@PathVariable("instanceId") String instanceId) {
+    public RecordResponse getMappings(@PathVariable("instanceId") String instanceId,
+                                      @RequestParam(value = "depth", defaultValue = "2") int depth) {
         HostAndPort hostAndPort = HostPortUtils.getById(instanceId);
         MappingsDescriptor descriptor = service.fetchMappings(hostAndPort);
 
@@ -183,19 +372,142 @@ public class InstanceController {
             .overview("DispatcherServletCount", String.valueOf(dispatcherServletCount))
             .overview("ServletFilterCount", String.valueOf(servletFilterCount))
             .overview("ServletCount", String.valueOf(servletCount))
-            .detail(TreeNodeConverter.convert(descriptor))
+            .detail(TreeNodeConverter.render(TreeNodeConverter.view(descriptor),
+                Collections.emptyList(), depth < 0 ? Integer.MAX_VALUE : depth))
             .build();
     }
 
+    /**
+     * 按路径展开 mappings 子树，参数同 {@link #getEnvTree}
+     */
+    @GetMapping("/{instanceId}/mappings/tree")
+    public TreeNode getMappingsTree(@PathVariable("instanceId") String instanceId,
+                                    @RequestParam MultiValueMap<String, String> params,
+                                    @RequestParam(value = "depth", defaultValue = "1") int depth) {
+        HostAndPort hostAndPort = HostPortUtils.getById(instanceId);
+        MappingsDescriptor descriptor = service.fetchMappings(hostAndPort);
+        return TreeNodeConverter.render(TreeNodeConverter.view(descriptor), pathOf(params), depth);
+    }
+
+    /**
+     * 查询最近的内存概况
+     *
+     * @param instanceId 实例 ID
+     * @param timeFormat 时间格式：text 返回格式化的 timestamp 与 epochMillis，epoch 时不生成 timestamp
+     * @return
+     */
     @GetMapping("/{instanceId}/memory")
-    public List<StampedValueEntity<MemoryDescriptor>> getMemoryRecords(@PathVariable("instanceId") String instanceId) {
+    public List<StampedValueEntity<MemoryDescriptor>> getMemoryRecords(@PathVariable("instanceId") String instanceId,
+                                                                       @RequestParam(value = "timeFormat", defaultValue = TIME_FORMAT_TEXT) String timeFormat) {
         HostAndPort hostAndPort = HostPortUtils.getById(instanceId);
-        return service.fetchMemoryInfo(hostAndPort);
+        return applyTimeFormat(service.fetchMemoryInfo(hostAndPort), timeFormat);
     }
 
+    /**
+     * 查询最近的线程概况，参数同 {@link #getMemoryRecords}
+     */
     @GetMapping("/{instanceId}/thread")
-    public List<StampedValueEntity<ThreadSummaryDescriptor>> getThreadRecords(@PathVariable("instanceId") String instanceId) {
+    public List<StampedValueEntity<ThreadSummaryDescriptor>> getThreadRecords(@PathVariable("instanceId") String instanceId,
+                                                                              @RequestParam(value = "timeFormat", defaultValue = TIME_FORMAT_TEXT) String timeFormat) {
+        HostAndPort hostAndPort = HostPortUtils.getById(instanceId);
+        return applyTimeFormat(service.fetchThreadInfo(hostAndPort), timeFormat);
+    }
+
+    /**
+     * 以列存储格式查询最近的内存概况，数据与 {@link #getMemoryRecords} 一致，适合图表直接使用
+     *
+     * @param instanceId 实例 ID
+     * @return
+     */
+    @GetMapping(value = "/{instanceId}/memory", params = "format=columnar")
+    public ColumnarSeries getMemoryColumns(@PathVariable("instanceId") String instanceId) {
+        HostAndPort hostAndPort = HostPortUtils.getById(instanceId);
+        return service.fetchMemoryColumns(hostAndPort);
+    }
+
+    /**
+     * 以列存储格式查询最近的线程概况，数据与 {@link #getThreadRecords} 一致
+     */
+    @GetMapping(value = "/{instanceId}/thread", params = "format=columnar")
+    public ColumnarSeries getThreadColumns(@PathVariable("instanceId") String instanceId) {
         HostAndPort hostAndPort = HostPortUtils.getById(instanceId);
-        return service.fetchThreadInfo(hostAndPort);
+        return service.fetchThreadColumns(hostAndPort);
+    }
+
+    /**
+     * 查询时间范围内的内存概况序列
+     *
+     * @param instanceId 实例 ID
+     * @param from       起始时间戳(毫秒)，默认为 to 之前一小时
+     * @param to         结束时间戳(毫秒)，默认为当前时间
+     * @param resolution 时间粒度：raw, 1m, 10m，为空时按时间范围自动选择
+     * @param timeFormat 时间格式：text 或 epoch
+     * @return
+     */
+    @GetMapping("/{instanceId}/memory/series")
+    public List<StampedValueEntity<MetricAggregate>> getMemorySeries(@PathVariable("instanceId") String instanceId,
+                                                                     @RequestParam(value = "from", required = false) Long from,
+                                                                     @RequestParam(value = "to", required = false) Long to,
+                                                                     @RequestParam(value = "resolution", required = false) String resolution,
+                                                                     @RequestParam(value = "timeFormat", defaultValue = TIME_FORMAT_TEXT) String timeFormat) {
+        HostAndPort hostAndPort = HostPortUtils.getById(instanceId);
+        long end = to == null ? System.currentTimeMillis() : to;
+        long start = from == null ? end - DEFAULT_SERIES_RANGE : from;
+        return applyTimeFormat(
+            service.fetchMemoryInfo(hostAndPort, start, end, MetricResolution.of(resolution)),
+            timeFormat);
+    }
+
+    /**
+     * 查询时间范围内的线程概况序列，参数同 {@link #getMemorySeries}
+     */
+    @GetMapping("/{instanceId}/thread/series")
+    public List<StampedValueEntity<MetricAggregate>> getThreadSeries(@PathVariable("instanceId") String instanceId,
+                                                                     @RequestParam(value = "from", required = false) Long from,
+                                                                     @RequestParam(value = "to", required = false) Long to,
+                                                                     @RequestParam(value = "resolution", required = false) String resolution,
+                                                                     @RequestParam(value = "timeFormat", defaultValue = TIME_FORMAT_TEXT) String timeFormat) {
+        HostAndPort hostAndPort = HostPortUtils.getById(instanceId);
+        long end = to == null ? System.currentTimeMillis() : to;
+        long start = from == null ? end - DEFAULT_SERIES_RANGE : from;
+        return applyTimeFormat(
+            service.fetchThreadInfo(hostAndPort, start, end, MetricResolution.of(resolution)),
+            timeFormat);
+    }
+
+    /**
+     * 按属性源顺序查找属性，与原先依次覆盖写入的结果一致，后出现的属性源优先
+     */
+    private String findProperty(EnvironmentDescriptor descriptor, String key) {
+        if (descriptor == null) {
+            return null;
+        }
+        List<PropertySourceDescriptor> propertySources = descriptor.getPropertySources();
+        for (int i = propertySources.size() - 1; i >= 0; i--) {
+            PropertyValueDescriptor value = propertySources.get(i).getProperties().get(key);
+            if (value != null) {
+                return String.valueOf(value.getValue());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 直接读取原始参数值，避免路径中的逗号被当作列表分隔符
+     */
+    private List<String> pathOf(MultiValueMap<String, String> params) {
+        List<String> path = params.get("path");
+        return path == null ? Collections.emptyList() : path;
+    }
+
+    /**
+     * epoch 格式下不生成格式化的 timestamp，由客户端根据 epochMillis 自行展示
+     */
+    private <T extends StampedValueEntity<?>> List<T> applyTimeFormat(List<T> records,
+                                                                    String timeFormat) {
+        if (!TIME_FORMAT_EPOCH.equalsIgnoreCase(timeFormat)) {
+            records.forEach(StampedValueEntity::formatTimestamp);
+        }
+        return records;
     }
 }
@@ -18,21 +18,33 @@ package com.alipay.sofa.dashboard.controller;
 
 import com.alipay.sofa.common.utils.StringUtil;
 import com.alipay.sofa.dashboard.cache.RegistryDataCache;
+import com.alipay.sofa.dashboard.cache.RegistryDataSnapshot;
+import com.alipay.sofa.dashboard.cache.ServiceDependencyGraph;
 import com.alipay.sofa.dashboard.domain.RpcConsumer;
 import com.alipay.sofa.dashboard.domain.RpcProvider;
 import com.alipay.sofa.dashboard.domain.RpcService;
 import com.alipay.sofa.dashboard.model.ServiceAppModel;
+import com.alipay.sofa.dashboard.model.ServiceGraphModel;
 import com.alipay.sofa.dashboard.model.ServiceModel;
+import com.alipay.sofa.dashboard.response.JsonStreamingResponse;
 import com.alipay.sofa.rpc.common.utils.StringUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.net.URLDecoder;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -49,20 +61,30 @@ import java.util.Set;
 public class ServiceManageController {
 
     @Autowired
-    private RegistryDataCache registryDataCache;
+    private RegistryDataCache      registryDataCache;
+
+    @Autowired
+    private ServiceDependencyGraph serviceDependencyGraph;
+
+    @Autowired
+    private ObjectMapper           objectMapper;
 
     @GetMapping("/all-service")
-    public List<ServiceModel> queryServiceListByService(@RequestParam("query") String query) {
-        List<ServiceModel> data = new ArrayList<>();
-        Map<String, RpcService> rpcServices = registryDataCache.fetchService();
-        for (Map.Entry<String, RpcService> rpcServiceEntry : rpcServices.entrySet()) {
-            final String serviceName = rpcServiceEntry.getKey();
-            ServiceModel model = fetchServiceModel(serviceName);
-            if (model != null && (serviceName.contains(query) || StringUtils.isBlank(query))) {
-                data.add(model);
+    public ResponseEntity<StreamingResponseBody> queryServiceListByService(@RequestParam("query") String query,
+                                                                           @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return JsonStreamingResponse.of(objectMapper, acceptEncoding, generator -> {
+            generator.writeStartArray();
+            for (String serviceName : registryDataCache.fetchService().keySet()) {
+                if (StringUtils.isNotBlank(query) && !serviceName.contains(query)) {
+                    continue;
+                }
+                ServiceModel model = fetchServiceModel(serviceName);
+                if (model != null) {
+                    generator.writeObject(model);
+                }
             }
-        }
-        return data;
+            generator.writeEndArray();
+        });
     }
 
     /**
@@ -71,37 +93,40 @@ public class ServiceManageController {
      * @return
      */
     @GetMapping("/all-app")
-    public List<Map<String, String>> queryServiceListByApp(@RequestParam("query") String query) {
-        List<Map<String, String>> data = new ArrayList<>();
-        Map<String, RpcService> rpcServices = registryDataCache.fetchService();
-        for (Map.Entry<String, RpcService> rpcServiceEntry : rpcServices.entrySet()) {
-            final String serviceName = rpcServiceEntry.getKey();
-            List<RpcProvider> providers = registryDataCache.fetchProvidersByService(serviceName);
-            List<RpcConsumer> consumers = registryDataCache.fetchConsumersByService(serviceName);
-            if (providers != null && providers.size() > 0) {
-                providers.forEach((provider) -> {
-                    if (provider.getAppName() != null && !data.contains(provider.getAppName())) {
-                        Map<String, String> item = new HashMap<>();
-                        item.put("appName", provider.getAppName());
-                        if (provider.getAppName().contains(query) || StringUtils.isBlank(query)) {
-                            data.add(item);
-                        }
+    public ResponseEntity<StreamingResponseBody> queryServiceListByApp(@RequestParam("query") String query,
+                                                                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return JsonStreamingResponse.of(objectMapper, acceptEncoding, generator -> {
+            // 只记录已写出的应用名，用于去重
+            Set<String> writtenApps = new HashSet<>();
+            generator.writeStartArray();
+            for (String serviceName : registryDataCache.fetchService().keySet()) {
+                List<RpcProvider> providers = registryDataCache.fetchProvidersByService(serviceName);
+                if (providers != null) {
+                    for (RpcProvider provider : providers) {
+                        writeAppName(generator, provider.getAppName(), query, writtenApps);
                     }
-                });
-            }
-            if (consumers != null && consumers.size() > 0) {
-                consumers.forEach((consumer) -> {
-                    if (consumer.getAppName() != null && !data.contains(consumer.getAppName())) {
-                        Map<String, String> item = new HashMap<>();
-                        item.put("appName", consumer.getAppName());
-                        if (consumer.getAppName().contains(query) || StringUtils.isBlank(query)) {
-                            data.add(item);
-                        }
+                }
+                List<RpcConsumer> consumers = registryDataCache.fetchConsumersByService(serviceName);
+                if (consumers != null) {
+                    for (RpcConsumer consumer : consumers) {
+                        writeAppName(generator, consumer.getAppName(), query, writtenApps);
                     }
-                });
+                }
             }
+            generator.writeEndArray();
+        });
+    }
+
+    private void writeAppName(JsonGenerator generator, String appName, String query,
+                              Set<String> writtenApps) throws IOException {
+        if (appName == null || (StringUtils.isNotBlank(query) && !appName.contains(query))) {
+            return;
+        }
+        if (writtenApps.add(appName)) {
+            generator.writeStartObject();
+            generator.writeStringField("appName", appName);
+            generator.writeEndObject();
         }
-        return data;
     }
 
     /**
@@ -144,6 +169,19 @@ public class ServiceManageController {
         return result;
     }
 
+    /**
+     * 查询应用在给定深度内的服务依赖拓扑
+     *
+     * @param appName 中心应用
+     * @param depth   展开深度，默认 1
+     * @return
+     */
+    @GetMapping("graph")
+    public ServiceGraphModel queryServiceGraph(@RequestParam("appName") String appName,
+                                               @RequestParam(value = "depth", defaultValue = "1") int depth) {
+        return serviceDependencyGraph.neighborhood(appName, depth);
+    }
+
     private List<RpcProvider> fetchProviderData(String serviceName) {
         return registryDataCache.fetchProvidersByService(serviceName);
     }
@@ -174,25 +212,56 @@ public class ServiceManageController {
         return fetchConsumerData(dataId);
     }
 
+    /**
+     * 批量获取多个服务的提供方与消费方，数据取自同一份缓存快照，按服务逐个写出
+     * <pre>
+     * {"serviceA":{"providers":[...],"consumers":[...]}, ...}
+     * </pre>
+     *
+     * @param serviceNames 服务名列表
+     * @return
+     */
+    @PostMapping("query/bulk")
+    public ResponseEntity<StreamingResponseBody> queryServiceBulk(@RequestBody List<String> serviceNames,
+                                                                  @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        RegistryDataSnapshot snapshot = registryDataCache.fetchSnapshot(serviceNames);
+        return JsonStreamingResponse.of(objectMapper, acceptEncoding, generator -> {
+            generator.writeStartObject();
+            for (String serviceName : snapshot.getServiceNames()) {
+                generator.writeObjectFieldStart(serviceName);
+                generator.writeArrayFieldStart("providers");
+                for (RpcProvider provider : snapshot.getProviders(serviceName)) {
+                    generator.writeObject(provider);
+                }
+                generator.writeEndArray();
+                generator.writeArrayFieldStart("consumers");
+                for (RpcConsumer consumer : snapshot.getConsumers(serviceName)) {
+                    generator.writeObject(consumer);
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        });
+    }
+
     /**
      * 获取某个服务的所有提供方
      *
      * @return
      */
     @GetMapping("query/services")
-    public List<ServiceModel> queryService(@RequestParam("serviceName") String serviceName) {
-        List<ServiceModel> data = new ArrayList<>();
-
-        Map<String, RpcService> rpcServices = registryDataCache.fetchService();
-        for (Map.Entry<String, RpcService> rpcServiceEntry : rpcServices.entrySet()) {
-            final String currentServiceName = rpcServiceEntry.getKey();
-            if (StringUtil.contains(currentServiceName, serviceName)) {
-                ServiceModel model = fetchServiceModel(currentServiceName);
-                data.add(model);
+    public ResponseEntity<StreamingResponseBody> queryService(@RequestParam("serviceName") String serviceName,
+                                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return JsonStreamingResponse.of(objectMapper, acceptEncoding, generator -> {
+            generator.writeStartArray();
+            for (String currentServiceName : registryDataCache.fetchService().keySet()) {
+                if (StringUtil.contains(currentServiceName, serviceName)) {
+                    generator.writeObject(fetchServiceModel(currentServiceName));
+                }
             }
-        }
-
-        return data;
+            generator.writeEndArray();
+        });
     }
 
     /**
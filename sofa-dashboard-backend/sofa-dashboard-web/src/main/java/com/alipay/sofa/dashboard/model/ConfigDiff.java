@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 应用内实例配置差异：按配置指纹分组，只列出组间取值不同的键
+ **/
+public class ConfigDiff implements Serializable {
+
+    private static final long         serialVersionUID = 3405866101628712917L;
+
+    /**
+     * 比较的记录类型：env 或 loggers
+     */
+    private String                    record;
+
+    /**
+     * 有数据参与比较的实例数
+     */
+    private int                       instanceCount;
+
+    /**
+     * 按实例数降序排列的配置分组
+     */
+    private List<Group>               groups           = new ArrayList<>();
+
+    /**
+     * 键路径 -> 各分组的取值，顺序与 groups 一致，分组中不存在该键时为 null
+     */
+    private Map<String, List<String>> differences      = new LinkedHashMap<>();
+
+    public String getRecord() {
+        return record;
+    }
+
+    public void setRecord(String record) {
+        this.record = record;
+    }
+
+    public int getInstanceCount() {
+        return instanceCount;
+    }
+
+    public void setInstanceCount(int instanceCount) {
+        this.instanceCount = instanceCount;
+    }
+
+    public List<Group> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(List<Group> groups) {
+        this.groups = groups;
+    }
+
+    public Map<String, List<String>> getDifferences() {
+        return differences;
+    }
+
+    public void setDifferences(Map<String, List<String>> differences) {
+        this.differences = differences;
+    }
+
+    public static class Group implements Serializable {
+
+        private static final long serialVersionUID = -1960286153093187329L;
+
+        /**
+         * 配置指纹
+         */
+        private String            fingerprint;
+
+        /**
+         * 实例 ID 列表
+         */
+        private List<String>      instances        = new ArrayList<>();
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public void setFingerprint(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        public List<String> getInstances() {
+            return instances;
+        }
+
+        public void setInstances(List<String> instances) {
+            this.instances = instances;
+        }
+    }
+}
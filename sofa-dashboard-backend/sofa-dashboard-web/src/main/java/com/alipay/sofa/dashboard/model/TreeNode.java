@@ -34,6 +34,11 @@ public class TreeNode implements Serializable {
 
     private List<TreeNode>   children;
 
+    /**
+     * 未展开的子节点数，只在按层级截断时设置
+     */
+    private Integer          childCount;
+
     public TreeNode() {
     }
 
@@ -95,4 +100,12 @@ public class TreeNode implements Serializable {
     public void setChildren(List<TreeNode> children) {
         this.children = children;
     }
+
+    public Integer getChildCount() {
+        return childCount;
+    }
+
+    public void setChildCount(Integer childCount) {
+        this.childCount = childCount;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.response;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 流式 JSON 响应
+ * <p>
+ * 数据在写出时才从缓存中逐条读取并直接序列化到响应输出流，不预先构建完整结果集合；响应不设置 Content-Length，
+ * 由容器以 chunked 方式传输。请求头 Accept-Encoding 包含 gzip 时对输出做 gzip 压缩。
+ **/
+public final class JsonStreamingResponse {
+
+    private static final String GZIP        = "gzip";
+
+    private static final int    BUFFER_SIZE = 8192;
+
+    private JsonStreamingResponse() {
+    }
+
+    /**
+     * 构建流式响应
+     *
+     * @param objectMapper   序列化使用的 ObjectMapper
+     * @param acceptEncoding 请求头 Accept-Encoding，可为空
+     * @param writer         JSON 内容写出逻辑
+     * @return
+     */
+    public static ResponseEntity<StreamingResponseBody> of(ObjectMapper objectMapper,
+                                                           String acceptEncoding,
+                                                           JsonWriter writer) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains(GZIP);
+        StreamingResponseBody body = outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, BUFFER_SIZE)
+                : outputStream;
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(target);
+            writer.write(generator);
+            generator.flush();
+            if (gzip) {
+                ((GZIPOutputStream) target).finish();
+            }
+        };
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().contentType(
+            MediaType.APPLICATION_JSON_UTF8);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, GZIP).header(HttpHeaders.VARY,
+                HttpHeaders.ACCEPT_ENCODING);
+        }
+        return builder.body(body);
+    }
+
+    /**
+     * JSON 内容写出逻辑
+     */
+    @FunctionalInterface
+    public interface JsonWriter {
+
+        void write(JsonGenerator generator) throws IOException;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.utils;
+
+import com.alipay.sofa.dashboard.model.ConfigDiff;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * 实例配置差异比较
+ * <p>
+ * 先按 {@link FlatKeyIndex#fingerprint()} 将实例分组，指纹相同的实例配置相同，不再逐键比较；
+ * 之后只在各分组的代表实例之间比较键值，比较次数与分组数相关而与实例数无关。
+ **/
+public final class ConfigDiffUtils {
+
+    private ConfigDiffUtils() {
+    }
+
+    /**
+     * @param record  记录类型
+     * @param indexes 实例 ID -> 扁平化索引
+     * @return
+     */
+    public static ConfigDiff diff(String record, Map<String, FlatKeyIndex> indexes) {
+        Map<String, List<String>> members = new LinkedHashMap<>();
+        Map<String, FlatKeyIndex> representatives = new LinkedHashMap<>();
+        indexes.forEach((instanceId, index) -> {
+            String fingerprint = index.fingerprint();
+            members.computeIfAbsent(fingerprint, it -> new ArrayList<>()).add(instanceId);
+            representatives.putIfAbsent(fingerprint, index);
+        });
+
+        ConfigDiff result = new ConfigDiff();
+        result.setRecord(record);
+        result.setInstanceCount(indexes.size());
+        members.forEach((fingerprint, instances) -> {
+            ConfigDiff.Group group = new ConfigDiff.Group();
+            group.setFingerprint(fingerprint);
+            group.setInstances(instances);
+            result.getGroups().add(group);
+        });
+        result.getGroups().sort((a, b) -> b.getInstances().size() - a.getInstances().size());
+        if (result.getGroups().size() < 2) {
+            return result;
+        }
+
+        List<Map<String, String>> groupValues = new ArrayList<>(result.getGroups().size());
+        TreeSet<String> keys = new TreeSet<>();
+        for (ConfigDiff.Group group : result.getGroups()) {
+            Map<String, String> values = representatives.get(group.getFingerprint()).asMap();
+            groupValues.add(values);
+            keys.addAll(values.keySet());
+        }
+        for (String key : keys) {
+            List<String> values = new ArrayList<>(groupValues.size());
+            boolean differs = false;
+            for (Map<String, String> group : groupValues) {
+                String value = group.get(key);
+                if (!values.isEmpty() && !Objects.equals(values.get(0), value)) {
+                    differs = true;
+                }
+                values.add(value);
+            }
+            if (differs) {
+                result.getDifferences().put(key, values);
+            }
+        }
+        return result;
+    }
+}
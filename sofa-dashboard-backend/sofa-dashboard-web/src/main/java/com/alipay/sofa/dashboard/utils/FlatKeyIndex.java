@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.utils;
+
+import com.alipay.sofa.dashboard.client.model.env.EnvironmentDescriptor;
+import com.alipay.sofa.dashboard.client.model.env.PropertySourceDescriptor;
+import com.alipay.sofa.dashboard.client.model.logger.LoggersDescriptor;
+import com.alipay.sofa.dashboard.client.model.mappings.MappingsDescriptor;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * 描述对象扁平化后的键路径索引，支持前缀与子串搜索，均忽略大小写
+ * <p>
+ * 键路径按小写排序存储，前缀搜索二分定位，子串搜索顺序扫描预先转换好的小写键。
+ * 索引以描述对象本身为弱引用键缓存，描述对象被新记录替换后对应索引随之回收。
+ **/
+public final class FlatKeyIndex {
+
+    private static final int                         MAX_CACHED_INDEXES = 256;
+
+    private static final Cache<Object, FlatKeyIndex> CACHE              = CacheBuilder
+                                                                            .newBuilder()
+                                                                            .weakKeys()
+                                                                            .maximumSize(
+                                                                                MAX_CACHED_INDEXES)
+                                                                            .build();
+
+    public enum Mode {
+        PREFIX, SUBSTRING;
+
+        public static Mode of(String name) {
+            return "substring".equalsIgnoreCase(name) ? SUBSTRING : PREFIX;
+        }
+    }
+
+    private final String[]  keys;
+
+    private final String[]  lowerKeys;
+
+    private final String[]  values;
+
+    /**
+     * 全部键值对的指纹，首次使用时计算
+     */
+    private volatile String fingerprint;
+
+    private FlatKeyIndex(Map<String, Object> flatMap) {
+        List<Map.Entry<String, Object>> entries = new ArrayList<>(flatMap.entrySet());
+        String[] lower = new String[entries.size()];
+        Integer[] order = new Integer[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            lower[i] = String.valueOf(entries.get(i).getKey()).toLowerCase(Locale.ROOT);
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> lower[i]));
+
+        this.keys = new String[order.length];
+        this.lowerKeys = new String[order.length];
+        this.values = new String[order.length];
+        for (int i = 0; i < order.length; i++) {
+            Map.Entry<String, Object> entry = entries.get(order[i]);
+            keys[i] = String.valueOf(entry.getKey());
+            lowerKeys[i] = lower[order[i]];
+            values[i] = String.valueOf(entry.getValue());
+        }
+    }
+
+    /**
+     * 环境变量索引，键路径为 属性源名.属性名，过滤方式与树形展示一致
+     */
+    public static FlatKeyIndex of(EnvironmentDescriptor descriptor) {
+        return cached(descriptor, it -> {
+            Map<String, Object> nested = new LinkedHashMap<>();
+            for (PropertySourceDescriptor propertySource : it.getPropertySources()) {
+                if (TreeNodeConverter.ENV_FILTERS.contains(propertySource.getName())) {
+                    continue;
+                }
+                Map<String, Object> properties = new HashMap<>();
+                propertySource.getProperties().forEach((key, value) ->
+                        properties.put(key, value.getValue()));
+                nested.put(propertySource.getName(), properties);
+            }
+            return nested;
+        });
+    }
+
+    /**
+     * logger 索引，键路径为 logger 名，值为生效级别
+     */
+    public static FlatKeyIndex of(LoggersDescriptor descriptor) {
+        return cached(descriptor, it -> {
+            Map<String, Object> nested = new HashMap<>();
+            it.getLoggers().forEach((name, logger) -> nested.put(name, logger.getEffectiveLevel()));
+            return nested;
+        });
+    }
+
+    /**
+     * mappings 索引，键路径为 mapping名.分组.名称，分组与树形展示一致
+     */
+    public static FlatKeyIndex of(MappingsDescriptor descriptor) {
+        return cached(descriptor, it -> {
+            Map<String, Object> nested = new HashMap<>();
+            it.getMappings().forEach((name, mapping) -> {
+                Map<String, Object> groups = new HashMap<>();
+                Map<String, Object> dispatchServlet = new HashMap<>();
+                mapping.getDispatcherServlet().forEach(servlet ->
+                        dispatchServlet.put(servlet.getHandler(), servlet.getPredicate()));
+                Map<String, Object> servletFilter = new HashMap<>();
+                mapping.getServletFilters().forEach(filter ->
+                        servletFilter.put(filter.getName(), filter.getUrlPatternMappings()));
+                Map<String, Object> servlet = new HashMap<>();
+                mapping.getServlets().forEach(item ->
+                        servlet.put(item.getClassName(), item.getMappings()));
+                groups.put("dispatchServlet", dispatchServlet);
+                groups.put("servletFilter", servletFilter);
+                groups.put("servlet", servlet);
+                nested.put(name, groups);
+            });
+            return nested;
+        });
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * 按排序后的键值对计算 128 位指纹，键值完全相同的两个索引指纹相同
+     *
+     * @return 十六进制指纹
+     */
+    public String fingerprint() {
+        String result = fingerprint;
+        if (result == null) {
+            Hasher hasher = Hashing.murmur3_128().newHasher();
+            for (int i = 0; i < keys.length; i++) {
+                hasher.putString(keys[i], StandardCharsets.UTF_8).putChar('\0')
+                    .putString(values[i], StandardCharsets.UTF_8).putChar('\0');
+            }
+            result = hasher.hash().toString();
+            fingerprint = result;
+        }
+        return result;
+    }
+
+    /**
+     * 全部键值对，按键路径排序
+     */
+    public Map<String, String> asMap() {
+        Map<String, String> result = new LinkedHashMap<>(keys.length * 4 / 3 + 1);
+        for (int i = 0; i < keys.length; i++) {
+            result.put(keys[i], values[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 搜索键路径
+     *
+     * @param query 搜索词，为空时匹配全部
+     * @param mode  匹配方式
+     * @param limit 最多返回条数
+     * @return 键路径 -> 值，按键路径排序
+     */
+    public Map<String, String> search(String query, Mode mode, int limit) {
+        Map<String, String> result = new LinkedHashMap<>();
+        String lowerQuery = query == null ? "" : query.toLowerCase(Locale.ROOT);
+        if (mode == Mode.PREFIX) {
+            for (int i = lowerBound(lowerQuery); i < lowerKeys.length && result.size() < limit
+                                                 && lowerKeys[i].startsWith(lowerQuery); i++) {
+                result.put(keys[i], values[i]);
+            }
+        } else {
+            for (int i = 0; i < lowerKeys.length && result.size() < limit; i++) {
+                if (lowerKeys[i].contains(lowerQuery)) {
+                    result.put(keys[i], values[i]);
+                }
+            }
+        }
+        return result;
+    }
+
+    private int lowerBound(String target) {
+        int low = 0;
+        int high = lowerKeys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lowerKeys[mid].compareTo(target) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static <T> FlatKeyIndex cached(T descriptor, Function<T, Map<String, Object>> nested) {
+        if (descriptor == null) {
+            return new FlatKeyIndex(new HashMap<>());
+        }
+        try {
+            return CACHE.get(descriptor,
+                () -> new FlatKeyIndex(MapUtils.toFlatMap(nested.apply(descriptor))));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
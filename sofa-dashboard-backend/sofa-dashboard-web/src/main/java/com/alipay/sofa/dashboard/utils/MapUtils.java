@@ -16,10 +16,13 @@
  */
 package com.alipay.sofa.dashboard.utils;
 
-import org.springframework.util.StringUtils;
-
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.BiPredicate;
 
 /**
  * @author chen.pengzhi (chpengzh@foxmail.com)
@@ -54,24 +57,82 @@ public final class MapUtils {
      * @return flat map
      */
     public static Map<String, Object> toFlatMap(Map<String, Object> origin) {
-        return toFlatMap(null, origin);
+        Map<String, Object> result = new HashMap<>();
+        flatten(origin, (key, value) -> {
+            result.put(key, value);
+            return true;
+        });
+        return result;
     }
 
-    private static Map<String, Object> toFlatMap(String prefix, Map<String, Object> origin) {
-        Map<String, Object> result = new HashMap<>();
-        for (Map.Entry<String, Object> entry : origin.entrySet()) {
-            String nextKey = StringUtils.isEmpty(prefix) ? entry.getKey() : prefix + "."
-                                                                            + entry.getKey();
+    /**
+     * Transform a complex dictionary into flat map, keep at most {@code limit} entries in
+     * traversal order and stop as soon as the limit is reached
+     *
+     * @param origin origin map
+     * @param limit  max entries
+     * @return flat map
+     */
+    public static Map<String, Object> toFlatMap(Map<String, Object> origin, int limit) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (limit <= 0) {
+            return result;
+        }
+        flatten(origin, (key, value) -> {
+            result.put(key, value);
+            return result.size() < limit;
+        });
+        return result;
+    }
+
+    /**
+     * Walk a complex dictionary depth first without recursion and emit every leaf to sink.
+     * Nested levels share one key buffer, each leaf key is created once
+     *
+     * @param origin origin map
+     * @param sink   receives flat key and value, returns false to stop walking
+     */
+    @SuppressWarnings("unchecked")
+    public static void flatten(Map<String, Object> origin, BiPredicate<String, Object> sink) {
+        if (origin == null) {
+            return;
+        }
+        StringBuilder key = new StringBuilder();
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(origin.entrySet().iterator(), 0));
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            if (!frame.iterator.hasNext()) {
+                stack.pop();
+                continue;
+            }
+            Map.Entry<String, Object> entry = frame.iterator.next();
+            key.setLength(frame.prefixLength);
+            if (frame.prefixLength > 0) {
+                key.append('.');
+            }
+            key.append(entry.getKey());
             if (entry.getValue() instanceof Map) {
-                //noinspection unchecked
-                Map<String, Object> innerResult = toFlatMap(nextKey,
-                    (Map<String, Object>) entry.getValue());
-                result.putAll(innerResult);
-            } else {
-                result.put(nextKey, entry.getValue());
+                stack.push(new Frame(
+                    ((Map<String, Object>) entry.getValue()).entrySet().iterator(), key.length()));
+            } else if (!sink.test(key.toString(), entry.getValue())) {
+                return;
             }
         }
-        return result;
     }
 
+    private static final class Frame {
+
+        private final Iterator<Map.Entry<String, Object>> iterator;
+
+        /**
+         * 该层键前缀在共享缓冲区中的长度
+         */
+        private final int                                 prefixLength;
+
+        Frame(Iterator<Map.Entry<String, Object>> iterator, int prefixLength) {
+            this.iterator = iterator;
+            this.prefixLength = prefixLength;
+        }
+    }
 }
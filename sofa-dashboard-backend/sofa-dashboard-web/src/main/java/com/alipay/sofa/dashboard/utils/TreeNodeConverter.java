@@ -18,7 +18,6 @@ package com.alipay.sofa.dashboard.utils;
 
 import com.alipay.sofa.dashboard.client.model.env.EnvironmentDescriptor;
 import com.alipay.sofa.dashboard.client.model.env.PropertySourceDescriptor;
-import com.alipay.sofa.dashboard.client.model.env.PropertyValueDescriptor;
 import com.alipay.sofa.dashboard.client.model.health.HealthDescriptor;
 import com.alipay.sofa.dashboard.client.model.info.InfoDescriptor;
 import com.alipay.sofa.dashboard.client.model.logger.LoggersDescriptor;
@@ -26,42 +25,53 @@ import com.alipay.sofa.dashboard.client.model.mappings.MappingsDescriptor;
 import com.alipay.sofa.dashboard.model.TreeNode;
 import com.google.common.collect.Sets;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author chen.pengzhi (chpengzh@foxmail.com)
  */
 public final class TreeNodeConverter {
 
+    static final Set<String> ENV_FILTERS = Sets.newHashSet("systemProperties", "systemEnvironment");
+
     private TreeNodeConverter() {
     }
 
     public static TreeNode convert(EnvironmentDescriptor descriptor) {
-        TreeNode root = TreeNode.create("Environment", null);
+        return render(view(descriptor), Collections.emptyList(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * 环境变量的树形视图，过滤系统属性与系统环境变量
+     */
+    public static TreeView view(EnvironmentDescriptor descriptor) {
         if (descriptor == null) {
-            return root;
+            return TreeView.leaf("Environment", null);
         }
 
-        Set<String> propFilters = Sets.newHashSet("systemProperties", "systemEnvironment");
-
-        return root
-            .child("activeProfiles", descriptor.getActiveProfiles().toString())
-            .child("propertySources", (propertySourcesTree) -> {
-                for (PropertySourceDescriptor propertySource : descriptor.getPropertySources()) {
-                    if (propFilters.contains(propertySource.getName())) {
-                        continue;
-                    }
-                    propertySourcesTree.child(propertySource.getName(), (propertyValueTree) -> {
-
-                        for (Map.Entry<String, PropertyValueDescriptor> entry :
-                            propertySource.getProperties().entrySet()) {
-                            propertyValueTree.child(entry.getKey(),
-                                String.valueOf(entry.getValue().getValue()));
-                        }
-                    });
-                }
-            });
+        List<PropertySourceDescriptor> propertySources = descriptor.getPropertySources().stream()
+            .filter(it -> !ENV_FILTERS.contains(it.getName()))
+            .collect(Collectors.toList());
+
+        TreeView propertySourcesView = TreeView.branch("propertySources", null,
+            propertySources.size(), () -> iterable(propertySources.stream().map(
+                propertySource -> TreeView.branch(propertySource.getName(), null,
+                    propertySource.getProperties().size(),
+                    () -> iterable(propertySource.getProperties().entrySet().stream()
+                        .map(entry -> TreeView.leaf(entry.getKey(),
+                            String.valueOf(entry.getValue().getValue()))))))));
+
+        return TreeView.branch("Environment", null, 2, () -> Arrays.asList(
+            TreeView.leaf("activeProfiles", descriptor.getActiveProfiles().toString()),
+            propertySourcesView));
     }
 
     public static TreeNode convert(InfoDescriptor descriptor) {
@@ -86,37 +96,37 @@ public final class TreeNodeConverter {
     }
 
     public static TreeNode convert(MappingsDescriptor descriptor) {
-        TreeNode root = TreeNode.create("Mappings", null);
+        return render(view(descriptor), Collections.emptyList(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * mappings 的树形视图，每个 mapping 下分为 dispatchServlet、servletFilter、servlet 三组
+     */
+    public static TreeView view(MappingsDescriptor descriptor) {
         if (descriptor == null || descriptor.getMappings() == null) {
-            return root;
+            return TreeView.leaf("Mappings", null);
         }
 
-        descriptor.getMappings().forEach((name, mapping) -> {
-            root.child(name, (tree) -> {
-                tree.child("dispatchServlet", (dispatchServletTree) -> {
+        Map<String, MappingsDescriptor.MappingEntryDescriptor> mappings = descriptor.getMappings();
+        return TreeView.branch("Mappings", null, mappings.size(), () -> iterable(mappings
+            .entrySet().stream().map(entry -> {
+                String name = entry.getKey();
+                MappingsDescriptor.MappingEntryDescriptor mapping = entry.getValue();
+                return TreeView.branch(name, null, 3, () -> Arrays.asList(
                     // dispatch servlet
-                    mapping.getDispatcherServlet().forEach((dispatchServlet) ->
-                        dispatchServletTree.child(dispatchServlet.getHandler(),
-                            dispatchServlet.getPredicate()));
-                });
-
-                tree.child("servletFilter", (servletFilterTree) -> {
+                    TreeView.branch("dispatchServlet", null,
+                        mapping.getDispatcherServlet().size(),
+                        () -> iterable(mapping.getDispatcherServlet().stream()
+                            .map(it -> TreeView.leaf(it.getHandler(), it.getPredicate())))),
                     // servlet filter
-                    mapping.getServletFilters().forEach((servletFilter) ->
-                        servletFilterTree.child(servletFilter.getName(),
-                            servletFilter.getUrlPatternMappings()));
-                });
-
-                tree.child("servlet", (servletTree) -> {
+                    TreeView.branch("servletFilter", null, mapping.getServletFilters().size(),
+                        () -> iterable(mapping.getServletFilters().stream()
+                            .map(it -> TreeView.leaf(it.getName(), it.getUrlPatternMappings())))),
                     // servlet
-                    mapping.getServlets().forEach((servlet) ->
-                        servletTree.child(servlet.getClassName(),
-                            servlet.getMappings()));
-                });
-            });
-        });
-
-        return root;
+                    TreeView.branch("servlet", null, mapping.getServlets().size(),
+                        () -> iterable(mapping.getServlets().stream()
+                            .map(it -> TreeView.leaf(it.getClassName(), it.getMappings()))))));
+            })));
     }
 
     public static TreeNode convert(HealthDescriptor descriptor) {
@@ -125,6 +135,52 @@ public final class TreeNodeConverter {
         return root;
     }
 
+    /**
+     * 按路径定位节点，只展开其下 depth 层，未展开的节点只返回子节点数
+     *
+     * @param root  根节点视图
+     * @param path  自根节点的子节点名称路径，为空时从根节点开始，同名节点取第一个
+     * @param depth 展开层数，0 表示只返回目标节点本身
+     * @return 目标节点，路径不存在时返回 {@code null}
+     */
+    public static TreeNode render(TreeView root, List<String> path, int depth) {
+        TreeView target = root;
+        for (String name : path) {
+            TreeView next = null;
+            for (TreeView child : target.children()) {
+                if (Objects.equals(child.getName(), name)) {
+                    next = child;
+                    break;
+                }
+            }
+            if (next == null) {
+                return null;
+            }
+            target = next;
+        }
+        return render(target, depth);
+    }
+
+    private static TreeNode render(TreeView view, int depth) {
+        TreeNode node = TreeNode.create(view.getName(), view.getValue());
+        if (!view.isBranch()) {
+            return node;
+        }
+        if (depth <= 0 && view.getChildCount() > 0) {
+            node.setChildCount(view.getChildCount());
+            return node;
+        }
+        node.setChildren(new ArrayList<>(view.getChildCount()));
+        for (TreeView child : view.children()) {
+            node.child(render(child, depth - 1));
+        }
+        return node;
+    }
+
+    private static Iterable<TreeView> iterable(Stream<TreeView> stream) {
+        return stream::iterator;
+    }
+
     private static void convertMap(TreeNode root, Map<String, Object> childMap) {
         if (childMap == null || childMap.isEmpty()) {
             return;
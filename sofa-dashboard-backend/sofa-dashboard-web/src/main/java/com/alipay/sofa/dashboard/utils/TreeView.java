@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.utils;
+
+import java.util.Collections;
+import java.util.function.Supplier;
+
+/**
+ * 描述对象的只读树形视图，子节点在遍历时才生成，不复制描述对象中的数据
+ * <p>
+ * 配合 {@link TreeNodeConverter#render(TreeView, java.util.List, int)} 只展开指定路径下有限层级的节点
+ **/
+public final class TreeView {
+
+    private final String                       name;
+
+    private final String                       value;
+
+    private final boolean                      branch;
+
+    private final int                          childCount;
+
+    private final Supplier<Iterable<TreeView>> children;
+
+    private TreeView(String name, String value, boolean branch, int childCount,
+                     Supplier<Iterable<TreeView>> children) {
+        this.name = name;
+        this.value = value;
+        this.branch = branch;
+        this.childCount = childCount;
+        this.children = children;
+    }
+
+    public static TreeView leaf(String name, String value) {
+        return new TreeView(name, value, false, 0, Collections::emptyList);
+    }
+
+    /**
+     * @param name       节点名
+     * @param value      节点值
+     * @param childCount 子节点数，需与 children 生成的节点数一致
+     * @param children   子节点生成器，每次遍历时调用
+     * @return
+     */
+    public static TreeView branch(String name, String value, int childCount,
+                                  Supplier<Iterable<TreeView>> children) {
+        return new TreeView(name, value, true, childCount, children);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * 是否为分支节点，分支节点即使没有子节点也输出空的 children
+     */
+    public boolean isBranch() {
+        return branch;
+    }
+
+    public int getChildCount() {
+        return childCount;
+    }
+
+    public Iterable<TreeView> children() {
+        return children.get();
+    }
+}
@@ -0,0 +1,12 @@
+-- ----------------------------
+-- ark_module_* 表索引，基线表结构见 sql/SofaDashboardDB.sql
+-- 已有数据中可能存在同名插件或者同一插件的重复版本，这里只建普通索引，升级前不需要清理数据
+-- ----------------------------
+-- 插件名等值查询
+CREATE INDEX idx_ark_module_info_plugin_name ON ark_module_info (plugin_name);
+-- 按插件查询版本
+CREATE INDEX idx_ark_module_version_module_version ON ark_module_version (module_id, module_version);
+-- 按插件查询以及删除关联应用
+CREATE INDEX idx_ark_module_app_module_app ON ark_module_app (module_id, app_name);
+-- 按插件删除负责人
+CREATE INDEX idx_ark_module_user_module_id ON ark_module_user (module_id);
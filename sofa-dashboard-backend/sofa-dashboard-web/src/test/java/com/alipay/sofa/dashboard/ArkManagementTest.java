@@ -19,6 +19,7 @@ package com.alipay.sofa.dashboard;
 import com.alipay.sofa.dashboard.base.AbstractTestBase;
 import com.alipay.sofa.dashboard.constants.SofaDashboardConstants;
 import com.alipay.sofa.dashboard.controller.ArkMngController;
+import com.alipay.sofa.dashboard.model.ArkPluginBatchModel;
 import com.alipay.sofa.dashboard.model.ArkPluginModel;
 import org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.curator.retry.ExponentialBackoffRetry;
@@ -30,6 +31,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -91,4 +93,26 @@ public class ArkManagementTest extends AbstractTestBase {
             .getForEntity(findReq, List.class, "test_plugin");
         Assert.assertEquals(1, result3.getBody().size());
     }
+
+    @Test
+    public void testBatchWithMissingPlugin() {
+        ArkPluginModel.Version version = new ArkPluginModel.Version();
+        version.setVersion("1.0");
+        version.setSourcePath("file:///a");
+        ArkPluginBatchModel batch = new ArkPluginBatchModel();
+        batch.setId(Integer.MAX_VALUE);
+        batch.setVersions(Collections.singletonList(version));
+        batch.setAppNames(Collections.singletonList("app-a"));
+
+        com.alipay.sofa.dashboard.response.ResponseEntity<Map<String, Boolean>> versions = arkMngController
+            .batchRegisterVersion(batch);
+        Assert.assertFalse(versions.isSuccess());
+        Assert.assertEquals("plugin not found: " + Integer.MAX_VALUE, versions.getError());
+        Assert.assertNull(versions.getData());
+
+        com.alipay.sofa.dashboard.response.ResponseEntity<Map<String, Boolean>> apps = arkMngController
+            .batchRelatedApp(batch);
+        Assert.assertFalse(apps.isSuccess());
+        Assert.assertEquals("plugin not found: " + Integer.MAX_VALUE, apps.getError());
+    }
 }
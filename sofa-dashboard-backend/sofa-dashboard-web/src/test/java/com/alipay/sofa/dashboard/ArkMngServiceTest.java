@@ -26,8 +26,11 @@ import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author: guolei.sgl (guolei.sgl@antfin.com) 2019/7/22 2:32 PM
@@ -79,6 +82,126 @@ public class ArkMngServiceTest extends AbstractTestBase {
         Assert.assertTrue(isDelete);
     }
 
+    @Test
+    public void testFetchRegisteredPluginsWithApps() {
+        ArkPluginDO other = new ArkPluginDO();
+        other.setCreateTime(new Date());
+        other.setPluginName("other-plugin");
+        Assert.assertTrue(arkMngService.registerPlugin(other));
+        int mId = getPluginId("test-plugin");
+        int otherId = getPluginId("other-plugin");
+        try {
+            arkMngService.addNewVersion(mId, "1.0", "file:///a");
+            arkMngService.addNewVersion(mId, "2.0", "file:///b");
+            arkMngService.addNewVersion(otherId, "3.0", "file:///c");
+            arkMngService.relatedAppToPlugin(mId, "test-app");
+
+            List<ArkPluginModel> plugins = arkMngService.fetchRegisteredPluginsWithApps();
+            int matched = 0;
+            for (ArkPluginModel plugin : plugins) {
+                if (plugin.getId() == mId) {
+                    matched++;
+                    Assert.assertEquals(2, plugin.getVersions().size());
+                    Assert.assertEquals("1.0", plugin.getVersions().get(0).getVersion());
+                    Assert.assertEquals(1, plugin.getAppArkList().size());
+                    Assert.assertEquals("test-app", plugin.getAppArkList().get(0).getAppName());
+                } else if (plugin.getId() == otherId) {
+                    matched++;
+                    Assert.assertEquals(1, plugin.getVersions().size());
+                    Assert.assertTrue(plugin.getAppArkList().isEmpty());
+                }
+            }
+            Assert.assertEquals(2, matched);
+            // 普通查询不填充关联应用
+            Assert.assertNull(arkMngService.fetchPluginsByName("test-plugin").get(0)
+                .getAppArkList());
+        } finally {
+            arkMngService.cancelRelatedAppToPlugin("test-plugin", "test-app");
+            arkMngService.removePlugins(otherId);
+        }
+    }
+
+    @Test
+    public void testFetchPluginsByNamePrefix() {
+        Assert.assertEquals(1, arkMngService.fetchPluginsByNamePrefix("test-plug").size());
+        Assert.assertTrue(arkMngService.fetchPluginsByNamePrefix("plugin").isEmpty());
+    }
+
+    @Test
+    public void testMetadataCache() {
+        arkMngService.fetchRegisteredPlugins();
+        long hitCount = arkMngService.fetchCacheStats().get("hitCount");
+        long missCount = arkMngService.fetchCacheStats().get("missCount");
+        arkMngService.fetchPluginsByName("test");
+        Assert.assertTrue(arkMngService.fetchCacheStats().get("hitCount") > hitCount);
+        Assert
+            .assertEquals(missCount, arkMngService.fetchCacheStats().get("missCount").longValue());
+
+        // 写操作后立即可见
+        int mId = getPluginId("test-plugin");
+        arkMngService.addNewVersion(mId, "9.0", "file:///cache");
+        Assert.assertEquals(1, arkMngService.fetchPluginsByName("test-plugin").get(0).getVersions()
+            .size());
+        Assert.assertTrue(arkMngService.fetchCacheStats().get("missCount") > missCount);
+        arkMngService.deleteVersion(mId, "9.0");
+        Assert.assertTrue(arkMngService.fetchPluginsByName("test-plugin").get(0).getVersions()
+            .isEmpty());
+    }
+
+    @Test
+    public void testBatchVersions() {
+        int mId = getPluginId("test-plugin");
+        Assert.assertTrue(arkMngService.addNewVersion(mId, "1.0", "file:///a"));
+        List<ArkPluginModel.Version> versions = new ArrayList<>();
+        versions.add(newVersion("1.0", "file:///a"));
+        versions.add(newVersion("2.0", "file:///b"));
+        versions.add(newVersion("3.0", "file:///c"));
+        versions.add(newVersion("2.0", "file:///b"));
+
+        Map<String, Boolean> added = arkMngService.addNewVersions(mId, versions);
+        Assert.assertEquals(3, added.size());
+        Assert.assertFalse(added.get("1.0"));
+        Assert.assertTrue(added.get("2.0"));
+        Assert.assertTrue(added.get("3.0"));
+        Assert.assertEquals(3, arkMngService.fetchPluginsByName("test-plugin").get(0).getVersions()
+            .size());
+
+        Map<String, Boolean> deleted = arkMngService.deleteVersions(mId,
+            Arrays.asList("1.0", "3.0", "4.0"));
+        Assert.assertTrue(deleted.get("1.0"));
+        Assert.assertTrue(deleted.get("3.0"));
+        Assert.assertFalse(deleted.get("4.0"));
+        List<ArkPluginModel.Version> remain = arkMngService.fetchPluginsByName("test-plugin")
+            .get(0).getVersions();
+        Assert.assertEquals(1, remain.size());
+        Assert.assertEquals("2.0", remain.get(0).getVersion());
+    }
+
+    @Test
+    public void testBatchRelatedApps() {
+        int mId = getPluginId("test-plugin");
+        arkMngService.relatedAppToPlugin(mId, "app-a");
+        Map<String, Boolean> related = arkMngService.relatedAppsToPlugin(mId,
+            Arrays.asList("app-a", "app-b", "app-c"));
+        Assert.assertFalse(related.get("app-a"));
+        Assert.assertTrue(related.get("app-b"));
+        Assert.assertTrue(related.get("app-c"));
+        Assert.assertEquals(3, arkMngService.queryAppsByPlugin("test-plugin").size());
+
+        Map<String, Boolean> canceled = arkMngService.cancelRelatedAppsToPlugin(mId,
+            Arrays.asList("app-a", "app-b", "app-c", "app-d"));
+        Assert.assertTrue(canceled.get("app-a"));
+        Assert.assertFalse(canceled.get("app-d"));
+        Assert.assertTrue(arkMngService.queryAppsByPlugin("test-plugin").isEmpty());
+    }
+
+    private ArkPluginModel.Version newVersion(String version, String sourcePath) {
+        ArkPluginModel.Version result = new ArkPluginModel.Version();
+        result.setVersion(version);
+        result.setSourcePath(sourcePath);
+        return result;
+    }
+
     private int getPluginId(String pluginName) {
         List<ArkPluginModel> arkPluginModels = arkMngService.fetchPluginsByName(pluginName);
 
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard;
+
+import com.alipay.sofa.dashboard.base.AbstractTestBase;
+import com.alipay.sofa.dashboard.constants.SofaDashboardConstants;
+import com.alipay.sofa.dashboard.impl.ArkRolloutManager;
+import com.alipay.sofa.dashboard.impl.ZkNodeMirror;
+import com.alipay.sofa.dashboard.model.RolloutModel;
+import com.alipay.sofa.dashboard.model.RolloutModel.HostState;
+import com.alipay.sofa.dashboard.model.RolloutModel.Status;
+import com.alipay.sofa.dashboard.model.RolloutRequest;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.zookeeper.CreateMode;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+public class ArkRolloutManagerTest extends AbstractTestBase {
+
+    private static final String APP_NAME = "rolloutApp";
+
+    @Autowired
+    private ArkRolloutManager   arkRolloutManager;
+
+    @Before
+    public void before() throws Exception {
+        client = CuratorFrameworkFactory.newClient("localhost:2181", new ExponentialBackoffRetry(
+            1000, 3));
+        client.start();
+        createNode(SofaDashboardConstants.SOFA_ARK_ROOT + SofaDashboardConstants.SEPARATOR
+                   + APP_NAME, "".getBytes(), CreateMode.PERSISTENT);
+    }
+
+    @After
+    public void after() {
+        client.close();
+    }
+
+    @Test
+    public void testRolloutInWaves() throws Exception {
+        RolloutModel rollout = arkRolloutManager.start(request("10.2.0.", 5, 2, null));
+        Assert.assertEquals(3, rollout.getTotalWaves());
+        String id = rollout.getId();
+
+        for (int wave = 0; wave < 3; wave++) {
+            int current = wave;
+            rollout = await(id, model -> model.getCurrentWave() == current
+                                         && allInWave(model, current, HostState.PUSHED));
+            // 后续批次在当前批次激活前不会推送
+            for (RolloutModel.Host host : rollout.getHosts()) {
+                if (host.getWave() > current) {
+                    Assert.assertEquals(HostState.PENDING, host.getState());
+                }
+            }
+            for (RolloutModel.Host host : rollout.getHosts()) {
+                if (host.getWave() == current) {
+                    report(host.getHost(), "ACTIVATED");
+                }
+            }
+        }
+        rollout = await(id, model -> model.getStatus() == Status.COMPLETED);
+        Assert.assertEquals(5, rollout.getActivatedCount());
+        Assert.assertEquals(0, rollout.getFailedCount());
+    }
+
+    @Test
+    public void testRolloutPausedOnFailure() throws Exception {
+        RolloutModel rollout = arkRolloutManager.start(request("10.3.0.", 4, null, 50));
+        Assert.assertEquals(2, rollout.getTotalWaves());
+        String id = rollout.getId();
+        await(id, model -> allInWave(model, 0, HostState.PUSHED));
+
+        report("10.3.0.1", "ACTIVATED");
+        report("10.3.0.2", "BROKEN");
+        rollout = await(id, model -> model.getStatus() == Status.PAUSED);
+        Assert.assertEquals(0, rollout.getCurrentWave());
+        Assert.assertEquals(1, rollout.getFailedCount());
+        Assert.assertTrue(rollout.getMessage().contains("10.3.0.2"));
+
+        // 修复后继续，失败的主机重新推送，随后进入下一批
+        report("10.3.0.2", "ACTIVATED");
+        arkRolloutManager.resume(id);
+        rollout = await(id, model -> model.getCurrentWave() == 1
+                                     && allInWave(model, 1, HostState.PUSHED));
+        Assert.assertEquals(Status.RUNNING, rollout.getStatus());
+        Assert.assertEquals(2, rollout.getActivatedCount());
+
+        Assert.assertEquals(Status.CANCELLED, arkRolloutManager.cancel(id).getStatus());
+        try {
+            arkRolloutManager.resume(id);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testPausedRolloutEvicted() throws Exception {
+        Object historySize = ReflectionTestUtils.getField(arkRolloutManager, "historySize");
+        ReflectionTestUtils.setField(arkRolloutManager, "historySize", 1);
+        try {
+            String paused = arkRolloutManager.start(request("10.5.0.", 1, null, null)).getId();
+            await(paused, model -> allInWave(model, 0, HostState.PUSHED));
+            arkRolloutManager.pause(paused);
+
+            // 超出保留数时暂停的发布被取消并淘汰，进行中的发布保留
+            String running = arkRolloutManager.start(request("10.6.0.", 1, null, null)).getId();
+            long deadline = System.currentTimeMillis() + 10000;
+            while (contains(paused) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            Assert.assertFalse(contains(paused));
+            Assert.assertTrue(contains(running));
+            arkRolloutManager.cancel(running);
+        } finally {
+            ReflectionTestUtils.setField(arkRolloutManager, "historySize", historySize);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalRollout() {
+        RolloutRequest request = request("10.4.0.", 1, null, null);
+        request.setCommand("uninstall");
+        arkRolloutManager.start(request);
+    }
+
+    private RolloutRequest request(String ipPrefix, int count, Integer batchSize,
+                                   Integer batchPercent) {
+        RolloutRequest request = new RolloutRequest();
+        request.setAppName(APP_NAME);
+        request.setPluginName("rolloutPlugin");
+        request.setPluginVersion("1.0.0");
+        request.setCommand("install");
+        List<String> hosts = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            hosts.add(ipPrefix + i);
+        }
+        request.setTargetHost(hosts);
+        request.setBatchSize(batchSize);
+        request.setBatchPercent(batchPercent);
+        return request;
+    }
+
+    /**
+     * 模拟实例上报 biz 状态
+     */
+    private void report(String host, String state) throws Exception {
+        String path = ZkNodeMirror.bizPath(APP_NAME, host);
+        byte[] data = ("{\"code\":\"SUCCESS\",\"message\":\"\",\"bizInfos\":[{\"bizName\":"
+                       + "\"rolloutPlugin\",\"bizVersion\":\"1.0.0\",\"bizState\":\"" + state + "\"}]}")
+            .getBytes();
+        if (client.checkExists().forPath(path) == null) {
+            client.create().creatingParentContainersIfNeeded().withMode(CreateMode.EPHEMERAL)
+                .forPath(path, data);
+        } else {
+            client.setData().forPath(path, data);
+        }
+    }
+
+    private boolean contains(String id) {
+        return arkRolloutManager.list().stream().anyMatch(model -> model.getId().equals(id));
+    }
+
+    private boolean allInWave(RolloutModel model, int wave, HostState state) {
+        return model.getHosts().stream().filter(host -> host.getWave() == wave)
+            .allMatch(host -> host.getState() == state);
+    }
+
+    private RolloutModel await(String id, Predicate<RolloutModel> condition)
+                                                                            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        RolloutModel model = arkRolloutManager.get(id);
+        while (!condition.test(model) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            model = arkRolloutManager.get(id);
+        }
+        Assert.assertTrue(model.getStatus() + ": " + model.getMessage(), condition.test(model));
+        return model;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard;
+
+import com.alipay.sofa.dashboard.base.AbstractTestBase;
+import com.alipay.sofa.dashboard.configuration.SchemaMigrationRunner;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class SchemaMigrationTest extends AbstractTestBase {
+
+    @Autowired
+    private SchemaMigrationRunner schemaMigrationRunner;
+
+    @Autowired
+    private JdbcTemplate          jdbcTemplate;
+
+    @Test
+    public void testMigrateOnce() throws Exception {
+        Assert.assertEquals(Integer.valueOf(1), jdbcTemplate.queryForObject(
+            "select count(*) from schema_version where version = 1", Integer.class));
+        // 已执行的脚本不会重复执行
+        Assert.assertTrue(schemaMigrationRunner.migrate().isEmpty());
+    }
+
+    @Test
+    public void testResumePartialMigration() throws Exception {
+        // 模拟脚本执行到一半失败：部分索引已创建，版本记录未写入
+        jdbcTemplate.execute("drop index idx_ark_module_user_module_id");
+        jdbcTemplate.update("delete from schema_version where version = 1");
+
+        Assert.assertEquals(1, schemaMigrationRunner.migrate().size());
+        Assert.assertEquals(Integer.valueOf(1), jdbcTemplate.queryForObject(
+            "select count(*) from schema_version where version = 1", Integer.class));
+        assertPlan("delete from ark_module_user where module_id = 1",
+            "IDX_ARK_MODULE_USER_MODULE_ID");
+    }
+
+    @Test
+    public void testDuplicatePluginNameAllowed() {
+        jdbcTemplate.update("insert into ark_module_info (plugin_name, description, create_time) "
+                            + "values ('dup-plugin', '', now())");
+        jdbcTemplate.update("insert into ark_module_info (plugin_name, description, create_time) "
+                            + "values ('dup-plugin', '', now())");
+        Assert
+            .assertEquals(Integer.valueOf(2), jdbcTemplate.queryForObject(
+                "select count(*) from ark_module_info where plugin_name = 'dup-plugin'",
+                Integer.class));
+        jdbcTemplate.update("delete from ark_module_info where plugin_name = 'dup-plugin'");
+    }
+
+    @Test
+    public void testIndexedAccessPath() {
+        assertPlan("select * from ark_module_info where plugin_name = 'a'",
+            "IDX_ARK_MODULE_INFO_PLUGIN_NAME");
+        assertPlan("select * from ark_module_version where module_id in (1, 2)",
+            "IDX_ARK_MODULE_VERSION_MODULE_VERSION");
+        assertPlan(
+            "select * from ark_module_version where module_id = 1 and module_version = '1.0'",
+            "IDX_ARK_MODULE_VERSION_MODULE_VERSION");
+        assertPlan("select * from ark_module_app where module_id in (1, 2)",
+            "IDX_ARK_MODULE_APP_MODULE_APP");
+        assertPlan("delete from ark_module_app where app_name = 'a' and module_id = 1",
+            "IDX_ARK_MODULE_APP_MODULE_APP");
+        assertPlan("delete from ark_module_user where module_id = 1",
+            "IDX_ARK_MODULE_USER_MODULE_ID");
+    }
+
+    private void assertPlan(String sql, String index) {
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+        Assert.assertTrue(plan, plan.toUpperCase().contains(index));
+    }
+}
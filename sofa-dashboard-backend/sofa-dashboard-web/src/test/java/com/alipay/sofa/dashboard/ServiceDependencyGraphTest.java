@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard;
+
+import com.alipay.sofa.dashboard.cache.ServiceDependencyGraph;
+import com.alipay.sofa.dashboard.domain.RpcConsumer;
+import com.alipay.sofa.dashboard.domain.RpcProvider;
+import com.alipay.sofa.dashboard.model.ServiceGraphModel;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ServiceDependencyGraphTest {
+
+    private ServiceDependencyGraph graph;
+
+    @Before
+    public void before() {
+        graph = new ServiceDependencyGraph();
+        // web -> order -> stock
+        graph.updateProviders("orderService", Collections.singletonList(provider("order")));
+        graph.updateConsumers("orderService", Arrays.asList(consumer("web"), consumer("web")));
+        graph.updateProviders("stockService", Collections.singletonList(provider("stock")));
+        graph.updateConsumers("stockService", Collections.singletonList(consumer("order")));
+    }
+
+    @Test
+    public void testNeighborhood() {
+        ServiceGraphModel depthOne = graph.neighborhood("order", 1);
+        Assert.assertEquals(3, depthOne.getNodes().size());
+        Assert.assertEquals(2, depthOne.getEdges().size());
+
+        ServiceGraphModel fromWeb = graph.neighborhood("web", 1);
+        Assert.assertEquals(2, fromWeb.getNodes().size());
+        Assert.assertEquals(1, fromWeb.getEdges().size());
+        ServiceGraphModel.Edge edge = fromWeb.getEdges().get(0);
+        Assert.assertEquals("web", edge.getConsumerApp());
+        Assert.assertEquals("order", edge.getProviderApp());
+        Assert.assertEquals(2, edge.getWeight());
+        Assert.assertEquals(Collections.singletonList("orderService"), edge.getServices());
+
+        ServiceGraphModel depthTwo = graph.neighborhood("web", 2);
+        Assert.assertEquals(3, depthTwo.getNodes().size());
+        Assert.assertEquals(2, depthTwo.getEdges().size());
+    }
+
+    @Test
+    public void testIncrementalUpdate() {
+        // 消费方实例减少，权重同步减少
+        graph.updateConsumers("orderService", Collections.singletonList(consumer("web")));
+        Assert.assertEquals(1, graph.neighborhood("web", 1).getEdges().get(0).getWeight());
+
+        // 提供方全部下线，边被移除
+        graph.updateProviders("orderService", new ArrayList<>());
+        Assert.assertTrue(graph.neighborhood("web", 1).getEdges().isEmpty());
+
+        // 提供方重新上线，边按当前消费方恢复
+        graph.updateProviders("orderService", Collections.singletonList(provider("order")));
+        Assert.assertEquals(1, graph.neighborhood("web", 1).getEdges().size());
+
+        graph.removeService("stockService");
+        Assert.assertEquals(2, graph.neighborhood("order", 3).getNodes().size());
+    }
+
+    private RpcProvider provider(String appName) {
+        RpcProvider provider = new RpcProvider();
+        provider.setAppName(appName);
+        return provider;
+    }
+
+    private RpcConsumer consumer(String appName) {
+        RpcConsumer consumer = new RpcConsumer();
+        consumer.setAppName(appName);
+        return consumer;
+    }
+}
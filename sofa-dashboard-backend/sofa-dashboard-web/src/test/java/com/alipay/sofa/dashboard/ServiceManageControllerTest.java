@@ -20,6 +20,7 @@ import com.alipay.sofa.dashboard.base.AbstractTestBase;
 import com.alipay.sofa.dashboard.cache.RegistryDataCache;
 import com.alipay.sofa.dashboard.domain.RpcProvider;
 import com.alipay.sofa.dashboard.domain.RpcService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.curator.retry.ExponentialBackoffRetry;
 import org.apache.zookeeper.CreateMode;
@@ -28,10 +29,19 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 /**
  * @author: guolei.sgl (guolei.sgl@antfin.com) 2019/4/10 2:06 PM
@@ -111,6 +121,34 @@ public class ServiceManageControllerTest extends AbstractTestBase {
         Assert.assertTrue(list != null && list.size() == 1);
     }
 
+    @Test
+    public void testQueryServiceBulk() {
+        String request = "http://localhost:" + definedPort + "/api/service/query/bulk";
+        Map result = restTemplate.postForObject(request,
+            Arrays.asList("serviceId1", "serviceNotExist"), Map.class);
+        Assert.assertNotNull(result);
+        Assert.assertEquals(2, result.size());
+        Map notExist = (Map) result.get("serviceNotExist");
+        Assert.assertTrue(((List) notExist.get("providers")).isEmpty());
+        Assert.assertTrue(((List) notExist.get("consumers")).isEmpty());
+    }
+
+    @Test
+    public void testQueryServiceGzip() throws IOException {
+        String request = "http://localhost:" + definedPort
+                         + "/api/service/query/services?serviceName={1}";
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        ResponseEntity<byte[]> response = restTemplate.exchange(request, HttpMethod.GET,
+            new HttpEntity<>(headers), byte[].class, "serviceId1");
+        Assert.assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(
+            response.getBody()))) {
+            List list = new ObjectMapper().readValue(input, List.class);
+            Assert.assertEquals(1, list.size());
+        }
+    }
+
     private void initZookeeperRpcData() throws Exception {
         createNode("/sofa-rpc", null, CreateMode.PERSISTENT);
         createNode("/sofa-rpc/serviceId1/consumers", null, CreateMode.EPHEMERAL);
@@ -18,7 +18,9 @@ package com.alipay.sofa.dashboard;
 
 import com.alipay.sofa.dashboard.base.AbstractTestBase;
 import com.alipay.sofa.dashboard.constants.SofaDashboardConstants;
+import com.alipay.sofa.dashboard.impl.ArkMetadataCache;
 import com.alipay.sofa.dashboard.impl.ZkCommandPushManager;
+import com.alipay.sofa.dashboard.model.CommandPushResult;
 import com.alipay.sofa.dashboard.model.CommandRequest;
 import org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.curator.retry.ExponentialBackoffRetry;
@@ -28,8 +30,18 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author: guolei.sgl (guolei.sgl@antfin.com) 2019/7/22 3:02 PM
@@ -40,19 +52,20 @@ public class ZkCommandPushManagerTest extends AbstractTestBase {
     @Autowired
     private ZkCommandPushManager zkCommandPushManager;
 
+    @Autowired
+    private ArkMetadataCache     arkMetadataCache;
+
+    @Autowired
+    private JdbcTemplate         jdbcTemplate;
+
     @Before
     public void before() throws Exception {
         // 初始化 zk 节点
         client = CuratorFrameworkFactory.newClient("localhost:2181", new ExponentialBackoffRetry(
             1000, 3));
         client.start();
-        client
-            .create()
-            .creatingParentContainersIfNeeded()
-            .withMode(CreateMode.PERSISTENT)
-            .forPath(
-                SofaDashboardConstants.SOFA_ARK_ROOT + SofaDashboardConstants.SEPARATOR + "testApp",
-                "".getBytes());
+        createNode(SofaDashboardConstants.SOFA_ARK_ROOT + SofaDashboardConstants.SEPARATOR
+                   + "testApp", "".getBytes(), CreateMode.PERSISTENT);
     }
 
     @After
@@ -91,4 +104,165 @@ public class ZkCommandPushManagerTest extends AbstractTestBase {
         String ipData = new String(ipBytes);
         Assert.assertTrue(ipData.contains("activated"));
     }
+
+    @Test
+    public void testPushCommandAsync() throws Exception {
+        CommandRequest commandRequest = new CommandRequest();
+        commandRequest.setCommand("install");
+        commandRequest.setPluginVersion("1.0.0");
+        commandRequest.setDimension("ip");
+        commandRequest.setPluginName("testPlugin");
+        commandRequest.setAppName("testApp");
+        List<String> hosts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            hosts.add("10.0.0." + i);
+        }
+        commandRequest.setTargetHost(hosts);
+
+        AtomicInteger notified = new AtomicInteger();
+        List<CommandPushResult> results = zkCommandPushManager
+            .pushCommandAsync(commandRequest, result -> notified.incrementAndGet())
+            .get(30, TimeUnit.SECONDS);
+        Assert.assertEquals(200, results.size());
+        Assert.assertEquals(200, notified.get());
+        for (CommandPushResult result : results) {
+            Assert.assertTrue(result.getMessage(), result.isSuccess());
+        }
+        String path = SofaDashboardConstants.SOFA_ARK_ROOT + SofaDashboardConstants.SEPARATOR
+                      + "testApp" + SofaDashboardConstants.SEPARATOR + "10.0.0.199";
+        Assert.assertTrue(new String(client.getData().forPath(path)).contains("activated"));
+
+        // 已存在的节点合并新命令
+        commandRequest.setPluginVersion("2.0.0");
+        results = zkCommandPushManager.pushCommandAsync(commandRequest, result -> {}).get(30,
+            TimeUnit.SECONDS);
+        Assert.assertTrue(results.stream().allMatch(CommandPushResult::isSuccess));
+        String data = new String(client.getData().forPath(path));
+        Assert.assertTrue(data.contains("testPlugin:1.0.0:activated"));
+        Assert.assertTrue(data.contains("testPlugin:2.0.0:deactivated"));
+    }
+
+    @Test
+    public void testPushCommandAsyncFailsExceptionally() throws Exception {
+        jdbcTemplate
+            .update("insert into ark_module_info (plugin_name, description) values (?, '')",
+                "versionlessPlugin");
+        try {
+            CommandRequest commandRequest = installRequest("testApp", "ip", "9.9.9");
+            commandRequest.setPluginName("versionlessPlugin");
+            List<String> hosts = new ArrayList<>();
+            hosts.add("127.0.0.9");
+            commandRequest.setTargetHost(hosts);
+            // 插件地址解析失败不在调用线程抛出，而是使 future 异常完成
+            CompletableFuture<List<CommandPushResult>> future = zkCommandPushManager
+                .pushCommandAsync(commandRequest, result -> {});
+            try {
+                future.get(30, TimeUnit.SECONDS);
+                Assert.fail("Push should fail when the plugin version does not exist.");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause().getMessage(),
+                    e.getCause().getMessage().contains("Module version not found"));
+            }
+        } finally {
+            jdbcTemplate.update("delete from ark_module_info where plugin_name = ?",
+                "versionlessPlugin");
+            arkMetadataCache.invalidate();
+        }
+    }
+
+    @Test
+    public void testPluginUrlFallbackToDatabase() throws Exception {
+        arkMetadataCache.plugins();
+        // 模拟其他节点写入，本节点缓存未失效
+        jdbcTemplate
+            .update("insert into ark_module_info (plugin_name, description) values (?, '')",
+                "remotePlugin");
+        Integer id = jdbcTemplate.queryForObject(
+            "select id from ark_module_info where plugin_name = ?", Integer.class, "remotePlugin");
+        jdbcTemplate
+            .update(
+                "insert into ark_module_version (module_id, module_version, source_path) values (?, ?, ?)",
+                id, "1.0.0", "http://remote/1.0.0.jar");
+        try {
+            CommandRequest commandRequest = installRequest("testApp", "ip", "1.0.0");
+            commandRequest.setPluginName("remotePlugin");
+            List<String> hosts = new ArrayList<>();
+            hosts.add("127.0.0.8");
+            commandRequest.setTargetHost(hosts);
+            zkCommandPushManager.pushCommand(commandRequest);
+            String ipPath = SofaDashboardConstants.SOFA_ARK_ROOT + SofaDashboardConstants.SEPARATOR
+                            + "testApp" + SofaDashboardConstants.SEPARATOR + "127.0.0.8";
+            Assert.assertTrue(new String(client.getData().forPath(ipPath))
+                .contains("bizUrl=http://remote/1.0.0.jar"));
+        } finally {
+            jdbcTemplate.update("delete from ark_module_version where module_id = ?", id);
+            jdbcTemplate.update("delete from ark_module_info where id = ?", id);
+            arkMetadataCache.invalidate();
+        }
+    }
+
+    @Test
+    public void testConcurrentPushCommand() throws Exception {
+        int concurrency = 10;
+        String appName = "concurrentApp";
+        String host = "127.0.0.9";
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            // 应用维度：多个推送同时修改同一节点，不丢失更新
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                CommandRequest commandRequest = installRequest(appName, "app", "1.0." + i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    zkCommandPushManager.pushCommand(commandRequest);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            String appPath = SofaDashboardConstants.SOFA_ARK_ROOT
+                             + SofaDashboardConstants.SEPARATOR + appName;
+            assertAllInstalled(new String(client.getData().forPath(appPath)), concurrency);
+
+            // IP 维度：多条命令并行写入同一主机节点，应用节点为 before 中创建的持久节点
+            List<CompletableFuture<List<CommandPushResult>>> pushes = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                CommandRequest commandRequest = installRequest("testApp", "ip", "1.0." + i);
+                List<String> hosts = new ArrayList<>();
+                hosts.add(host);
+                commandRequest.setTargetHost(hosts);
+                pushes.add(zkCommandPushManager.pushCommandAsync(commandRequest, result -> {}));
+            }
+            for (CompletableFuture<List<CommandPushResult>> push : pushes) {
+                CommandPushResult result = push.get(30, TimeUnit.SECONDS).get(0);
+                Assert.assertTrue(result.getMessage(), result.isSuccess());
+            }
+            String ipPath = SofaDashboardConstants.SOFA_ARK_ROOT + SofaDashboardConstants.SEPARATOR
+                            + "testApp" + SofaDashboardConstants.SEPARATOR + host;
+            assertAllInstalled(new String(client.getData().forPath(ipPath)), concurrency);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private CommandRequest installRequest(String appName, String dimension, String version) {
+        CommandRequest commandRequest = new CommandRequest();
+        commandRequest.setCommand("install");
+        commandRequest.setPluginVersion(version);
+        commandRequest.setDimension(dimension);
+        commandRequest.setPluginName("testPlugin");
+        commandRequest.setAppName(appName);
+        return commandRequest;
+    }
+
+    private void assertAllInstalled(String data, int count) {
+        for (int i = 0; i < count; i++) {
+            Assert.assertTrue(data, data.contains("testPlugin:1.0." + i + ":"));
+        }
+        // 同一 biz 只有一个版本处于激活状态
+        Assert.assertEquals(data, data.indexOf(":activated"), data.lastIndexOf(":activated"));
+    }
 }
@@ -19,8 +19,10 @@ package com.alipay.sofa.dashboard;
 import com.alipay.sofa.dashboard.base.AbstractTestBase;
 import com.alipay.sofa.dashboard.constants.SofaDashboardConstants;
 import com.alipay.sofa.dashboard.impl.ZkHelper;
+import com.alipay.sofa.dashboard.impl.ZkNodeMirror;
 import com.alipay.sofa.dashboard.model.AppUnitModel;
 import com.alipay.sofa.dashboard.model.ClientResponseModel;
+import com.alipay.sofa.dashboard.model.ClientSummaryModel;
 import org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.curator.retry.ExponentialBackoffRetry;
 import org.apache.zookeeper.CreateMode;
@@ -39,10 +41,13 @@ import java.util.List;
  **/
 public class ZkHelperTest extends AbstractTestBase {
 
-    String   arkAppBasePath = SofaDashboardConstants.SOFA_ARK_ROOT
-                              + SofaDashboardConstants.SEPARATOR + "ark-master/127.0.0.1";
+    String       arkAppBasePath = SofaDashboardConstants.SOFA_ARK_ROOT
+                                  + SofaDashboardConstants.SEPARATOR + "ark-master/127.0.0.1";
     @Autowired
-    ZkHelper zkHelper;
+    ZkHelper     zkHelper;
+
+    @Autowired
+    ZkNodeMirror zkNodeMirror;
 
     @Before
     public void before() throws Exception {
@@ -55,6 +60,21 @@ public class ZkHelperTest extends AbstractTestBase {
             .forPath("/apps/biz/ark-master/127.0.0.1", bizState.getBytes());
         client.create().creatingParentContainersIfNeeded().withMode(CreateMode.EPHEMERAL)
             .forPath(arkAppBasePath);
+        awaitMirror(1);
+    }
+
+    /**
+     * 镜像通过监听异步更新，等待 ark-master 的实例数与 biz 节点与 zk 一致
+     */
+    private List<String> awaitMirror(int instanceCount) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        List<String> instances = zkNodeMirror.getArkInstances("ark-master");
+        while ((instances == null || instances.size() != instanceCount || zkNodeMirror.getBizNode(
+            "ark-master", "127.0.0.1") == null) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            instances = zkNodeMirror.getArkInstances("ark-master");
+        }
+        return instances;
     }
 
     @After
@@ -70,6 +90,46 @@ public class ZkHelperTest extends AbstractTestBase {
         Assert.assertTrue(arkAppFromZookeeper.get(0).getStatus().equalsIgnoreCase("activated"));
     }
 
+    @Test
+    public void testNodeMirror() throws Exception {
+        client.create().creatingParentContainersIfNeeded().withMode(CreateMode.EPHEMERAL)
+            .forPath(SofaDashboardConstants.SOFA_ARK_ROOT + "/ark-master/127.0.0.2");
+        List<String> instances = awaitMirror(2);
+        Assert.assertNotNull(instances);
+        Assert.assertTrue(instances.contains("127.0.0.2"));
+        Assert.assertEquals(2, zkHelper.getArkAppCount("ark-master"));
+        Assert.assertEquals(bizState, new String(zkNodeMirror.getBizNode("ark-master", "127.0.0.1")
+            .getData()));
+        // 镜像初始化后，不存在的节点直接由镜像回答
+        Assert.assertTrue(zkNodeMirror.getArkInstances("not-exist").isEmpty());
+        Assert.assertEquals(0, zkHelper.getArkAppCount("not-exist"));
+        Assert.assertTrue(zkNodeMirror.isBizInitialized());
+        Assert.assertNull(zkNodeMirror.getBizNode("not-exist", "127.0.0.1"));
+    }
+
+    @Test
+    public void testBizStateParsedOncePerVersion() throws Exception {
+        ClientResponseModel detail = zkHelper.getBizState("ark-master", "127.0.0.1");
+        Assert.assertSame(detail, zkHelper.getBizState("ark-master", "127.0.0.1"));
+        ClientSummaryModel summary = zkHelper.getBizSummary("ark-master", "127.0.0.1");
+        Assert.assertEquals("SUCCESS", summary.getCode().name());
+        Assert.assertEquals(1, summary.getBizInfos().size());
+        Assert.assertEquals("ark-master", summary.getBizInfos().get(0).getBizName());
+        Assert.assertEquals(100, summary.getBizInfos().get(0).getPriority().intValue());
+
+        // 节点数据变化后重新解析
+        client.setData().forPath("/apps/biz/ark-master/127.0.0.1",
+            bizState.replace("ACTIVATED", "DEACTIVATED").getBytes());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (zkHelper.getBizSummary("ark-master", "127.0.0.1") == summary
+               && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals("DEACTIVATED",
+            zkHelper.getAppState("ark-master", "127.0.0.1", "ark-master", "1.0.0"));
+        Assert.assertNotSame(detail, zkHelper.getBizState("ark-master", "127.0.0.1"));
+    }
+
     @Test
     public void testGetBizState() throws Exception {
         ClientResponseModel bizState = zkHelper.getBizState("ark-master", "127.0.0.1");
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.utils;
+
+import com.alipay.sofa.dashboard.model.ArkOperation;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class ArkOperationCodecTest {
+
+    @Test
+    public void testDecodeAndEncode() {
+        String data = "biz:1.0.0:activated?bizUrl=file:///a.jar;;biz:2.0.0:deactivated";
+        List<ArkOperation> operations = ArkOperationCodec.decode(data);
+        Assert.assertEquals(2, operations.size());
+        Assert.assertEquals("bizUrl=file:///a.jar", operations.get(0).getParameters());
+        Assert.assertEquals("deactivated", operations.get(1).getState());
+        Assert.assertEquals("biz:1.0.0:activated?bizUrl=file:///a.jar;biz:2.0.0:deactivated",
+            ArkOperationCodec.encode(operations));
+        Assert.assertTrue(ArkOperationCodec.decode("").isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeIllegal() {
+        ArkOperationCodec.decode("biz:1.0.0");
+    }
+
+    @Test
+    public void testMerge() {
+        String data = ArkOperationCodec.merge(operation("install", "1.0.0"), "");
+        Assert.assertEquals("biz:1.0.0:activated", data);
+        data = ArkOperationCodec.merge(operation("install", "2.0.0"), data);
+        Assert.assertEquals("biz:1.0.0:activated;biz:2.0.0:deactivated", data);
+        // 重复安装不改变数据
+        Assert.assertEquals(data, ArkOperationCodec.merge(operation("install", "2.0.0"), data));
+        data = ArkOperationCodec.merge(operation("switch", "2.0.0"), data);
+        Assert.assertEquals("biz:1.0.0:deactivated;biz:2.0.0:activated", data);
+        data = ArkOperationCodec.merge(operation("uninstall", "1.0.0"), data);
+        Assert.assertEquals("biz:2.0.0:activated", data);
+    }
+
+    private ArkOperation operation(String command, String version) {
+        ArkOperation operation = new ArkOperation();
+        operation.setCommand(command);
+        operation.setBizName("biz");
+        operation.setBizVersion(version);
+        return operation;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.utils;
+
+import com.alipay.sofa.dashboard.client.model.env.EnvironmentDescriptor;
+import com.alipay.sofa.dashboard.client.model.env.PropertySourceDescriptor;
+import com.alipay.sofa.dashboard.client.model.env.PropertyValueDescriptor;
+import com.alipay.sofa.dashboard.model.ConfigDiff;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ConfigDiffUtilsTest {
+
+    @Test
+    public void testDiff() {
+        Map<String, FlatKeyIndex> indexes = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            String port = i < 97 ? "8080" : "8081";
+            indexes.put("instance-" + i, FlatKeyIndex.of(environment(port, i == 99)));
+        }
+
+        ConfigDiff diff = ConfigDiffUtils.diff("env", indexes);
+        Assert.assertEquals(100, diff.getInstanceCount());
+        Assert.assertEquals(3, diff.getGroups().size());
+        Assert.assertEquals(97, diff.getGroups().get(0).getInstances().size());
+        Assert.assertEquals(2, diff.getDifferences().size());
+        Assert.assertEquals(Arrays.asList("8080", "8081", "8081"),
+            diff.getDifferences().get("applicationConfig.server.port"));
+        Assert.assertEquals(Arrays.asList(null, null, "true"),
+            diff.getDifferences().get("applicationConfig.feature.enabled"));
+
+        ConfigDiff same = ConfigDiffUtils.diff("env",
+            indexesOf(indexes.get("instance-0"), indexes.get("instance-1")));
+        Assert.assertEquals(1, same.getGroups().size());
+        Assert.assertTrue(same.getDifferences().isEmpty());
+    }
+
+    private Map<String, FlatKeyIndex> indexesOf(FlatKeyIndex... indexes) {
+        Map<String, FlatKeyIndex> result = new LinkedHashMap<>();
+        for (int i = 0; i < indexes.length; i++) {
+            result.put("instance-" + i, indexes[i]);
+        }
+        return result;
+    }
+
+    private EnvironmentDescriptor environment(String port, boolean feature) {
+        PropertySourceDescriptor propertySource = new PropertySourceDescriptor();
+        propertySource.setName("applicationConfig");
+        put(propertySource, "spring.application.name", "demo");
+        put(propertySource, "server.port", port);
+        if (feature) {
+            put(propertySource, "feature.enabled", "true");
+        }
+        EnvironmentDescriptor descriptor = new EnvironmentDescriptor();
+        descriptor.getPropertySources().add(propertySource);
+        return descriptor;
+    }
+
+    private void put(PropertySourceDescriptor propertySource, String key, String value) {
+        PropertyValueDescriptor descriptor = new PropertyValueDescriptor();
+        descriptor.setValue(value);
+        propertySource.getProperties().put(key, descriptor);
+    }
+}
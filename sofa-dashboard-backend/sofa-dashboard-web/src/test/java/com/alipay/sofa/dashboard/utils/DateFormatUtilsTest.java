@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.utils;
+
+import com.alipay.sofa.dashboard.model.StampedValueEntity;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+
+public class DateFormatUtilsTest {
+
+    @Test
+    public void testFormat() {
+        SimpleDateFormat expected = new SimpleDateFormat(DateFormatUtils.PATTERN);
+        long now = System.currentTimeMillis();
+        for (long offset = 0; offset < 10000; offset += 333) {
+            Assert
+                .assertEquals(expected.format(now + offset), DateFormatUtils.format(now + offset));
+        }
+        // 同一秒内的时间戳复用缓存结果
+        long second = now / 1000 * 1000;
+        Assert.assertSame(DateFormatUtils.format(second), DateFormatUtils.format(second + 999));
+    }
+
+    @Test
+    public void testStampedValueTimestamp() {
+        long now = System.currentTimeMillis();
+        StampedValueEntity<String> value = new StampedValueEntity<>();
+        value.setEpochMillis(now);
+        // 读取不会触发格式化
+        Assert.assertNull(value.getTimestamp());
+        Assert.assertEquals(Long.valueOf(now), value.getEpochMillis());
+
+        value.formatTimestamp();
+        Assert.assertEquals(DateFormatUtils.format(now), value.getTimestamp());
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.utils;
+
+import com.alipay.sofa.dashboard.client.model.env.EnvironmentDescriptor;
+import com.alipay.sofa.dashboard.client.model.env.PropertySourceDescriptor;
+import com.alipay.sofa.dashboard.client.model.env.PropertyValueDescriptor;
+import com.alipay.sofa.dashboard.client.model.logger.LoggerDescriptor;
+import com.alipay.sofa.dashboard.client.model.logger.LoggersDescriptor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class FlatKeyIndexTest {
+
+    @Test
+    public void testSearchEnvironment() {
+        EnvironmentDescriptor descriptor = new EnvironmentDescriptor();
+        PropertySourceDescriptor propertySource = new PropertySourceDescriptor();
+        propertySource.setName("applicationConfig");
+        put(propertySource, "spring.application.name", "demo");
+        put(propertySource, "server.port", 8080);
+        put(propertySource, "com.alipay.sofa.rpc.registry.address", "zookeeper://127.0.0.1");
+        descriptor.getPropertySources().add(propertySource);
+        PropertySourceDescriptor system = new PropertySourceDescriptor();
+        system.setName("systemProperties");
+        put(system, "server.host", "hidden");
+        descriptor.getPropertySources().add(system);
+
+        FlatKeyIndex index = FlatKeyIndex.of(descriptor);
+        Assert.assertEquals(3, index.size());
+        // 同一描述对象复用索引
+        Assert.assertSame(index, FlatKeyIndex.of(descriptor));
+
+        Map<String, String> prefix = index.search("APPLICATIONCONFIG.s", FlatKeyIndex.Mode.PREFIX,
+            10);
+        Assert.assertEquals(2, prefix.size());
+        Assert.assertEquals("8080", prefix.get("applicationConfig.server.port"));
+
+        Map<String, String> substring = index.search("registry", FlatKeyIndex.Mode.SUBSTRING, 10);
+        Assert.assertEquals(1, substring.size());
+        Assert.assertTrue(substring
+            .containsKey("applicationConfig.com.alipay.sofa.rpc.registry.address"));
+
+        Assert.assertEquals(1, index.search("", FlatKeyIndex.Mode.PREFIX, 1).size());
+    }
+
+    @Test
+    public void testSearchLoggers() {
+        LoggersDescriptor descriptor = new LoggersDescriptor();
+        LoggerDescriptor logger = new LoggerDescriptor();
+        logger.setEffectiveLevel("INFO");
+        descriptor.getLoggers().put("com.alipay.sofa", logger);
+        descriptor.getLoggers().put("ROOT", logger);
+
+        Map<String, String> result = FlatKeyIndex.of(descriptor).search("root",
+            FlatKeyIndex.Mode.PREFIX, 10);
+        Assert.assertEquals("INFO", result.get("ROOT"));
+        Assert.assertEquals(0, FlatKeyIndex.of((LoggersDescriptor) null).size());
+    }
+
+    private void put(PropertySourceDescriptor propertySource, String key, Object value) {
+        PropertyValueDescriptor descriptor = new PropertyValueDescriptor();
+        descriptor.setValue(value);
+        propertySource.getProperties().put(key, descriptor);
+    }
+}
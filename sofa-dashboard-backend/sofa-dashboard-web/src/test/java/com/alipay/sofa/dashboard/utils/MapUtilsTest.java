@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MapUtilsTest {
+
+    @Test
+    public void testToFlatMap() {
+        Map<String, Object> c = new HashMap<>();
+        c.put("c", "d");
+        Map<String, Object> a = new LinkedHashMap<>();
+        a.put("b", c);
+        a.put("e", "f");
+        Map<String, Object> origin = new LinkedHashMap<>();
+        origin.put("a", a);
+        origin.put("g", 1);
+
+        Map<String, Object> flat = MapUtils.toFlatMap(origin);
+        Assert.assertEquals(3, flat.size());
+        Assert.assertEquals("d", flat.get("a.b.c"));
+        Assert.assertEquals("f", flat.get("a.e"));
+        Assert.assertEquals(1, flat.get("g"));
+        Assert.assertTrue(MapUtils.toFlatMap(null).isEmpty());
+    }
+
+    @Test
+    public void testDeepNesting() {
+        Map<String, Object> origin = new HashMap<>();
+        Map<String, Object> current = origin;
+        StringBuilder expected = new StringBuilder("k");
+        for (int i = 0; i < 5000; i++) {
+            Map<String, Object> next = new HashMap<>();
+            current.put("k", next);
+            current = next;
+            expected.append(".k");
+        }
+        current.put("k", "leaf");
+        // 深层嵌套不会栈溢出
+        Map<String, Object> flat = MapUtils.toFlatMap(origin);
+        Assert.assertEquals("leaf", flat.get(expected.toString()));
+    }
+
+    @Test
+    public void testEarlyTermination() {
+        Map<String, Object> origin = new LinkedHashMap<>();
+        for (int i = 0; i < 10; i++) {
+            Map<String, Object> nested = new LinkedHashMap<>();
+            nested.put("x", i);
+            origin.put("n" + i, nested);
+        }
+        List<String> visited = new ArrayList<>();
+        MapUtils.flatten(origin, (key, value) -> {
+            visited.add(key);
+            return visited.size() < 2;
+        });
+        Assert.assertEquals(2, visited.size());
+
+        Map<String, Object> limited = MapUtils.toFlatMap(origin, 3);
+        Assert.assertEquals(3, limited.size());
+        Assert.assertEquals(0, limited.get("n0.x"));
+        Assert.assertEquals(2, limited.get("n2.x"));
+        Assert.assertTrue(MapUtils.toFlatMap(origin, 0).isEmpty());
+    }
+}
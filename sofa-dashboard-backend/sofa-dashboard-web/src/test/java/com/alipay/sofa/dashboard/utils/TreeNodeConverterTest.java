@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.utils;
+
+import com.alipay.sofa.dashboard.client.model.env.EnvironmentDescriptor;
+import com.alipay.sofa.dashboard.client.model.env.PropertySourceDescriptor;
+import com.alipay.sofa.dashboard.client.model.env.PropertyValueDescriptor;
+import com.alipay.sofa.dashboard.model.TreeNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class TreeNodeConverterTest {
+
+    @Test
+    public void testRenderByPath() {
+        EnvironmentDescriptor descriptor = new EnvironmentDescriptor();
+        descriptor.getPropertySources().add(propertySource("systemProperties", 10));
+        descriptor.getPropertySources().add(propertySource("applicationConfig", 100));
+
+        TreeNode full = TreeNodeConverter.convert(descriptor);
+        Assert.assertEquals(2, full.getChildren().size());
+        TreeNode sources = full.getChildren().get(1);
+        Assert.assertEquals(1, sources.getChildren().size());
+        Assert.assertEquals(100, sources.getChildren().get(0).getChildren().size());
+        Assert.assertNull(sources.getChildCount());
+
+        // 只展开一层时，propertySources 只返回子节点数
+        TreeNode top = TreeNodeConverter.render(TreeNodeConverter.view(descriptor),
+            Collections.emptyList(), 1);
+        Assert.assertNull(top.getChildren().get(1).getChildren());
+        Assert.assertEquals(Integer.valueOf(1), top.getChildren().get(1).getChildCount());
+
+        TreeNode subtree = TreeNodeConverter.render(TreeNodeConverter.view(descriptor),
+            Arrays.asList("propertySources", "applicationConfig"), 1);
+        Assert.assertEquals("applicationConfig", subtree.getName());
+        Assert.assertEquals(100, subtree.getChildren().size());
+
+        Assert.assertNull(TreeNodeConverter.render(TreeNodeConverter.view(descriptor),
+            Arrays.asList("propertySources", "systemProperties"), 1));
+    }
+
+    @Test
+    public void testRenderEmptyBranch() {
+        EnvironmentDescriptor descriptor = new EnvironmentDescriptor();
+        descriptor.getPropertySources().add(propertySource("emptyConfig", 0));
+
+        // 没有子节点的分支节点保留空的 children，与叶子节点区分
+        TreeNode empty = TreeNodeConverter.render(TreeNodeConverter.view(descriptor),
+            Arrays.asList("propertySources", "emptyConfig"), 0);
+        Assert.assertNotNull(empty.getChildren());
+        Assert.assertTrue(empty.getChildren().isEmpty());
+        Assert.assertNull(empty.getChildCount());
+
+        TreeNode activeProfiles = TreeNodeConverter.convert(descriptor).getChildren().get(0);
+        Assert.assertNull(activeProfiles.getChildren());
+    }
+
+    private PropertySourceDescriptor propertySource(String name, int size) {
+        PropertySourceDescriptor propertySource = new PropertySourceDescriptor();
+        propertySource.setName(name);
+        for (int i = 0; i < size; i++) {
+            PropertyValueDescriptor value = new PropertyValueDescriptor();
+            value.setValue("value" + i);
+            propertySource.getProperties().put("key" + i, value);
+        }
+        return propertySource;
+    }
+}
@@ -62,4 +62,9 @@ CREATE TABLE `sofa_dashboard_user` (
   `password` varchar(32) DEFAULT '' COMMENT '用户密码',
   `header_img_url` varchar(64) DEFAULT '' COMMENT '头像地址链接',
   PRIMARY KEY (`id`)
-) ENGINE=InnoDB AUTO_INCREMENT=0 DEFAULT CHARSET=utf8mb4 ;
\ No newline at end of file
+) ENGINE=InnoDB AUTO_INCREMENT=0 DEFAULT CHARSET=utf8mb4 ;
+
+-- ----------------------------
+-- 重建基线表后索引随表删除，清空迁移记录以便启动时重新执行 db/migration 下的脚本
+-- ----------------------------
+DROP TABLE IF EXISTS `schema_version`;
@@ -10,7 +10,8 @@ export async function queryInstance (params) {
 }
 
 export async function queryInstanceEnv (instanceId) {
-  return request(`/api/instance/${ instanceId }/env`);
+  // 环境变量页面一次展示完整的树，需要显式展开全部层级
+  return request(`/api/instance/${ instanceId }/env?depth=-1`);
 }
 
 export async function queryInstanceHealth (instanceId) {
@@ -22,7 +23,8 @@ export async function queryInstanceLoggers (instanceId) {
 }
 
 export async function queryInstanceMappings (instanceId) {
-  return request(`/api/instance/${ instanceId }/mappings`);
+  // mappings 页面同样一次展示完整的树
+  return request(`/api/instance/${ instanceId }/mappings?depth=-1`);
 }
 
 export async function queryInstanceInfo (instanceId) {
@@ -68,3 +68,7 @@ CREATE TABLE `sofa_dashboard_user` (
   PRIMARY KEY (`id`)
 ) ENGINE=InnoDB AUTO_INCREMENT=0 DEFAULT CHARSET=utf8mb4 COMMENT '用户表';
 
+-- ----------------------------
+-- 重建基线表后索引随表删除，清空迁移记录以便启动时重新执行 db/migration 下的脚本
+-- ----------------------------
+DROP TABLE IF EXISTS `schema_version`;